@@ -0,0 +1,131 @@
+/**
+ *   This file is part of Skript.
+ *
+ *  Skript is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  Skript is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with Skript.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * Copyright Peter Güttinger, SkriptLang team and contributors
+ */
+package ch.njol.skript.variables;
+
+import ch.njol.skript.classes.data.JavaClasses;
+import ch.njol.skript.registrations.Classes;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.infra.Blackhole;
+import org.skriptlang.skript.benchmark.BenchmarkEnvironment;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Reads and writes a variables file in the format of the {@link FlatFileStorage},
+ * including the (de)serialisation of the values.
+ * <p>
+ * Loading includes handing the variables to {@link Variables}, which keeps them in memory as if the storages were still loading.
+ * Saving rewrites the file with {@link FlatFileStorage#saveVariables(boolean)}, the same way as the periodic and final saves.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class FlatFileStorageBenchmark {
+
+	@Param({"10000", "100000", "1000000"})
+	public int variables;
+
+	private Path loadFile;
+	private Path saveFile;
+	private FlatFileStorage storage;
+
+	@Setup(Level.Trial)
+	public void setUp() throws IOException {
+		BenchmarkEnvironment.setUp(JavaClasses::new);
+		// The loaded variables are kept in memory as if the storages were still loading
+		storage = new FlatFileStorage("benchmark");
+
+		for (int i = 0; i < variables; i++) {
+			// A mix of the most common types of saved variables
+			Object value;
+			switch (i % 3) {
+				case 0:
+					value = (long) i;
+					break;
+				case 1:
+					value = i / 7.0;
+					break;
+				default:
+					value = "value " + i;
+			}
+			Variables.setVariable("benchmark::" + i, value);
+		}
+		// Only variables accepted by a storage are saved by it
+		Variables.STORAGES.add(storage);
+
+		loadFile = Files.createTempFile("skript-benchmark", ".csv");
+		saveFile = Files.createTempFile("skript-benchmark", ".csv");
+		storage.file = loadFile.toFile();
+		storage.saveVariables(true);
+		storage.file = saveFile.toFile();
+	}
+
+	@TearDown(Level.Trial)
+	public void tearDown() throws IOException {
+		Files.deleteIfExists(loadFile);
+		Files.deleteIfExists(saveFile);
+	}
+
+	@Benchmark
+	public void load() throws IOException {
+		new CSVVariableLoader(storage).load(loadFile.toFile());
+	}
+
+	/**
+	 * Reads the file line by line on one thread, the way it was loaded before {@link CSVVariableLoader}.
+	 */
+	@Benchmark
+	public void loadLineByLine(Blackhole blackhole) throws IOException {
+		try (BufferedReader reader = Files.newBufferedReader(loadFile, FlatFileStorage.FILE_CHARSET)) {
+			String line;
+			while ((line = reader.readLine()) != null) {
+				line = line.trim();
+				if (line.isEmpty() || line.startsWith("#"))
+					continue;
+				String[] split = FlatFileStorage.splitCSV(line);
+				if (split == null || split.length != 3)
+					throw new IllegalStateException("Invalid line " + line);
+				blackhole.consume(split[0]);
+				blackhole.consume(Classes.deserialize(split[1], FlatFileStorage.decode(split[2])));
+			}
+		}
+	}
+
+	/**
+	 * Rewrites the file with all variables, without reconnecting the storage afterwards.
+	 */
+	@Benchmark
+	public void save() {
+		storage.saveVariables(true);
+	}
+
+}
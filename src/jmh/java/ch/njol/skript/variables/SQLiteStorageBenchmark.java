@@ -0,0 +1,126 @@
+/**
+ *   This file is part of Skript.
+ *
+ *  Skript is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  Skript is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with Skript.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * Copyright Peter Güttinger, SkriptLang team and contributors
+ */
+package ch.njol.skript.variables;
+
+import ch.njol.skript.classes.data.JavaClasses;
+import ch.njol.skript.registrations.Classes;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.skriptlang.skript.benchmark.BenchmarkEnvironment;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Writes and deletes variables in a SQLite database with the queries and batching of the {@link SQLStorage},
+ * on a connection to a database file with the same table as the SQLite storage.
+ * Like the storage, the connection doesn't auto-commit, and the changes are committed at the end of each invocation.
+ * <p>
+ * The storage itself connects through SQLibrary and schedules tasks on the server, so the benchmark uses JDBC directly.
+ * A batch size of {@code 1} executes every change on its own.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class SQLiteStorageBenchmark {
+
+	private static final String TABLE = "variables21";
+
+	@Param({"1000", "10000"})
+	public int variables;
+
+	@Param({"1", "100", "500"})
+	public int batchSize;
+
+	private Path file;
+	private Connection connection;
+	private PreparedStatement writeQuery;
+	private PreparedStatement deleteQuery;
+	private final List<SerializedVariable> writes = new ArrayList<>();
+	private final List<SerializedVariable> deletes = new ArrayList<>();
+
+	@Setup(Level.Trial)
+	public void setUp() throws IOException, SQLException {
+		BenchmarkEnvironment.setUp(JavaClasses::new);
+
+		for (int i = 0; i < variables; i++) {
+			// A mix of the most common types of saved variables
+			Object value;
+			switch (i % 3) {
+				case 0:
+					value = (long) i;
+					break;
+				case 1:
+					value = i / 7.0;
+					break;
+				default:
+					value = "value " + i;
+			}
+			writes.add(new SerializedVariable("benchmark::" + i, Classes.serialize(value)));
+			deletes.add(new SerializedVariable("benchmark::" + i, null));
+		}
+
+		file = Files.createTempFile("skript-benchmark", ".db");
+		connection = DriverManager.getConnection("jdbc:sqlite:" + file.toAbsolutePath());
+		try (Statement statement = connection.createStatement()) {
+			statement.execute("CREATE TABLE " + TABLE + " (" +
+				"name VARCHAR(" + SQLStorage.MAX_VARIABLE_NAME_LENGTH + ") NOT NULL PRIMARY KEY, " +
+				"type VARCHAR(" + SQLStorage.MAX_CLASS_CODENAME_LENGTH + "), " +
+				"value BLOB(" + SQLStorage.MAX_VALUE_SIZE + "), " +
+				"update_guid CHAR(36) NOT NULL)");
+		}
+		connection.setAutoCommit(false);
+		writeQuery = connection.prepareStatement(String.format(SQLStorage.WRITE_QUERY, TABLE));
+		deleteQuery = connection.prepareStatement(String.format(SQLStorage.DELETE_QUERY, TABLE));
+	}
+
+	@TearDown(Level.Trial)
+	public void tearDown() throws IOException, SQLException {
+		connection.close();
+		Files.deleteIfExists(file);
+	}
+
+	/**
+	 * Writes all variables, then deletes them again so that every invocation starts with an empty table.
+	 */
+	@Benchmark
+	public void writeAndDelete() throws SQLException {
+		SQLStorage.executeBatches(writes, writeQuery, deleteQuery, batchSize);
+		SQLStorage.executeBatches(deletes, writeQuery, deleteQuery, batchSize);
+		connection.commit();
+	}
+
+}
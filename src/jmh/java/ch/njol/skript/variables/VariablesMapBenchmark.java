@@ -0,0 +1,124 @@
+/**
+ *   This file is part of Skript.
+ *
+ *  Skript is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  Skript is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with Skript.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * Copyright Peter Güttinger, SkriptLang team and contributors
+ */
+package ch.njol.skript.variables;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.Iterator;
+import java.util.Map.Entry;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Gets, sets and iterates the elements of a list variable with a growing amount of elements,
+ * including the way loops iterate it while it is being changed.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class VariablesMapBenchmark {
+
+	/**
+	 * The amount of element names that are accessed, a power of two.
+	 */
+	private static final int SAMPLES = 1 << 12;
+
+	@Param({"10000", "100000", "1000000", "10000000"})
+	public int size;
+
+	private VariablesMap map;
+	private String[] names;
+	private Long[] values;
+	private int next;
+
+	@Setup(Level.Trial)
+	public void setUp() {
+		map = VariablesMap.createGlobal();
+		for (int i = 0; i < size; i++)
+			map.setVariable("list::" + i, (long) i);
+
+		// Access random elements so that the benchmark doesn't only measure the CPU cache
+		Random random = new Random(0);
+		names = new String[SAMPLES];
+		values = new Long[SAMPLES];
+		for (int i = 0; i < SAMPLES; i++) {
+			int index = random.nextInt(size);
+			names[i] = "list::" + index;
+			values[i] = (long) index;
+		}
+	}
+
+	@Benchmark
+	public Object get() {
+		return map.getVariable(names[next++ & (SAMPLES - 1)]);
+	}
+
+	@Benchmark
+	public void set() {
+		// Replaces an existing element, so the size of the list stays the same
+		int sample = next++ & (SAMPLES - 1);
+		map.setVariable(names[sample], values[sample]);
+	}
+
+	@Benchmark
+	@OutputTimeUnit(TimeUnit.MILLISECONDS)
+	public void iterate(Blackhole blackhole) {
+		VariablesMap.TreeNode list = (VariablesMap.TreeNode) map.getVariable("list::*");
+		assert list != null;
+		for (Object value : list.values())
+			blackhole.consume(value);
+	}
+
+	@Benchmark
+	@OutputTimeUnit(TimeUnit.MILLISECONDS)
+	public void iterateSnapshot(Blackhole blackhole) {
+		VariablesMap.TreeNode list = (VariablesMap.TreeNode) map.getVariable("list::*");
+		assert list != null;
+		Iterator<Entry<String, Object>> iterator = list.snapshotIterator();
+		while (iterator.hasNext())
+			blackhole.consume(iterator.next().getValue());
+	}
+
+	/**
+	 * Iterates the list like a loop that sets each element it visits,
+	 * which copies the keys of the list once and then looks up the values of the remaining keys.
+	 */
+	@Benchmark
+	@OutputTimeUnit(TimeUnit.MILLISECONDS)
+	public void iterateSnapshotWhileSetting(Blackhole blackhole) {
+		VariablesMap.TreeNode list = (VariablesMap.TreeNode) map.getVariable("list::*");
+		assert list != null;
+		Iterator<Entry<String, Object>> iterator = list.snapshotIterator();
+		while (iterator.hasNext()) {
+			Entry<String, Object> entry = iterator.next();
+			map.setVariable("list::" + entry.getKey(), entry.getValue());
+			blackhole.consume(entry.getValue());
+		}
+	}
+
+}
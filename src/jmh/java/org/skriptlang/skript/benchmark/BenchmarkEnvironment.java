@@ -0,0 +1,106 @@
+/**
+ *   This file is part of Skript.
+ *
+ *  Skript is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  Skript is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with Skript.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * Copyright Peter Güttinger, SkriptLang team and contributors
+ */
+package org.skriptlang.skript.benchmark;
+
+import ch.njol.skript.Skript;
+import ch.njol.skript.util.Version;
+import org.bukkit.Bukkit;
+import org.bukkit.Server;
+import org.bukkit.plugin.java.JavaPlugin;
+import org.easymock.EasyMock;
+import org.objenesis.ObjenesisStd;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.util.logging.Logger;
+
+/**
+ * Sets up just enough of a server for the benchmarks to use Skript's registries without starting Minecraft.
+ * <p>
+ * The server is an EasyMock mock and the Skript instance is created without calling its constructor,
+ * so nothing that needs worlds, players, the scheduler or the aliases can be used.
+ */
+public final class BenchmarkEnvironment {
+
+	private static boolean set = false;
+
+	private BenchmarkEnvironment() {}
+
+	/**
+	 * Mocks the server and the Skript instance, runs the given registrations and then stops accepting registrations,
+	 * the same way Skript does once it has loaded all addons.
+	 * <p>
+	 * Registrations can only be done once per JVM, so only the registrations of the first call are run.
+	 * This is fine as JMH runs every benchmark in its own fork.
+	 *
+	 * @param registrations registers the classes, converters, comparators etc. that the benchmark needs.
+	 */
+	public static synchronized void setUp(Runnable registrations) {
+		if (set)
+			return;
+		set = true;
+
+		Server server = EasyMock.niceMock(Server.class);
+		EasyMock.expect(server.getLogger()).andReturn(Logger.getLogger("Benchmark")).anyTimes();
+		EasyMock.expect(server.getName()).andReturn("Benchmark").anyTimes();
+		EasyMock.expect(server.getVersion()).andReturn("Benchmark").anyTimes();
+		EasyMock.expect(server.getBukkitVersion()).andReturn("1.19.4-R0.1-SNAPSHOT").anyTimes();
+		EasyMock.expect(server.isPrimaryThread()).andReturn(true).anyTimes();
+		EasyMock.replay(server);
+		Bukkit.setServer(server);
+
+		try {
+			// JavaPlugin's constructor requires the plugin class loader, so skip it
+			Skript skript = new ObjenesisStd().newInstance(Skript.class);
+			setField(JavaPlugin.class, skript, "isEnabled", true);
+			setField(Skript.class, null, "instance", skript);
+			// Written into the variables file by the flat file storage
+			setField(Skript.class, null, "version", new Version(2, 7));
+
+			registrations.run();
+
+			Method stopAcceptingRegistrations = Skript.class.getDeclaredMethod("stopAcceptingRegistrations");
+			stopAcceptingRegistrations.setAccessible(true);
+			stopAcceptingRegistrations.invoke(null);
+		} catch (ReflectiveOperationException e) {
+			throw new IllegalStateException("Could not set up the benchmark environment", e);
+		}
+	}
+
+	/**
+	 * Initialises the given classes, so that syntax elements register themselves.
+	 * This must be done in the registrations given to {@link #setUp(Runnable)}.
+	 */
+	public static void initialize(Class<?>... classes) {
+		for (Class<?> c : classes) {
+			try {
+				Class.forName(c.getName(), true, c.getClassLoader());
+			} catch (ClassNotFoundException e) {
+				throw new IllegalStateException(e);
+			}
+		}
+	}
+
+	private static void setField(Class<?> owner, Object instance, String name, Object value) throws ReflectiveOperationException {
+		Field field = owner.getDeclaredField(name);
+		field.setAccessible(true);
+		field.set(instance, value);
+	}
+
+}
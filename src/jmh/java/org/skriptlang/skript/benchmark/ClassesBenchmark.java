@@ -0,0 +1,97 @@
+/**
+ *   This file is part of Skript.
+ *
+ *  Skript is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  Skript is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with Skript.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * Copyright Peter Güttinger, SkriptLang team and contributors
+ */
+package org.skriptlang.skript.benchmark;
+
+import ch.njol.skript.classes.data.JavaClasses;
+import ch.njol.skript.registrations.Classes;
+import ch.njol.skript.variables.SerializedVariable;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Looks up the class infos of and serialises and deserialises values of the types that are registered without a server.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class ClassesBenchmark {
+
+	@Param({"long", "double", "boolean", "string"})
+	public String type;
+
+	private Object value;
+	private SerializedVariable.Value serialized;
+
+	@Setup(Level.Trial)
+	public void setUp() {
+		BenchmarkEnvironment.setUp(JavaClasses::new);
+
+		switch (type) {
+			case "long":
+				value = 1234567890L;
+				break;
+			case "double":
+				value = Math.PI;
+				break;
+			case "boolean":
+				value = true;
+				break;
+			case "string":
+				value = "The quick brown fox jumps over the lazy dog";
+				break;
+			default:
+				throw new IllegalArgumentException(type);
+		}
+		serialized = Classes.serialize(value);
+		if (serialized == null)
+			throw new IllegalStateException("Could not serialize " + value);
+	}
+
+	@Benchmark
+	public Object superClassInfo() {
+		return Classes.getSuperClassInfo(value.getClass());
+	}
+
+	@Benchmark
+	public SerializedVariable.Value serialize() {
+		return Classes.serialize(value);
+	}
+
+	@Benchmark
+	public Object deserialize() {
+		return Classes.deserialize(serialized.type, serialized.data);
+	}
+
+	@Benchmark
+	public Object roundTrip() {
+		SerializedVariable.Value serialized = Classes.serialize(value);
+		assert serialized != null;
+		return Classes.deserialize(serialized.type, serialized.data);
+	}
+
+}
@@ -0,0 +1,78 @@
+/**
+ *   This file is part of Skript.
+ *
+ *  Skript is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  Skript is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with Skript.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * Copyright Peter Güttinger, SkriptLang team and contributors
+ */
+package org.skriptlang.skript.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.skriptlang.skript.lang.comparator.Comparators;
+import org.skriptlang.skript.lang.comparator.Relation;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares values with synthetic comparators, covering the different ways a comparator can be found.
+ * The default comparators can't be used as they need the aliases.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class ComparatorsBenchmark {
+
+	private final Object integer = 42;
+	private final Object otherInteger = 43;
+	private final Object decimal = 42.0;
+	private final Object string = "42";
+
+	@Setup(Level.Trial)
+	public void setUp() {
+		BenchmarkEnvironment.setUp(() -> {
+			Comparators.registerComparator(Number.class, Number.class,
+				(first, second) -> Relation.get(Double.compare(first.doubleValue(), second.doubleValue())));
+			Comparators.registerComparator(String.class, String.class, (first, second) -> Relation.get(first.equals(second)));
+		});
+	}
+
+	@Benchmark
+	public Object lookup() {
+		// A cached lookup, which shouldn't allocate anything
+		return Comparators.getComparatorInfo(Integer.class, Double.class);
+	}
+
+	@Benchmark
+	public Relation sameType() {
+		return Comparators.compare(integer, otherInteger);
+	}
+
+	@Benchmark
+	public Relation mixedTypes() {
+		return Comparators.compare(integer, decimal);
+	}
+
+	@Benchmark
+	public Relation missing() {
+		return Comparators.compare(integer, string);
+	}
+
+}
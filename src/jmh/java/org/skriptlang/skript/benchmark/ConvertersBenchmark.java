@@ -0,0 +1,81 @@
+/**
+ *   This file is part of Skript.
+ *
+ *  Skript is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  Skript is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with Skript.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * Copyright Peter Güttinger, SkriptLang team and contributors
+ */
+package org.skriptlang.skript.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.skriptlang.skript.lang.converter.Converters;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Converts values with synthetic converters, covering the different ways a converter can be found.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class ConvertersBenchmark {
+
+	private final Object number = 42;
+	private final Object string = "42";
+
+	@Setup(Level.Trial)
+	public void setUp() {
+		BenchmarkEnvironment.setUp(() -> {
+			Converters.registerConverter(Number.class, String.class, Object::toString);
+			Converters.registerConverter(String.class, Character.class, value -> value.isEmpty() ? null : value.charAt(0));
+		});
+	}
+
+	@Benchmark
+	public Object lookup() {
+		// A cached lookup, which shouldn't allocate anything
+		return Converters.getConverterInfo(Integer.class, String.class);
+	}
+
+	@Benchmark
+	public Object instance() {
+		// No converter needed
+		return Converters.convert(string, CharSequence.class);
+	}
+
+	@Benchmark
+	public Object superType() {
+		// Integer -> Number -> String
+		return Converters.convert(number, String.class);
+	}
+
+	@Benchmark
+	public Object chained() {
+		// Number -> String -> Character, created when the registrations were stopped
+		return Converters.convert(number, Character.class);
+	}
+
+	@Benchmark
+	public Object missing() {
+		return Converters.convert(number, Boolean.class);
+	}
+
+}
@@ -0,0 +1,79 @@
+/**
+ *   This file is part of Skript.
+ *
+ *  Skript is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  Skript is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with Skript.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * Copyright Peter Güttinger, SkriptLang team and contributors
+ */
+package org.skriptlang.skript.benchmark;
+
+import ch.njol.skript.config.Config;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Reads the bundled test scripts into their node structure, the way the script loader does before parsing the statements.
+ * <p>
+ * Parsing the statements themselves needs all syntax and types to be registered, which needs a running server,
+ * so the parser is benchmarked with a subset of the syntax by {@link SkriptParserBenchmark} instead.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class ScriptStructureBenchmark {
+
+	private final List<String> names = new ArrayList<>();
+	private final List<byte[]> scripts = new ArrayList<>();
+
+	@Setup(Level.Trial)
+	public void setUp() throws IOException {
+		String directory = System.getProperty("skript.benchmark.scripts");
+		if (directory == null)
+			throw new IllegalStateException("The 'skript.benchmark.scripts' property must point to the test scripts");
+
+		List<Path> files;
+		try (Stream<Path> walk = Files.walk(Paths.get(directory))) {
+			files = walk.filter(file -> file.toString().endsWith(".sk")).sorted().collect(Collectors.toList());
+		}
+		for (Path file : files) {
+			names.add(file.getFileName().toString());
+			scripts.add(Files.readAllBytes(file));
+		}
+	}
+
+	@Benchmark
+	public void load(Blackhole blackhole) throws IOException {
+		for (int i = 0; i < scripts.size(); i++)
+			blackhole.consume(new Config(new ByteArrayInputStream(scripts.get(i)), names.get(i), true, false, ":"));
+	}
+
+}
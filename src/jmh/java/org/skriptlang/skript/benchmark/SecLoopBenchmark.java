@@ -0,0 +1,191 @@
+/**
+ *   This file is part of Skript.
+ *
+ *  Skript is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  Skript is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with Skript.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * Copyright Peter Güttinger, SkriptLang team and contributors
+ */
+package org.skriptlang.skript.benchmark;
+
+import ch.njol.skript.classes.data.JavaClasses;
+import ch.njol.skript.config.SectionNode;
+import ch.njol.skript.expressions.ExprTimes;
+import ch.njol.skript.lang.Effect;
+import ch.njol.skript.lang.Expression;
+import ch.njol.skript.lang.SkriptParser.ParseResult;
+import ch.njol.skript.lang.TriggerItem;
+import ch.njol.skript.lang.Variable;
+import ch.njol.skript.lang.parser.ParserInstance;
+import ch.njol.skript.lang.util.SimpleLiteral;
+import ch.njol.skript.sections.SecLoop;
+import ch.njol.skript.variables.LocalVariableSlots;
+import ch.njol.skript.variables.Variables;
+import ch.njol.skript.variables.VariablesMap;
+import ch.njol.util.Kleenean;
+import org.bukkit.event.Event;
+import org.bukkit.event.HandlerList;
+import org.eclipse.jdt.annotation.Nullable;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Executes loop sections whose body only counts its iterations,
+ * measuring the overhead of looping {@code <size> times} and looping a local list variable of {@code size} elements.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class SecLoopBenchmark {
+
+	@Param({"1000", "100000"})
+	public int size;
+
+	private final BenchmarkEvent event = new BenchmarkEvent();
+	private SecLoop timesLoop;
+	private SecLoop listLoop;
+	private LocalVariableSlots slots;
+	private VariablesMap list;
+
+	@Setup(Level.Trial)
+	public void setUp() {
+		BenchmarkEnvironment.setUp(() -> {
+			new JavaClasses();
+			BenchmarkEnvironment.initialize(SecLoop.class, ExprTimes.class);
+		});
+
+		ExprTimes times = new ExprTimes();
+		Expression<?>[] timesExprs = {new SimpleLiteral<>(size, false)};
+		times.init(timesExprs, 0, Kleenean.FALSE, new ParseResult(size + " times", timesExprs));
+		timesLoop = loop(times);
+
+		Variable<?> variable = Variable.newInstance("_benchmark::*", new Class[] {Object.class});
+		if (variable == null)
+			throw new IllegalStateException("Could not create the list variable");
+		listLoop = loop(variable);
+		slots = ParserInstance.get().getLocalVariableSlots();
+
+		for (int i = 1; i <= size; i++)
+			Variables.setVariable("_benchmark::" + i, (long) i, event, true);
+		list = Variables.removeLocals(event);
+	}
+
+	/**
+	 * Creates a loop of the given expression, initialised the way the parser does, with a body that counts its iterations.
+	 */
+	private static SecLoop loop(Expression<?> expression) {
+		SecLoop loop = new BenchmarkLoop(new CountEffect());
+		Expression<?>[] exprs = {expression};
+		if (!loop.init(exprs, 0, Kleenean.FALSE, new ParseResult("loop " + expression, exprs), null, new ArrayList<>()))
+			throw new IllegalStateException("Could not create the loop of " + expression);
+		return loop;
+	}
+
+	@Benchmark
+	public long loopTimes() {
+		return walk(timesLoop, null);
+	}
+
+	@Benchmark
+	public long loopListVariable() {
+		return walk(listLoop, list);
+	}
+
+	/**
+	 * Walks the given loop in a new frame of local variables, the way a trigger is executed.
+	 */
+	private long walk(SecLoop loop, @Nullable VariablesMap locals) {
+		event.count = 0;
+		Variables.pushLocals(event, slots);
+		try {
+			if (locals != null)
+				Variables.setLocalVariables(event, locals);
+			TriggerItem.walk(loop, event);
+		} finally {
+			// Keeps the list for the next invocation, as the loop removed its state once it was done
+			Variables.removeLocals(event);
+			Variables.popLocals(event);
+		}
+		if (event.count != size)
+			throw new IllegalStateException("Looped " + event.count + " instead of " + size + " times");
+		return event.count;
+	}
+
+	/**
+	 * A loop whose body is the given items instead of the code of a section node.
+	 */
+	private static final class BenchmarkLoop extends SecLoop {
+
+		private final List<TriggerItem> body;
+
+		private BenchmarkLoop(TriggerItem... body) {
+			this.body = new ArrayList<>();
+			Collections.addAll(this.body, body);
+		}
+
+		@Override
+		protected void loadOptionalCode(SectionNode sectionNode) {
+			setTriggerItems(body);
+		}
+
+	}
+
+	private static final class BenchmarkEvent extends Event {
+
+		private static final HandlerList handlers = new HandlerList();
+
+		private long count;
+
+		@Override
+		public HandlerList getHandlers() {
+			return handlers;
+		}
+
+		public static HandlerList getHandlerList() {
+			return handlers;
+		}
+
+	}
+
+	private static final class CountEffect extends Effect {
+
+		@Override
+		public boolean init(Expression<?>[] exprs, int matchedPattern, Kleenean isDelayed, ParseResult parseResult) {
+			return true;
+		}
+
+		@Override
+		protected void execute(Event event) {
+			((BenchmarkEvent) event).count++;
+		}
+
+		@Override
+		public String toString(@Nullable Event event, boolean debug) {
+			return "count";
+		}
+
+	}
+
+}
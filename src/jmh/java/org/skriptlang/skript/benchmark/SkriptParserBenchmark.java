@@ -0,0 +1,152 @@
+/**
+ *   This file is part of Skript.
+ *
+ *  Skript is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  Skript is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with Skript.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * Copyright Peter Güttinger, SkriptLang team and contributors
+ */
+package org.skriptlang.skript.benchmark;
+
+import ch.njol.skript.classes.data.JavaClasses;
+import ch.njol.skript.conditions.CondIsSet;
+import ch.njol.skript.effects.EffChange;
+import ch.njol.skript.expressions.ExprAmount;
+import ch.njol.skript.expressions.ExprJoinSplit;
+import ch.njol.skript.expressions.ExprLength;
+import ch.njol.skript.expressions.ExprNumbers;
+import ch.njol.skript.expressions.ExprRandomNumber;
+import ch.njol.skript.expressions.ExprRound;
+import ch.njol.skript.expressions.ExprSubstring;
+import ch.njol.skript.expressions.ExprTimes;
+import ch.njol.skript.lang.ParseContext;
+import ch.njol.skript.lang.SkriptParser;
+import ch.njol.skript.lang.Statement;
+import ch.njol.skript.log.ParseLogHandler;
+import ch.njol.skript.log.SkriptLogger;
+import org.eclipse.jdt.annotation.Nullable;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Parses statements and expressions with {@link SkriptParser}, the way the script loader parses the lines of a trigger.
+ * <p>
+ * Only syntax elements whose patterns use the types of {@link JavaClasses} are registered,
+ * as the other types need a running server.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class SkriptParserBenchmark {
+
+	private static final String[] STATEMENTS = {
+		"set {_numbers::*} to the integers between 1 and 10",
+		"add a random integer between 1 and 100 to {_numbers::*}",
+		"set {_text} to join {_words::*} with \", \"",
+		"set {_length} to the length of {_text}",
+		"remove the first 2 characters of {_text} from {_parts::*}",
+		"delete {_numbers::*}",
+		"{_text} is set",
+		"{_missing} is not set",
+	};
+
+	private static final String[] EXPRESSIONS = {
+		"the amount of {_numbers::*}",
+		"rounded down a random number between 1 and 10",
+		"split {_text} at \",\"",
+		"the part of {_text} between 2 and 5",
+		"10 times",
+		"{_text}",
+		"\"text\"",
+		"5",
+	};
+
+	/**
+	 * Lines that are not valid statements, which are tried against every syntax element that might match before failing.
+	 */
+	private static final String[] INVALID = {
+		"set {_text}",
+		"add the numbers to",
+		"this is not a statement",
+	};
+
+	@Setup(Level.Trial)
+	public void setUp() {
+		BenchmarkEnvironment.setUp(() -> {
+			new JavaClasses();
+			BenchmarkEnvironment.initialize(EffChange.class, CondIsSet.class,
+				ExprAmount.class, ExprJoinSplit.class, ExprLength.class, ExprNumbers.class,
+				ExprRandomNumber.class, ExprRound.class, ExprSubstring.class, ExprTimes.class);
+		});
+
+		for (String statement : STATEMENTS) {
+			if (parseStatement(statement) == null)
+				throw new IllegalStateException("Could not parse the statement '" + statement + "'");
+		}
+		for (String expression : EXPRESSIONS) {
+			if (parseExpression(expression) == null)
+				throw new IllegalStateException("Could not parse the expression '" + expression + "'");
+		}
+	}
+
+	@Benchmark
+	public void parseStatements(Blackhole blackhole) {
+		for (String statement : STATEMENTS)
+			blackhole.consume(parseStatement(statement));
+	}
+
+	@Benchmark
+	public void parseExpressions(Blackhole blackhole) {
+		for (String expression : EXPRESSIONS)
+			blackhole.consume(parseExpression(expression));
+	}
+
+	@Benchmark
+	public void parseInvalidStatements(Blackhole blackhole) {
+		for (String statement : INVALID)
+			blackhole.consume(parseStatement(statement));
+	}
+
+	/**
+	 * Parses a statement, discarding the errors and warnings it logs instead of printing them.
+	 */
+	@Nullable
+	private static Object parseStatement(String statement) {
+		ParseLogHandler log = SkriptLogger.startParseLogHandler();
+		try {
+			return Statement.parse(statement, "Can't understand this condition/effect: " + statement);
+		} finally {
+			log.stop();
+		}
+	}
+
+	@Nullable
+	private static Object parseExpression(String expression) {
+		ParseLogHandler log = SkriptLogger.startParseLogHandler();
+		try {
+			return new SkriptParser(expression, SkriptParser.ALL_FLAGS, ParseContext.DEFAULT).parseExpression(Object.class);
+		} finally {
+			log.stop();
+		}
+	}
+
+}
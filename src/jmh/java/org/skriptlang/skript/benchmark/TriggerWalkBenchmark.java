@@ -0,0 +1,151 @@
+/**
+ *   This file is part of Skript.
+ *
+ *  Skript is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  Skript is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with Skript.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * Copyright Peter Güttinger, SkriptLang team and contributors
+ */
+package org.skriptlang.skript.benchmark;
+
+import ch.njol.skript.lang.Condition;
+import ch.njol.skript.lang.Effect;
+import ch.njol.skript.lang.Expression;
+import ch.njol.skript.lang.SkriptParser.ParseResult;
+import ch.njol.skript.lang.TriggerItem;
+import ch.njol.util.Kleenean;
+import org.bukkit.event.Event;
+import org.bukkit.event.HandlerList;
+import org.eclipse.jdt.annotation.Nullable;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Walks synthetic triggers of effects and conditions, measuring the overhead of executing trigger items.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class TriggerWalkBenchmark {
+
+	@Param({"10", "100", "1000"})
+	public int length;
+
+	private final BenchmarkEvent event = new BenchmarkEvent();
+	private TriggerItem effects;
+	private TriggerItem conditions;
+
+	@Setup(Level.Trial)
+	public void setUp() {
+		effects = chain(false);
+		conditions = chain(true);
+	}
+
+	/**
+	 * Creates a chain of {@link #length} items, every second item being a condition if requested.
+	 */
+	private TriggerItem chain(boolean withConditions) {
+		TriggerItem first = null;
+		TriggerItem last = null;
+		for (int i = 0; i < length; i++) {
+			TriggerItem item = withConditions && i % 2 == 1 ? new PassCondition() : new CountEffect();
+			if (last == null) {
+				first = item;
+			} else {
+				last.setNext(item);
+			}
+			last = item;
+		}
+		assert first != null;
+		return first;
+	}
+
+	@Benchmark
+	public long walkEffects() {
+		event.count = 0;
+		TriggerItem.walk(effects, event);
+		return event.count;
+	}
+
+	@Benchmark
+	public long walkConditions() {
+		event.count = 0;
+		TriggerItem.walk(conditions, event);
+		return event.count;
+	}
+
+	private static final class BenchmarkEvent extends Event {
+
+		private static final HandlerList handlers = new HandlerList();
+
+		private long count;
+
+		@Override
+		public HandlerList getHandlers() {
+			return handlers;
+		}
+
+		public static HandlerList getHandlerList() {
+			return handlers;
+		}
+
+	}
+
+	private static final class CountEffect extends Effect {
+
+		@Override
+		public boolean init(Expression<?>[] exprs, int matchedPattern, Kleenean isDelayed, ParseResult parseResult) {
+			return true;
+		}
+
+		@Override
+		protected void execute(Event event) {
+			((BenchmarkEvent) event).count++;
+		}
+
+		@Override
+		public String toString(@Nullable Event event, boolean debug) {
+			return "count";
+		}
+
+	}
+
+	private static final class PassCondition extends Condition {
+
+		@Override
+		public boolean init(Expression<?>[] exprs, int matchedPattern, Kleenean isDelayed, ParseResult parseResult) {
+			return true;
+		}
+
+		@Override
+		public boolean check(Event event) {
+			return ((BenchmarkEvent) event).count >= 0;
+		}
+
+		@Override
+		public String toString(@Nullable Event event, boolean debug) {
+			return "pass";
+		}
+
+	}
+
+}
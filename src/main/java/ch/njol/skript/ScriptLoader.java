@@ -31,6 +31,7 @@ import ch.njol.skript.lang.TriggerSection;
 import ch.njol.skript.lang.parser.ParserInstance;
 import ch.njol.skript.log.CountingLogHandler;
 import ch.njol.skript.log.LogEntry;
+import ch.njol.skript.log.LogHandler;
 import ch.njol.skript.log.RetainingLogHandler;
 import ch.njol.skript.log.SkriptLogger;
 import ch.njol.skript.sections.SecLoop;
@@ -67,8 +68,10 @@ import java.util.TreeSet;
 import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.Callable;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.LinkedBlockingQueue;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.Supplier;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
@@ -490,27 +493,25 @@ public class ScriptLoader {
 		
 		ScriptInfo scriptInfo = new ScriptInfo();
 
-		List<NonNullPair<Script, List<Structure>>> scripts = new ArrayList<>();
-
-		List<CompletableFuture<Void>> scriptInfoFutures = new ArrayList<>();
+		List<CompletableFuture<NonNullPair<Script, List<Structure>>>> scriptFutures = new ArrayList<>();
 		for (Config config : configs) {
 			if (config == null)
 				throw new NullPointerException();
 			
-			CompletableFuture<Void> future = makeFuture(() -> {
-				NonNullPair<Script, List<Structure>> pair = loadScript(config);
-				scripts.add(pair);
-				scriptInfo.add(new ScriptInfo(1, pair.getSecond().size()));
-				return null;
-			}, openCloseable);
-			
-			scriptInfoFutures.add(future);
+			scriptFutures.add(makeFuture(() -> loadScript(config), openCloseable));
 		}
 		
-		return CompletableFuture.allOf(scriptInfoFutures.toArray(new CompletableFuture[0]))
+		return CompletableFuture.allOf(scriptFutures.toArray(new CompletableFuture[0]))
 			.thenApply(unused -> {
-				// TODO in the future this won't work when parallel loading is fixed
-				// It does now though so let's avoid calling getParser() a bunch.
+				// Collect the scripts in the order of their configs, regardless of which one was parsed first
+				List<NonNullPair<Script, List<Structure>>> scripts = new ArrayList<>(scriptFutures.size());
+				for (CompletableFuture<NonNullPair<Script, List<Structure>>> future : scriptFutures) {
+					NonNullPair<Script, List<Structure>> pair = future.join();
+					scripts.add(pair);
+					scriptInfo.add(new ScriptInfo(1, pair.getSecond().size()));
+				}
+
+				// The parser of this thread, structures loaded in parallel use the parsers of the loading threads
 				ParserInstance parser = getParser();
 
 				try {
@@ -542,23 +543,11 @@ public class ScriptLoader {
 
 					parser.setInactive();
 
-					// TODO in the future, Structure#load should be split across multiple threads if parallel loading is enabled.
-					// However, this is not possible right now as reworks in multiple areas will be needed.
-					// For example, the "Commands" class still uses a static list for currentArguments that is cleared between loads.
-					// Until these reworks happen, limiting main loading to asynchronous (not parallel) is the only choice we have.
-					for (NonNullPair<Script, List<Structure>> pair : scripts) {
-						parser.setActive(pair.getFirst());
-						pair.getSecond().removeIf(structure -> {
-							parser.setCurrentStructure(structure);
-							parser.setNode(structure.getEntryContainer().getSource());
-							try {
-								return !structure.load();
-							} catch (Exception e) {
-								//noinspection ThrowableNotThrown
-								Skript.exception(e, "An error occurred while trying to load a Structure.");
-								return true;
-							}
-						});
+					if (isParallel() && scripts.size() > 1) {
+						loadStructuresInParallel(scripts);
+					} else {
+						for (NonNullPair<Script, List<Structure>> pair : scripts)
+							loadStructures(parser, pair);
 					}
 
 					parser.setInactive();
@@ -590,6 +579,102 @@ public class ScriptLoader {
 			});
 	}
 
+	/**
+	 * Calls {@link Structure#load()} on the structures of the given script,
+	 * removing the structures that fail to load.
+	 * @param parser The parser instance of the current thread.
+	 * @param pair The script and its structures.
+	 */
+	private static void loadStructures(ParserInstance parser, NonNullPair<Script, List<Structure>> pair) {
+		parser.setActive(pair.getFirst());
+		pair.getSecond().removeIf(structure -> {
+			parser.setCurrentStructure(structure);
+			parser.setNode(structure.getEntryContainer().getSource());
+			try {
+				return !structure.load();
+			} catch (Exception e) {
+				//noinspection ThrowableNotThrown
+				Skript.exception(e, "An error occurred while trying to load a Structure.");
+				return true;
+			}
+		});
+	}
+
+	/**
+	 * Loads the structures of the given scripts using {@link #loadStructures(ParserInstance, NonNullPair)}
+	 * on the async loader threads and the current thread, returning once all scripts have been loaded.
+	 * <br>
+	 * Each script is loaded by a single thread, so the structures of a script are still loaded in order.
+	 * The messages logged while loading a script are retained and printed on the current thread afterwards,
+	 * in the order of the scripts, so that the output is the same as when loading the scripts one after another.
+	 * @param scripts The scripts and their structures.
+	 */
+	private static void loadStructuresInParallel(List<NonNullPair<Script, List<Structure>>> scripts) {
+		int size = scripts.size();
+		AtomicInteger nextScript = new AtomicInteger();
+		ScriptLogHandler[] logs = new ScriptLogHandler[size];
+		CountDownLatch scriptsDone = new CountDownLatch(size);
+
+		Runnable loader = () -> {
+			ParserInstance parser = getParser();
+			int i;
+			while ((i = nextScript.getAndIncrement()) < size) {
+				ScriptLogHandler log = new ScriptLogHandler().start();
+				try {
+					loadStructures(parser, scripts.get(i));
+				} catch (Throwable t) {
+					//noinspection ThrowableNotThrown
+					Skript.exception(t, "An error occurred while trying to load a Structure.");
+				} finally {
+					parser.setInactive();
+					log.stop();
+					logs[i] = log;
+					scriptsDone.countDown();
+				}
+			}
+		};
+
+		// The current thread loads scripts until none are left, so loading finishes even if no loader thread is free.
+		// Helpers that only start afterwards find no scripts left and return immediately.
+		int helpers = Math.min(asyncLoaderSize, size) - 1;
+		for (int i = 0; i < helpers; i++)
+			loadQueue.add(loader);
+		loader.run();
+
+		try {
+			// Only waits for the scripts other threads have already started loading
+			scriptsDone.await();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new RuntimeException(e);
+		}
+
+		for (ScriptLogHandler log : logs)
+			SkriptLogger.logAll(log.entries);
+	}
+
+	/**
+	 * Retains the messages logged while loading a script on another thread,
+	 * see {@link #loadStructuresInParallel(List)}.
+	 */
+	private static final class ScriptLogHandler extends LogHandler {
+
+		private final List<LogEntry> entries = new ArrayList<>();
+
+		@Override
+		public LogResult log(LogEntry entry) {
+			entries.add(entry);
+			return LogResult.CACHED;
+		}
+
+		@Override
+		public ScriptLogHandler start() {
+			SkriptLogger.startLogHandler(this);
+			return this;
+		}
+
+	}
+
 	/**
 	 * Creates a script and loads the provided config into it.
 	 * @param config The config to load into a script.
@@ -692,8 +692,13 @@ public final class Skript extends JavaPlugin implements Listener {
 								long milliseconds = 0, tests = 0, fails = 0, ignored = 0, size = 0;
 								try {
 									List<Class<?>> classes = Lists.newArrayList(Utils.getClasses(Skript.getInstance(), "org.skriptlang.skript.test", "tests"));
-									// Test that requires package access. This is only present when compiling with src/test.
+									// Tests that require package access. These are only present when compiling with src/test.
+									classes.add(Class.forName("ch.njol.skript.SyntaxRegistryIndexTest"));
 									classes.add(Class.forName("ch.njol.skript.variables.FlatFileStorageTest"));
+									classes.add(Class.forName("ch.njol.skript.variables.CSVVariableLoaderTest"));
+									classes.add(Class.forName("ch.njol.skript.variables.VariablesMapTest"));
+									classes.add(Class.forName("ch.njol.skript.variables.BinaryLogStorageTest"));
+									classes.add(Class.forName("ch.njol.skript.variables.SQLStorageTest"));
 									size = classes.size();
 									for (Class<?> clazz : classes) {
 										// Reset class SkriptJUnitTest which stores test requirements.
@@ -724,7 +729,7 @@ public final class Skript extends JavaPlugin implements Listener {
 									Skript.exception(e, "Failed to execute JUnit runtime tests.");
 								} catch (ClassNotFoundException e) {
 									// Should be the Skript test jar gradle task.
-									assert false : "Class 'ch.njol.skript.variables.FlatFileStorageTest' was not found.";
+									assert false : "Class '" + e.getMessage() + "' was not found.";
 								}
 								if (ignored > 0)
 									Skript.warning("There were " + ignored + " ignored test cases! This can mean they are not properly setup in order in that class!");
@@ -959,6 +964,8 @@ public final class Skript extends JavaPlugin implements Listener {
 	 * @return Whether this server is running CraftBukkit
 	 */
 	public static boolean isRunningCraftBukkit() {
+		if (SyntaxRegistryIndex.isRecording())
+			SyntaxRegistryIndex.recordEnvironmentCheck();
 		return serverPlatform == ServerPlatform.BUKKIT_CRAFTBUKKIT;
 	}
 	
@@ -966,6 +973,8 @@ public final class Skript extends JavaPlugin implements Listener {
 	 * @return Whether this server is running Minecraft <tt>major.minor</tt> or higher
 	 */
 	public static boolean isRunningMinecraft(final int major, final int minor) {
+		if (SyntaxRegistryIndex.isRecording())
+			SyntaxRegistryIndex.recordEnvironmentCheck();
 		if (minecraftVersion.compareTo(UNKNOWN_VERSION) == 0) { // Make sure minecraftVersion is properly assigned.
 			updateMinecraftVersion();
 		}
@@ -973,6 +982,8 @@ public final class Skript extends JavaPlugin implements Listener {
 	}
 	
 	public static boolean isRunningMinecraft(final int major, final int minor, final int revision) {
+		if (SyntaxRegistryIndex.isRecording())
+			SyntaxRegistryIndex.recordEnvironmentCheck();
 		if (minecraftVersion.compareTo(UNKNOWN_VERSION) == 0) {
 			updateMinecraftVersion();
 		}
@@ -980,6 +991,8 @@ public final class Skript extends JavaPlugin implements Listener {
 	}
 	
 	public static boolean isRunningMinecraft(final Version v) {
+		if (SyntaxRegistryIndex.isRecording())
+			SyntaxRegistryIndex.recordEnvironmentCheck();
 		if (minecraftVersion.compareTo(UNKNOWN_VERSION) == 0) {
 			updateMinecraftVersion();
 		}
@@ -1005,6 +1018,8 @@ public final class Skript extends JavaPlugin implements Listener {
 	 * @return Whether the given class exists.
 	 */
 	public static boolean classExists(final String className) {
+		if (SyntaxRegistryIndex.isRecording())
+			SyntaxRegistryIndex.recordEnvironmentCheck();
 		try {
 			Class.forName(className);
 			return true;
@@ -1022,6 +1037,8 @@ public final class Skript extends JavaPlugin implements Listener {
 	 * @return Whether the given method exists.
 	 */
 	public static boolean methodExists(final Class<?> c, final String methodName, final Class<?>... parameterTypes) {
+		if (SyntaxRegistryIndex.isRecording())
+			SyntaxRegistryIndex.recordEnvironmentCheck();
 		try {
 			c.getDeclaredMethod(methodName, parameterTypes);
 			return true;
@@ -1044,6 +1061,8 @@ public final class Skript extends JavaPlugin implements Listener {
 	 * @return Whether the given method exists.
 	 */
 	public static boolean methodExists(final Class<?> c, final String methodName, final Class<?>[] parameterTypes, final Class<?> returnType) {
+		if (SyntaxRegistryIndex.isRecording())
+			SyntaxRegistryIndex.recordEnvironmentCheck();
 		try {
 			final Method m = c.getDeclaredMethod(methodName, parameterTypes);
 			return m.getReturnType() == returnType;
@@ -1062,6 +1081,8 @@ public final class Skript extends JavaPlugin implements Listener {
 	 * @return Whether the given field exists.
 	 */
 	public static boolean fieldExists(final Class<?> c, final String fieldName) {
+		if (SyntaxRegistryIndex.isRecording())
+			SyntaxRegistryIndex.recordEnvironmentCheck();
 		try {
 			c.getDeclaredField(fieldName);
 			return true;
@@ -1266,6 +1287,8 @@ public final class Skript extends JavaPlugin implements Listener {
 	public static void checkAcceptRegistrations() {
 		if (!isAcceptRegistrations())
 			throw new SkriptAPIException("Registration can only be done during plugin initialization");
+		if (SyntaxRegistryIndex.isRecording())
+			SyntaxRegistryIndex.recordRegistration();
 	}
 	
 	private static void stopAcceptingRegistrations() {
@@ -1274,6 +1297,14 @@ public final class Skript extends JavaPlugin implements Listener {
 		acceptRegistrations = false;
 		
 		Classes.onRegistrationsStop();
+
+		if (SyntaxRegistryIndex.isRecording()) {
+			try {
+				SyntaxRegistryIndex.write();
+			} catch (IOException e) {
+				Skript.exception(e, "Could not write the syntax index");
+			}
+		}
 	}
 	
 	// ================ ADDONS ================
@@ -1338,9 +1369,16 @@ public final class Skript extends JavaPlugin implements Listener {
 	 * @param patterns Skript patterns to match this condition
 	 */
 	public static <E extends Condition> void registerCondition(final Class<E> condition, final String... patterns) throws IllegalArgumentException {
+		if (SyntaxRegistryIndex.isIndexed(condition))
+			return;
 		checkAcceptRegistrations();
 		String originClassPath = Thread.currentThread().getStackTrace()[2].getClassName();
-		final SyntaxElementInfo<E> info = new SyntaxElementInfo<>(patterns, condition, originClassPath);
+		if (SyntaxRegistryIndex.isRecording())
+			SyntaxRegistryIndex.recordCondition(condition, originClassPath, patterns);
+		addCondition(new SyntaxElementInfo<>(patterns, condition, originClassPath));
+	}
+
+	static void addCondition(SyntaxElementInfo<? extends Condition> info) {
 		conditions.add(info);
 		statements.add(info);
 	}
@@ -1352,9 +1390,16 @@ public final class Skript extends JavaPlugin implements Listener {
 	 * @param patterns Skript patterns to match this effect
 	 */
 	public static <E extends Effect> void registerEffect(final Class<E> effect, final String... patterns) throws IllegalArgumentException {
+		if (SyntaxRegistryIndex.isIndexed(effect))
+			return;
 		checkAcceptRegistrations();
 		String originClassPath = Thread.currentThread().getStackTrace()[2].getClassName();
-		final SyntaxElementInfo<E> info = new SyntaxElementInfo<>(patterns, effect, originClassPath);
+		if (SyntaxRegistryIndex.isRecording())
+			SyntaxRegistryIndex.recordEffect(effect, originClassPath, patterns);
+		addEffect(new SyntaxElementInfo<>(patterns, effect, originClassPath));
+	}
+
+	static void addEffect(SyntaxElementInfo<? extends Effect> info) {
 		effects.add(info);
 		statements.add(info);
 	}
@@ -1367,9 +1412,16 @@ public final class Skript extends JavaPlugin implements Listener {
 	 * @see Section
 	 */
 	public static <E extends Section> void registerSection(Class<E> section, String... patterns) throws IllegalArgumentException {
+		if (SyntaxRegistryIndex.isIndexed(section))
+			return;
 		checkAcceptRegistrations();
 		String originClassPath = Thread.currentThread().getStackTrace()[2].getClassName();
-		SyntaxElementInfo<E> info = new SyntaxElementInfo<>(patterns, section, originClassPath);
+		if (SyntaxRegistryIndex.isRecording())
+			SyntaxRegistryIndex.recordSection(section, originClassPath, patterns);
+		addSection(new SyntaxElementInfo<>(patterns, section, originClassPath));
+	}
+
+	static void addSection(SyntaxElementInfo<? extends Section> info) {
 		sections.add(info);
 	}
 
@@ -1392,6 +1444,7 @@ public final class Skript extends JavaPlugin implements Listener {
 	// ================ EXPRESSIONS ================
 	
 	private final static List<ExpressionInfo<?, ?>> expressions = new ArrayList<>(100);
+	private final static List<ExpressionInfo<?, ?>> unmodifiableExpressions = Collections.unmodifiableList(expressions);
 	
 	private final static int[] expressionTypesStartIndices = new int[ExpressionType.values().length];
 	
@@ -1405,11 +1458,18 @@ public final class Skript extends JavaPlugin implements Listener {
 	 * @throws IllegalArgumentException if returnType is not a normal class
 	 */
 	public static <E extends Expression<T>, T> void registerExpression(final Class<E> c, final Class<T> returnType, final ExpressionType type, final String... patterns) throws IllegalArgumentException {
+		if (SyntaxRegistryIndex.isIndexed(c))
+			return;
 		checkAcceptRegistrations();
 		if (returnType.isAnnotation() || returnType.isArray() || returnType.isPrimitive())
 			throw new IllegalArgumentException("returnType must be a normal type");
 		String originClassPath = Thread.currentThread().getStackTrace()[2].getClassName();
-		final ExpressionInfo<E, T> info = new ExpressionInfo<>(patterns, returnType, c, originClassPath, type);
+		if (SyntaxRegistryIndex.isRecording())
+			SyntaxRegistryIndex.recordExpression(c, returnType, type, originClassPath, patterns);
+		addExpression(new ExpressionInfo<>(patterns, returnType, c, originClassPath, type), type);
+	}
+
+	static void addExpression(ExpressionInfo<?, ?> info, ExpressionType type) {
 		expressions.add(expressionTypesStartIndices[type.ordinal()], info);
 		for (int i = type.ordinal(); i < ExpressionType.values().length; i++) {
 			expressionTypesStartIndices[i]++;
@@ -1425,17 +1485,32 @@ public final class Skript extends JavaPlugin implements Listener {
 		return new CheckedIterator<>(getExpressions(), new NullableChecker<ExpressionInfo<?, ?>>() {
 			@Override
 			public boolean check(final @Nullable ExpressionInfo<?, ?> i) {
-				if (i == null || i.returnType == Object.class)
-					return true;
-				for (final Class<?> returnType : returnTypes) {
-					assert returnType != null;
-					if (Converters.converterExists(i.returnType, returnType))
-						return true;
-				}
-				return false;
+				return i == null || canReturn(i, returnTypes);
 			}
 		});
 	}
+
+	/**
+	 * @return All registered expressions, in the order they are tried in when parsing.
+	 */
+	public static List<ExpressionInfo<?, ?>> getExpressionInfos() {
+		return unmodifiableExpressions;
+	}
+
+	/**
+	 * @return Whether the given expression may return a value of or convertible to one of the given types,
+	 * i.e. whether it is included in {@link #getExpressions(Class[])}.
+	 */
+	public static boolean canReturn(ExpressionInfo<?, ?> info, Class<?>... returnTypes) {
+		if (info.returnType == Object.class)
+			return true;
+		for (Class<?> returnType : returnTypes) {
+			assert returnType != null;
+			if (Converters.converterExists(info.returnType, returnType))
+				return true;
+		}
+		return false;
+	}
 	
 	// ================ EVENTS ================
 
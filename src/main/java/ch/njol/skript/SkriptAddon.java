@@ -79,7 +79,11 @@ public final class SkriptAddon {
 	 * @return This SkriptAddon
 	 */
 	public SkriptAddon loadClasses(String basePackage, String... subPackages) throws IOException {
-		Utils.getClasses(plugin, basePackage, subPackages);
+		if (SyntaxRegistryIndex.loadClasses(plugin, basePackage, subPackages))
+			return this;
+		Class<?>[] classes = Utils.getClasses(plugin, basePackage, subPackages);
+		if (SyntaxRegistryIndex.isRecording())
+			SyntaxRegistryIndex.recordClasses(plugin, classes);
 		return this;
 	}
 
@@ -272,6 +272,14 @@ public class SkriptConfig {
 	public static final Option<Boolean> loadDefaultAliases = new Option<>("load default aliases", true)
 			.optional(true);
 
+	/**
+	 * Whether conditions, effects, sections and expressions may be registered from the syntax index of a plugin's jar
+	 * without initialising their classes, see {@link SyntaxRegistryIndex}.
+	 * Disable this if an addon relies on the static initialisers of Skript's syntax classes running at startup.
+	 */
+	public static final Option<Boolean> lazySyntaxLoading = new Option<>("lazy syntax loading", true)
+			.optional(true);
+
 	public static final Option<Boolean> executeFunctionsWithMissingParams = new Option<>("execute functions with missing parameters", true)
 			.optional(true)
 			.setter(t -> Function.executeWithNulls = t);
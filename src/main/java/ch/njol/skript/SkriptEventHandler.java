@@ -39,10 +39,11 @@ import java.lang.reflect.Method;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.HashSet;
-import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
 
 public final class SkriptEventHandler {
 
@@ -80,21 +81,69 @@ public final class SkriptEventHandler {
 
 	/**
 	 * A list tracking what Triggers are paired with what Events.
+	 * Copy-on-write, as it is only modified when Triggers are (un)registered,
+	 * but may be read from any thread when building {@link #triggerIndex}.
 	 */
-	private static final List<NonNullPair<Class<? extends Event>, Trigger>> triggers = new ArrayList<>();
+	private static final List<NonNullPair<Class<? extends Event>, Trigger>> triggers = new CopyOnWriteArrayList<>();
 
 	/**
-	 * A utility method to get all Triggers paired with the provided Event class.
+	 * A dispatch index from concrete Event classes to the Triggers that should be run for them, bucketed by
+	 * {@link EventPriority#ordinal()}. Entries are computed the first time an Event class is dispatched.
+	 * The whole index is replaced whenever a Trigger is registered or unregistered,
+	 * so that dispatch itself never has to filter {@link #triggers}.
+	 */
+	private static volatile Map<Class<? extends Event>, Trigger[][]> triggerIndex = new ConcurrentHashMap<>();
+
+	private static final Trigger[] NO_TRIGGERS = new Trigger[0];
+
+	/**
+	 * A utility method to get all Triggers paired with the provided Event class and priority.
+	 * @param event The event to find pairs from.
+	 * @param priority The priority the Triggers must have.
+	 * @return An array containing all Triggers paired with the provided Event class. It must not be modified.
+	 */
+	private static Trigger[] getTriggers(Class<? extends Event> event, EventPriority priority) {
+		Map<Class<? extends Event>, Trigger[][]> index = triggerIndex;
+		Trigger[][] eventTriggers = index.get(event);
+		if (eventTriggers == null) {
+			eventTriggers = indexTriggers(event);
+			index.put(event, eventTriggers);
+		}
+		return eventTriggers[priority.ordinal()];
+	}
+
+	/**
+	 * Collects the Triggers paired with the provided Event class into one array per {@link EventPriority}.
 	 * @param event The event to find pairs from.
-	 * @return An iterator containing all Triggers paired with the provided Event class.
+	 * @return The Triggers for the provided Event class, indexed by {@link EventPriority#ordinal()}.
 	 */
-	private static Iterator<Trigger> getTriggers(Class<? extends Event> event) {
+	@SuppressWarnings("unchecked")
+	private static Trigger[][] indexTriggers(Class<? extends Event> event) {
 		HandlerList eventHandlerList = getHandlerList(event);
 		assert eventHandlerList != null; // It had one at some point so this should remain true
-		return new ArrayList<>(triggers).stream()
-			.filter(pair -> pair.getFirst().isAssignableFrom(event) && eventHandlerList == getHandlerList(pair.getFirst()))
-			.map(NonNullPair::getSecond)
-			.iterator();
+
+		EventPriority[] priorities = EventPriority.values();
+		List<Trigger>[] buckets = new List[priorities.length];
+		for (NonNullPair<Class<? extends Event>, Trigger> pair : triggers) {
+			if (!pair.getFirst().isAssignableFrom(event) || eventHandlerList != getHandlerList(pair.getFirst()))
+				continue;
+			int ordinal = pair.getSecond().getEvent().getEventPriority().ordinal();
+			if (buckets[ordinal] == null)
+				buckets[ordinal] = new ArrayList<>();
+			buckets[ordinal].add(pair.getSecond());
+		}
+
+		Trigger[][] eventTriggers = new Trigger[priorities.length][];
+		for (int i = 0; i < priorities.length; i++)
+			eventTriggers[i] = buckets[i] == null ? NO_TRIGGERS : buckets[i].toArray(NO_TRIGGERS);
+		return eventTriggers;
+	}
+
+	/**
+	 * Discards the dispatch index so that it is rebuilt with the current {@link #triggers}.
+	 */
+	private static void invalidateTriggerIndex() {
+		triggerIndex = new ConcurrentHashMap<>();
 	}
 
 	/**
@@ -105,23 +154,20 @@ public final class SkriptEventHandler {
 	 * @param priority The priority of the Event.
 	 */
 	private static void check(Event e, EventPriority priority) {
-		Iterator<Trigger> ts = getTriggers(e.getClass());
-		if (!ts.hasNext())
+		Trigger[] ts = getTriggers(e.getClass(), priority);
+		if (ts.length == 0)
 			return;
 
 		if (Skript.logVeryHigh()) {
 			boolean hasTrigger = false;
-			while (ts.hasNext()) {
-				Trigger trigger = ts.next();
-				if (trigger.getEvent().getEventPriority() == priority && trigger.getEvent().check(e)) {
+			for (Trigger trigger : ts) {
+				if (trigger.getEvent().check(e)) {
 					hasTrigger = true;
 					break;
 				}
 			}
 			if (!hasTrigger)
 				return;
-			Class<? extends Event> c = e.getClass();
-			ts = getTriggers(c);
 
 			logEventStart(e);
 		}
@@ -135,9 +181,8 @@ public final class SkriptEventHandler {
 			return;
 		}
 
-		while (ts.hasNext()) {
-			Trigger t = ts.next();
-			if (t.getEvent().getEventPriority() != priority || !t.getEvent().check(e))
+		for (Trigger t : ts) {
+			if (!t.getEvent().check(e))
 				continue;
 
 			logTriggerStart(t);
@@ -237,6 +282,7 @@ public final class SkriptEventHandler {
 			return;
 
 		triggers.add(new NonNullPair<>(event, trigger));
+		invalidateTriggerIndex();
 
 		EventPriority priority = trigger.getEvent().getEventPriority();
 
@@ -280,6 +326,7 @@ public final class SkriptEventHandler {
 
 			return true;
 		});
+		invalidateTriggerIndex();
 	}
 
 	/**
@@ -0,0 +1,492 @@
+/**
+ *   This file is part of Skript.
+ *
+ *  Skript is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  Skript is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with Skript.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * Copyright Peter Güttinger, SkriptLang team and contributors
+ */
+package ch.njol.skript;
+
+import ch.njol.skript.lang.Condition;
+import ch.njol.skript.lang.Effect;
+import ch.njol.skript.lang.Expression;
+import ch.njol.skript.lang.ExpressionInfo;
+import ch.njol.skript.lang.ExpressionType;
+import ch.njol.skript.lang.Section;
+import ch.njol.skript.lang.SyntaxElementInfo;
+import org.bukkit.plugin.Plugin;
+import org.eclipse.jdt.annotation.Nullable;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * An index of the classes loaded by {@link SkriptAddon#loadClasses(String, String...)} and the syntax elements they register,
+ * which is generated at build time by the {@code genSyntaxIndex} Gradle task and included in the jar as {@link #RESOURCE}.
+ * <p>
+ * When a plugin's jar contains an index for its version, its conditions, effects, sections and expressions are registered
+ * from the index without initialising their classes, so their static initialisers only run when they are first used.
+ * Classes that do anything else while being initialised, e.g. registering events or event values,
+ * are marked as eager in the index and are initialised at startup as usual.
+ * So are classes that check the server they run on while being initialised, e.g. using {@link Skript#methodExists(Class, String, Class[])},
+ * as they might register different elements on other servers than the one the index was generated on.
+ * Lazy loading can be disabled with the {@link SkriptConfig#lazySyntaxLoading lazy syntax loading} option.
+ */
+final class SyntaxRegistryIndex {
+
+	static final String RESOURCE = "META-INF/skript/syntax-index.txt";
+
+	static final String HEADER = "skript-syntax-index";
+	static final String FORMAT = "1";
+
+	static final String EAGER = "eager", LAZY = "lazy";
+	static final String CONDITION = "condition", EFFECT = "effect", SECTION = "section", EXPRESSION = "expression";
+
+	/**
+	 * The file to write the index to, set by the {@code genSyntaxIndex} Gradle task.
+	 */
+	@Nullable
+	private static final String OUTPUT = System.getProperty("skript.syntaxIndex.output");
+	/**
+	 * The version of Skript the index is generated for, set by the {@code genSyntaxIndex} Gradle task.
+	 */
+	@Nullable
+	private static final String OUTPUT_VERSION = System.getProperty("skript.syntaxIndex.version");
+
+	private SyntaxRegistryIndex() {}
+
+	// ================ RECORDING ================
+
+	/**
+	 * The registrations made while a class loaded by {@link SkriptAddon#loadClasses(String, String...)} was initialised.
+	 */
+	private static final class ClassRecord {
+
+		private final List<String> entries = new ArrayList<>();
+		private int registrations;
+		private boolean eager;
+
+		private boolean isLazy() {
+			return !eager && !entries.isEmpty() && registrations == entries.size();
+		}
+
+	}
+
+	private static final List<String> recordedClasses = new ArrayList<>();
+	private static final Map<String, ClassRecord> records = new HashMap<>();
+
+	/**
+	 * @return Whether Skript was started to generate the index, in which case all registrations are recorded.
+	 */
+	static boolean isRecording() {
+		return OUTPUT != null;
+	}
+
+	/**
+	 * @return The name of the outermost class whose static initialiser is running, or null if there is none.
+	 * This is the class that was loaded by {@link SkriptAddon#loadClasses(String, String...)}.
+	 */
+	@Nullable
+	private static String getInitialisingClass() {
+		StackTraceElement[] trace = new Throwable().getStackTrace();
+		for (int i = trace.length - 1; i >= 0; i--) {
+			if ("<clinit>".equals(trace[i].getMethodName()))
+				return trace[i].getClassName();
+		}
+		return null;
+	}
+
+	/**
+	 * Records that a registration of any kind was made, see {@link Skript#checkAcceptRegistrations()}.
+	 */
+	static void recordRegistration() {
+		String initialising = getInitialisingClass();
+		if (initialising != null)
+			records.computeIfAbsent(initialising, name -> new ClassRecord()).registrations++;
+	}
+
+	/**
+	 * Records that the server was checked for a feature or version, e.g. by {@link Skript#classExists(String)}.
+	 * A class doing so while being initialised is eager, as it might register other elements on other servers.
+	 */
+	static void recordEnvironmentCheck() {
+		String initialising = getInitialisingClass();
+		if (initialising != null)
+			records.computeIfAbsent(initialising, name -> new ClassRecord()).eager = true;
+	}
+
+	/**
+	 * Records the registration of a syntax element that can be registered from the index.
+	 *
+	 * @param kind The kind of the element.
+	 * @param c The class of the element.
+	 * @param originClassPath The class that registered the element.
+	 * @param values The values of the entry, ending with the patterns of the element.
+	 */
+	private static void recordSyntax(String kind, Class<?> c, String originClassPath, String... values) {
+		String initialising = getInitialisingClass();
+		if (initialising == null)
+			return;
+		ClassRecord record = records.computeIfAbsent(initialising, name -> new ClassRecord());
+		if (!c.getName().equals(initialising)) { // Registers elements of other classes
+			record.eager = true;
+			return;
+		}
+		record.entries.add(entry(kind, originClassPath, values));
+	}
+
+	static void recordCondition(Class<? extends Condition> c, String originClassPath, String[] patterns) {
+		recordSyntax(CONDITION, c, originClassPath, patterns);
+	}
+
+	static void recordEffect(Class<? extends Effect> c, String originClassPath, String[] patterns) {
+		recordSyntax(EFFECT, c, originClassPath, patterns);
+	}
+
+	static void recordSection(Class<? extends Section> c, String originClassPath, String[] patterns) {
+		recordSyntax(SECTION, c, originClassPath, patterns);
+	}
+
+	static void recordExpression(Class<?> c, Class<?> returnType, ExpressionType type, String originClassPath, String[] patterns) {
+		recordSyntax(EXPRESSION, c, originClassPath, expressionValues(returnType, type, patterns));
+	}
+
+	/**
+	 * @return The values of the entry of an expression, which are followed by its patterns.
+	 */
+	static String[] expressionValues(Class<?> returnType, ExpressionType type, String[] patterns) {
+		String[] values = new String[patterns.length + 2];
+		values[0] = returnType.getName();
+		values[1] = type.name();
+		System.arraycopy(patterns, 0, values, 2, patterns.length);
+		return values;
+	}
+
+	/**
+	 * @param kind The kind of the element, e.g. {@code effect}.
+	 * @param originClassPath The class that registered the element.
+	 * @param values The values of the entry, ending with the patterns of the element.
+	 * @return The line of the index for the given element.
+	 */
+	static String entry(String kind, String originClassPath, String... values) {
+		StringBuilder entry = new StringBuilder(kind).append('\t').append(escape(originClassPath));
+		for (String value : values)
+			entry.append('\t').append(escape(value));
+		return entry.toString();
+	}
+
+	/**
+	 * Records the classes that were loaded for Skript itself, in the order they were loaded in.
+	 */
+	static void recordClasses(Plugin plugin, Class<?>[] classes) {
+		if (plugin != Skript.getInstance())
+			return;
+		for (Class<?> c : classes)
+			recordedClasses.add(c.getName());
+	}
+
+	/**
+	 * Writes the recorded index to the file given by the {@code skript.syntaxIndex.output} system property.
+	 */
+	static void write() throws IOException {
+		assert OUTPUT != null;
+		Path output = Paths.get(OUTPUT);
+		Path parent = output.getParent();
+		if (parent != null)
+			Files.createDirectories(parent);
+		try (Writer writer = Files.newBufferedWriter(output, StandardCharsets.UTF_8)) {
+			String version = OUTPUT_VERSION != null ? OUTPUT_VERSION : Skript.getVersion().toString();
+			writer.write(HEADER + '\t' + FORMAT + '\t' + escape(version) + '\n');
+			for (String name : recordedClasses) {
+				ClassRecord record = records.get(name);
+				if (record == null || !record.isLazy()) {
+					writer.write(EAGER + '\t' + name + '\n');
+					continue;
+				}
+				writer.write(LAZY + '\t' + name + '\n');
+				for (String entry : record.entries)
+					writer.write(entry + '\n');
+			}
+		}
+	}
+
+	// ================ LOADING ================
+
+	/**
+	 * A class in the index, together with the elements it registers if it is lazy.
+	 */
+	static final class IndexedClass {
+
+		final String name;
+		@Nullable
+		final List<String[]> entries;
+
+		@Nullable
+		private Class<?> c;
+
+		private IndexedClass(String name, @Nullable List<String[]> entries) {
+			this.name = name;
+			this.entries = entries;
+		}
+
+	}
+
+	private static final Map<Plugin, List<IndexedClass>> indices = new HashMap<>();
+
+	/**
+	 * The classes whose elements were registered from the index.
+	 */
+	private static final Set<Class<?>> indexedClasses = Collections.newSetFromMap(new ConcurrentHashMap<>());
+
+	/**
+	 * Checks whether the elements of the given class were registered from the index,
+	 * in which case registering them again when the class is initialised must be ignored.
+	 */
+	static boolean isIndexed(Class<?> c) {
+		return !indexedClasses.isEmpty() && indexedClasses.contains(c);
+	}
+
+	/**
+	 * Loads the classes of the given packages from the index of the given plugin,
+	 * like {@link ch.njol.skript.util.Utils#getClasses(Plugin, String, String...)} would.
+	 *
+	 * @return Whether the classes were loaded, false if the plugin has no usable index for them.
+	 */
+	static boolean loadClasses(Plugin plugin, String basePackage, String... subPackages) {
+		if (isRecording() || !SkriptConfig.lazySyntaxLoading.value())
+			return false;
+
+		List<IndexedClass> index = indices.computeIfAbsent(plugin, SyntaxRegistryIndex::read);
+		String base = basePackage + ".";
+		List<IndexedClass> classes = new ArrayList<>();
+		for (IndexedClass indexed : index) {
+			if (!indexed.name.startsWith(base))
+				continue;
+			boolean load = subPackages.length == 0;
+			for (String sub : subPackages) {
+				if (indexed.name.startsWith(sub + ".", base.length())) {
+					load = true;
+					break;
+				}
+			}
+			if (load)
+				classes.add(indexed);
+		}
+		if (classes.isEmpty())
+			return false;
+
+		// Resolve everything before registering anything, so that an outdated index falls back to loading the classes
+		ClassLoader loader = plugin.getClass().getClassLoader();
+		try {
+			for (IndexedClass indexed : classes) {
+				indexed.c = Class.forName(indexed.name, false, loader);
+				if (indexed.entries == null)
+					continue;
+				for (String[] entry : indexed.entries) {
+					if (entry[0].equals(EXPRESSION))
+						Class.forName(entry[2], false, loader);
+				}
+			}
+		} catch (ClassNotFoundException | LinkageError e) {
+			Skript.warning("The syntax index of " + plugin.getName() + " is outdated, loading its classes instead: " + e);
+			return false;
+		}
+
+		Skript.checkAcceptRegistrations();
+		for (IndexedClass indexed : classes) {
+			if (indexed.entries != null)
+				indexedClasses.add(indexed.c);
+		}
+		for (IndexedClass indexed : classes) {
+			assert indexed.c != null;
+			if (indexed.entries == null) {
+				try {
+					Class.forName(indexed.name, true, loader);
+				} catch (ClassNotFoundException ex) {
+					Skript.exception(ex, "Cannot load class " + indexed.name);
+				} catch (ExceptionInInitializerError err) {
+					Skript.exception(err.getCause(), "class " + indexed.name + " generated an exception while loading");
+				}
+				continue;
+			}
+			try {
+				for (String[] entry : indexed.entries)
+					register(indexed.c, entry, loader);
+			} catch (ClassNotFoundException e) {
+				throw new IllegalStateException(e); // Resolved above
+			}
+		}
+		return true;
+	}
+
+	@SuppressWarnings({"unchecked", "rawtypes"})
+	private static void register(Class<?> c, String[] entry, ClassLoader loader) throws ClassNotFoundException {
+		SyntaxElementInfo info = createInfo(c, entry, loader);
+		switch (entry[0]) {
+			case CONDITION:
+				Skript.addCondition(info);
+				break;
+			case EFFECT:
+				Skript.addEffect(info);
+				break;
+			case SECTION:
+				Skript.addSection(info);
+				break;
+			case EXPRESSION:
+				Skript.addExpression((ExpressionInfo<?, ?>) info, ((ExpressionInfo<?, ?>) info).expressionType);
+				break;
+			default:
+				throw new AssertionError(); // Checked by createInfo
+		}
+	}
+
+	/**
+	 * Creates the info of the element of the given class from an entry of the index,
+	 * which is the same as the info the class registers when it is initialised.
+	 *
+	 * @param c The class of the element.
+	 * @param entry The values of the entry.
+	 * @param loader The class loader to load the return type of expressions with.
+	 */
+	@SuppressWarnings({"unchecked", "rawtypes"})
+	static SyntaxElementInfo<?> createInfo(Class<?> c, String[] entry, ClassLoader loader) throws ClassNotFoundException {
+		String kind = entry[0];
+		String originClassPath = entry[1];
+		if (kind.equals(EXPRESSION)) {
+			Class<?> returnType = Class.forName(entry[2], false, loader);
+			ExpressionType type = ExpressionType.valueOf(entry[3]);
+			String[] patterns = copyPatterns(entry, 4);
+			return new ExpressionInfo(patterns, returnType, c.asSubclass(Expression.class), originClassPath, type);
+		}
+		String[] patterns = copyPatterns(entry, 2);
+		switch (kind) {
+			case CONDITION:
+				return new SyntaxElementInfo<>(patterns, c.asSubclass(Condition.class), originClassPath);
+			case EFFECT:
+				return new SyntaxElementInfo<>(patterns, c.asSubclass(Effect.class), originClassPath);
+			case SECTION:
+				return new SyntaxElementInfo<>(patterns, c.asSubclass(Section.class), originClassPath);
+			default:
+				throw new IllegalStateException("Unknown syntax kind " + kind);
+		}
+	}
+
+	private static String[] copyPatterns(String[] entry, int start) {
+		String[] patterns = new String[entry.length - start];
+		System.arraycopy(entry, start, patterns, 0, patterns.length);
+		return patterns;
+	}
+
+	/**
+	 * Reads the index of the given plugin.
+	 *
+	 * @return The classes of the index, or an empty list if the plugin has no index for its version.
+	 */
+	private static List<IndexedClass> read(Plugin plugin) {
+		InputStream stream = plugin.getClass().getClassLoader().getResourceAsStream(RESOURCE);
+		if (stream == null)
+			return Collections.emptyList();
+
+		String version = plugin.getDescription().getVersion();
+		try (BufferedReader reader = new BufferedReader(new InputStreamReader(stream, StandardCharsets.UTF_8))) {
+			List<IndexedClass> classes = read(reader, version);
+			if (classes == null) {
+				Skript.debug("Ignoring the syntax index of " + plugin.getName() + " as it is not for version " + version);
+				return Collections.emptyList();
+			}
+			return classes;
+		} catch (IOException | RuntimeException e) {
+			Skript.exception(e, "Could not read the syntax index of " + plugin.getName());
+			return Collections.emptyList();
+		}
+	}
+
+	/**
+	 * Reads an index in the format written by {@link #write()}.
+	 *
+	 * @param reader The reader of the index.
+	 * @param version The version of the plugin the index must have been generated for.
+	 * @return The classes of the index, or null if it is not an index for the given version.
+	 * @throws IOException If the index could not be read or is malformed.
+	 */
+	@Nullable
+	static List<IndexedClass> read(BufferedReader reader, String version) throws IOException {
+		String line = reader.readLine();
+		String[] header = line == null ? null : split(line);
+		if (header == null || header.length != 3 || !header[0].equals(HEADER) || !header[1].equals(FORMAT)
+				|| !(version.equals(header[2]) || version.startsWith(header[2] + "-")))
+			return null;
+
+		List<IndexedClass> classes = new ArrayList<>();
+		List<String[]> entries = null;
+		while ((line = reader.readLine()) != null) {
+			if (line.isEmpty())
+				continue;
+			String[] values = split(line);
+			switch (values[0]) {
+				case EAGER:
+					entries = null;
+					classes.add(new IndexedClass(values[1], null));
+					break;
+				case LAZY:
+					entries = new ArrayList<>();
+					classes.add(new IndexedClass(values[1], entries));
+					break;
+				default:
+					if (entries == null)
+						throw new IOException("Syntax entry outside of a lazy class: " + line);
+					entries.add(values);
+			}
+		}
+		return classes;
+	}
+
+	private static String escape(String value) {
+		return value.replace("\\", "\\\\").replace("\t", "\\t").replace("\n", "\\n");
+	}
+
+	static String[] split(String line) {
+		List<String> values = new ArrayList<>();
+		StringBuilder value = new StringBuilder();
+		for (int i = 0; i < line.length(); i++) {
+			char c = line.charAt(i);
+			if (c == '\t') {
+				values.add(value.toString());
+				value.setLength(0);
+			} else if (c == '\\' && i + 1 < line.length()) {
+				char escaped = line.charAt(++i);
+				value.append(escaped == 't' ? '\t' : escaped == 'n' ? '\n' : escaped);
+			} else {
+				value.append(c);
+			}
+		}
+		values.add(value.toString());
+		return values.toArray(new String[0]);
+	}
+
+}
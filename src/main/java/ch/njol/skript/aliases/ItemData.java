@@ -229,6 +229,35 @@ public class ItemData implements Cloneable, YggdrasilExtendedSerializable {
 		return true;
 	}
 	
+	/**
+	 * Tests whether the given block is of this type. This gives the same result as
+	 * comparing this to {@link #ItemData(Block) the data of the block} with {@link #equals(Object)},
+	 * but usually doesn't need to take a snapshot of the block.
+	 * 
+	 * @param block
+	 * @return Whether the given block is of this type.
+	 */
+	public boolean isOfType(Block block) {
+		if (isAnything)
+			return true;
+		
+		Material blockType = block.getType();
+		if (type != ItemUtils.asItem(blockType))
+			return false; // Obvious mismatch
+		
+		// Blocks without values or aliases with tags need the full comparison
+		if (!blockType.isBlock() || (isAlias && hasFlag(ItemFlags.CHANGED_TAGS)))
+			return equals(new ItemData(block));
+		
+		BlockValues values = blockValues;
+		if (isAlias) // The block must match this alias, see matchAlias(ItemData)
+			return values != null && values.matchBlock(block).isAtLeast(MatchQuality.SAME_ITEM);
+		// Items can't be blocks that have values
+		if (itemForm)
+			return false;
+		return values == null || values.match(block).isAtLeast(MatchQuality.SAME_ITEM);
+	}
+	
 	/**
 	 * Returns <code>Aliases.{@link Aliases#getMaterialName(ItemData, boolean) getMaterialName}(ItemData, boolean)</code>
 	 * called with this object and relevant plurarily setting.
@@ -283,7 +283,11 @@ public class ItemType implements Unit, Iterable<ItemData>, Container<ItemStack>,
 	public boolean isOfType(@Nullable Block block) {
 		if (block == null)
 			return isOfType(Material.AIR, null);
-		return isOfType(block.getState());
+		for (ItemData myType : types) {
+			if (myType.isOfType(block))
+				return true;
+		}
+		return false;
 	}
 	
 	public boolean isOfType(ItemData type) {
@@ -20,6 +20,7 @@ package ch.njol.skript.bukkitutil.block;
 
 import ch.njol.skript.aliases.MatchQuality;
 import ch.njol.yggdrasil.YggdrasilSerializable.YggdrasilExtendedSerializable;
+import org.bukkit.block.Block;
 import org.eclipse.jdt.annotation.Nullable;
 
 /**
@@ -30,6 +31,23 @@ public abstract class BlockValues implements YggdrasilExtendedSerializable {
 	public abstract boolean isDefault();
 	
 	public abstract MatchQuality match(BlockValues other);
+
+	/**
+	 * Matches these values against the values of the given block,
+	 * like {@link #match(BlockValues)} but without taking a snapshot of the block.
+	 * @param block Block to match against.
+	 * @return Match quality.
+	 */
+	public abstract MatchQuality match(Block block);
+
+	/**
+	 * Matches the values of the given block against these values,
+	 * like {@link #match(BlockValues)} called on the values of the block
+	 * but without taking a snapshot of it.
+	 * @param block Block whose values to match.
+	 * @return Match quality.
+	 */
+	public abstract MatchQuality matchBlock(Block block);
 	
 	@Override
 	public abstract boolean equals(@Nullable Object other);
@@ -106,10 +106,30 @@ public class NewBlockCompat implements BlockCompat {
 				throw new IllegalArgumentException("wrong block compat");
 			}
 			NewBlockValues n = (NewBlockValues) other;
-			if (type == n.type) {
-				if (data.equals(n.data)) { // Check for exact item match
+			return match(type, data, n.type, n.data);
+		}
+
+		@Override
+		public MatchQuality match(Block block) {
+			Material blockType = block.getType();
+			if (type != blockType)
+				return MatchQuality.DIFFERENT;
+			return match(type, data, blockType, block.getBlockData());
+		}
+
+		@Override
+		public MatchQuality matchBlock(Block block) {
+			Material blockType = block.getType();
+			if (type != blockType)
+				return MatchQuality.DIFFERENT;
+			return match(blockType, block.getBlockData(), type, data);
+		}
+
+		private static MatchQuality match(Material type, BlockData data, Material otherType, BlockData otherData) {
+			if (type == otherType) {
+				if (data.equals(otherData)) { // Check for exact item match
 					return MatchQuality.EXACT;
-				} else if (data.matches(n.data)) { // What about explicitly defined states only?
+				} else if (data.matches(otherData)) { // What about explicitly defined states only?
 					return MatchQuality.SAME_ITEM;
 				} else { // Just same material and different block states
 					return MatchQuality.SAME_MATERIAL;
@@ -70,6 +70,23 @@ public class DefaultComparators {
 	
 	public DefaultComparators() {}
 	
+	/**
+	 * Compares two decimal numbers the same way as the comparator of numbers does,
+	 * i.e. numbers that differ by less than {@link Skript#EPSILON} are equal.
+	 */
+	public static Relation compareNumbers(double d1, double d2) {
+		if (Double.isNaN(d1) || Double.isNaN(d2)) {
+			return Relation.SMALLER;
+		} else if (Double.isInfinite(d1) || Double.isInfinite(d2)) {
+			return d1 > d2 ? Relation.GREATER : d1 < d2 ? Relation.SMALLER : Relation.EQUAL;
+		} else {
+			double diff = d1 - d2;
+			if (Math.abs(diff) < Skript.EPSILON)
+				return Relation.EQUAL;
+			return Relation.get(diff);
+		}
+	}
+	
 	static {
 		
 		// Number - Number
@@ -78,18 +95,7 @@ public class DefaultComparators {
 			public Relation compare(Number n1, Number n2) {
 				if (n1 instanceof Long && n2 instanceof Long)
 					return Relation.get(n1.longValue() - n2.longValue());
-				Double d1 = n1.doubleValue(),
-					   d2 = n2.doubleValue();
-				if (d1.isNaN() || d2.isNaN()) {
-					return Relation.SMALLER;
-				} else if (d1.isInfinite() || d2.isInfinite()) {
-					return d1 > d2 ? Relation.GREATER : d1 < d2 ? Relation.SMALLER : Relation.EQUAL;
-				} else {
-					double diff = d1 - d2;
-					if (Math.abs(diff) < Skript.EPSILON)
-						return Relation.EQUAL;
-					return Relation.get(diff);
-				}
+				return compareNumbers(n1.doubleValue(), n2.doubleValue());
 			}
 
 			@Override
@@ -18,8 +18,6 @@
  */
 package ch.njol.skript.command;
 
-import java.util.WeakHashMap;
-
 import org.bukkit.event.Event;
 import org.eclipse.jdt.annotation.Nullable;
 
@@ -56,8 +54,6 @@ public class Argument<T> {
 	
 	private final boolean optional;
 	
-	private transient WeakHashMap<Event, T[]> current = new WeakHashMap<>();
-	
 	private Argument(@Nullable final String name, final @Nullable Expression<? extends T> def, final ClassInfo<T> type, final boolean single, final int index, final boolean optional) {
 		this.name = name;
 		this.def = def;
@@ -127,11 +123,10 @@ public class Argument<T> {
 			set(event, def.getArray(event));
 	}
 	
-	@SuppressWarnings("unchecked")
 	public void set(final ScriptCommandEvent e, final Object[] o) {
 		if (!(type.getC().isAssignableFrom(o.getClass().getComponentType())))
 			throw new IllegalArgumentException();
-		current.put(e, (T[]) o);
+		e.setArgumentValues(this, o);
 		final String name = this.name;
 		if (name != null) {
 			if (single) {
@@ -144,15 +139,22 @@ public class Argument<T> {
 		}
 	}
 	
+	@SuppressWarnings("unchecked")
 	@Nullable
 	public T[] getCurrent(final Event e) {
-		return current.get(e);
+		if (!(e instanceof ScriptCommandEvent))
+			return null;
+		return (T[]) ((ScriptCommandEvent) e).getArgumentValues(this);
 	}
 	
 	public Class<T> getType() {
 		return type.getC();
 	}
 	
+	ClassInfo<T> getClassInfo() {
+		return type;
+	}
+	
 	public int getIndex() {
 		return index;
 	}
@@ -0,0 +1,244 @@
+/**
+ *   This file is part of Skript.
+ *
+ *  Skript is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  Skript is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with Skript.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * Copyright Peter Güttinger, SkriptLang team and contributors
+ */
+package ch.njol.skript.command;
+
+import ch.njol.skript.classes.ClassInfo;
+import ch.njol.skript.classes.Parser;
+import ch.njol.skript.lang.ParseContext;
+import ch.njol.skript.lang.SkriptParser;
+import ch.njol.skript.log.ParseLogHandler;
+import ch.njol.skript.log.SkriptLogger;
+import ch.njol.skript.registrations.Classes;
+import org.eclipse.jdt.annotation.Nullable;
+
+import java.lang.reflect.Array;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * The pattern of a {@link ScriptCommand} compiled into a sequence of literal words and arguments,
+ * which matches the arguments of the command without going through {@link SkriptParser}.
+ * <p>
+ * Only patterns made up of literal words followed by single arguments of one of the {@link #FAST_TYPES}
+ * can be compiled, where the optional arguments come last and are each in their own optional group.
+ * Each word of the input is matched to one literal or argument in order, and the last one takes the rest of the input.
+ * This is the first way {@link SkriptParser#parseArguments(String, ScriptCommand, ScriptCommandEvent)} tries
+ * to split the input, so if each of the arguments can be parsed by the parsers of its type,
+ * the result is the same as the one of that method.
+ * Otherwise, the arguments have to be parsed by that method instead, which also reports the errors.
+ */
+final class CommandArgumentMatcher {
+
+	/**
+	 * The code names of the types that can be parsed by this matcher.
+	 */
+	private static final Set<String> FAST_TYPES = new HashSet<>(Arrays.asList(
+		"offlineplayer", "player", "number", "integer", "string", "timespan"
+	));
+
+	/**
+	 * The lowercase word of each literal token, {@code null} for arguments.
+	 */
+	private final @Nullable String[] literals;
+
+	/**
+	 * The argument of each argument token, {@code null} for literals.
+	 */
+	private final @Nullable Argument<?>[] arguments;
+
+	/**
+	 * The parsers of each argument token, in the order they are tried by {@link Classes#parseSimple(String, Class, ParseContext)},
+	 * {@code null} for literals.
+	 */
+	private final Parser<?>[][] parsers;
+
+	/**
+	 * The amount of tokens before the first optional argument.
+	 */
+	private final int required;
+
+	private CommandArgumentMatcher(@Nullable String[] literals, @Nullable Argument<?>[] arguments, Parser<?>[][] parsers, int required) {
+		this.literals = literals;
+		this.arguments = arguments;
+		this.parsers = parsers;
+		this.required = required;
+	}
+
+	/**
+	 * Compiles the pattern of a script command.
+	 *
+	 * @param pattern the pattern of the command, as created by the command structure.
+	 * @param arguments the arguments of the command, in the order they appear in the pattern.
+	 * @return the compiled pattern, or {@code null} if the pattern can't be matched by this class.
+	 */
+	@Nullable
+	static CommandArgumentMatcher compile(String pattern, List<Argument<?>> arguments) {
+		if (pattern.isEmpty())
+			return new CommandArgumentMatcher(new String[0], new Argument[0], new Parser[0][], 0);
+
+		String[] tokens = pattern.split(" ", -1);
+		int size = tokens.length;
+		String[] literals = new String[size];
+		Argument<?>[] tokenArguments = new Argument[size];
+		Parser<?>[][] parsers = new Parser[size][];
+		int required = -1;
+		int argument = 0;
+		int depth = 0;
+		for (int i = 0; i < size; i++) {
+			String token = tokens[i];
+			int start = 0;
+			while (start < token.length() && token.charAt(start) == '[')
+				start++;
+			int end = token.length();
+			while (end > start && token.charAt(end - 1) == ']')
+				end--;
+			int opened = start;
+			depth += opened;
+			String content = token.substring(start, end);
+			if (content.length() > 2 && content.charAt(0) == '%' && content.indexOf('%', 1) == content.length() - 1) {
+				if (argument >= arguments.size())
+					return null;
+				Argument<?> arg = arguments.get(argument++);
+				boolean optional = content.charAt(1) == '-';
+				// Each optional argument must be in its own group, so that any amount of them may be left out,
+				// and no required argument may follow them, as it would take the words of the optional ones
+				if (optional != (opened == 1) || optional && !arg.isOptional() || !optional && required != -1)
+					return null;
+				if (!arg.isSingle() || !FAST_TYPES.contains(arg.getClassInfo().getCodeName()))
+					return null;
+				if (optional && required == -1)
+					required = i;
+				tokenArguments[i] = arg;
+				parsers[i] = getParsers(arg.getType());
+			} else {
+				if (opened != 0 || argument != 0 || !isPlainWord(content))
+					return null;
+				literals[i] = content.toLowerCase(Locale.ENGLISH);
+			}
+			depth -= token.length() - end;
+			if (depth < 0)
+				return null;
+		}
+		if (depth != 0 || argument != arguments.size())
+			return null;
+		return new CommandArgumentMatcher(literals, tokenArguments, parsers, required == -1 ? size : required);
+	}
+
+	private static boolean isPlainWord(String word) {
+		if (word.isEmpty())
+			return false;
+		for (int i = 0; i < word.length(); i++) {
+			char c = word.charAt(i);
+			if (c > 127 || "()|<>%\\[]".indexOf(c) != -1)
+				return false;
+		}
+		return true;
+	}
+
+	private static Parser<?>[] getParsers(Class<?> type) {
+		List<Parser<?>> parsers = new ArrayList<>();
+		for (ClassInfo<?> info : Classes.getClassInfos()) {
+			Parser<?> parser = info.getParser();
+			if (parser != null && parser.canParse(ParseContext.COMMAND) && type.isAssignableFrom(info.getC()))
+				parsers.add(parser);
+		}
+		return parsers.toArray(new Parser[0]);
+	}
+
+	/**
+	 * Matches the given arguments and sets the values of the command's arguments if they match.
+	 *
+	 * @param args the arguments the command was executed with.
+	 * @param event the event to set the values of the arguments in.
+	 * @return whether the arguments matched.
+	 * If they didn't, they might still match with {@link SkriptParser#parseArguments(String, ScriptCommand, ScriptCommandEvent)}.
+	 */
+	boolean match(String args, ScriptCommandEvent event) {
+		args = args.trim();
+		int size = literals.length;
+		Object[][] values = new Object[size][];
+		int start = 0;
+		int token = 0;
+		while (start < args.length()) {
+			if (token == size)
+				return false;
+			int end = token == size - 1 ? -1 : args.indexOf(' ', start);
+			if (end == start)
+				return false; // Multiple spaces
+			if (end == -1)
+				end = args.length();
+			String word = args.substring(start, end);
+			String literal = literals[token];
+			if (literal != null) {
+				if (!literal.equals(word.toLowerCase(Locale.ENGLISH)))
+					return false;
+			} else {
+				Parser<?>[] parsers = this.parsers[token];
+				assert parsers != null;
+				Object value = parse(word, parsers);
+				if (value == null)
+					return false;
+				Object[] array = (Object[]) Array.newInstance(value.getClass(), 1);
+				array[0] = value;
+				values[token] = array;
+			}
+			start = end + 1;
+			token++;
+		}
+		if (token < required)
+			return false;
+
+		for (int i = 0; i < size; i++) {
+			Argument<?> argument = arguments[i];
+			if (argument == null)
+				continue;
+			Object[] value = values[i];
+			if (value == null) {
+				argument.setToDefault(event);
+			} else {
+				argument.set(event, value);
+			}
+		}
+		return true;
+	}
+
+	@Nullable
+	private static Object parse(String word, Parser<?>[] parsers) {
+		ParseLogHandler log = SkriptLogger.startParseLogHandler();
+		try {
+			for (Parser<?> parser : parsers) {
+				log.clear();
+				Object value = parser.parse(word, ParseContext.COMMAND);
+				if (value != null) {
+					log.printLog();
+					return value;
+				}
+			}
+			log.clear();
+			return null;
+		} finally {
+			log.stop();
+		}
+	}
+
+}
@@ -129,8 +129,43 @@ public abstract class Commands {
 		}
 	}
 	
+	/**
+	 * @deprecated Not reliable when scripts are loaded in parallel, use {@link #getCurrentArguments()} instead.
+	 */
+	@Deprecated
 	@Nullable
 	public static List<Argument<?>> currentArguments = null;
+
+	static {
+		ParserInstance.registerData(CommandData.class, CommandData::new);
+	}
+
+	/**
+	 * Holds the arguments of the command that is being loaded by a {@link ParserInstance}.
+	 */
+	public static class CommandData extends ParserInstance.Data {
+
+		@Nullable
+		private List<Argument<?>> currentArguments;
+
+		public CommandData(ParserInstance parserInstance) {
+			super(parserInstance);
+		}
+
+	}
+
+	/**
+	 * @return the arguments of the command that is currently being loaded on this thread, or null if none is.
+	 */
+	@Nullable
+	public static List<Argument<?>> getCurrentArguments() {
+		return ParserInstance.get().getData(CommandData.class).currentArguments;
+	}
+
+	public static void setCurrentArguments(@Nullable List<Argument<?>> arguments) {
+		ParserInstance.get().getData(CommandData.class).currentArguments = arguments;
+		currentArguments = arguments;
+	}
 	
 	@SuppressWarnings("null")
 	private final static Pattern escape = Pattern.compile("[" + Pattern.quote("(|)<>%\\") + "]");
@@ -252,7 +287,7 @@ public abstract class Commands {
 		return c != null && c.getName().equals(command);
 	}
 	
-	public static void registerCommand(final ScriptCommand command) {
+	public static synchronized void registerCommand(final ScriptCommand command) {
 		// Validate that there are no duplicates
 		final ScriptCommand existingCommand = commands.get(command.getLabel());
 		if (existingCommand != null && existingCommand.getLabel().equals(command.getLabel())) {
@@ -286,7 +321,7 @@ public abstract class Commands {
 		return numCommands;
 	}
 
-	public static void unregisterCommand(ScriptCommand scriptCommand) {
+	public static synchronized void unregisterCommand(ScriptCommand scriptCommand) {
 		scriptCommand.unregisterHelp();
 		if (commandMap != null) {
 			assert cmKnownCommands != null;// && cmAliases != null;
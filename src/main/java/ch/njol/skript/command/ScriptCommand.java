@@ -107,6 +107,8 @@ public class ScriptCommand implements TabExecutor {
 
 	private final String pattern;
 	private final List<Argument<?>> arguments;
+	@Nullable
+	private final CommandArgumentMatcher argumentMatcher;
 
 	public final static int PLAYERS = 0x1, CONSOLE = 0x2, BOTH = PLAYERS | CONSOLE;
 	final int executableBy;
@@ -186,6 +188,7 @@ public class ScriptCommand implements TabExecutor {
 
 		this.pattern = pattern;
 		this.arguments = arguments;
+		argumentMatcher = CommandArgumentMatcher.compile(pattern, arguments);
 
 		trigger = new Trigger(script, "command /" + name, new SimpleEvent(), ScriptLoader.loadItems(node));
 		trigger.setLineNumber(node.getLine());
@@ -289,9 +292,22 @@ public class ScriptCommand implements TabExecutor {
 	}
 
 	boolean execute2(final ScriptCommandEvent event, final CommandSender sender, final String commandLabel, final String rest) {
+		// The arguments are set in the frame the trigger will be executed in
+		boolean pushed = Variables.pushLocals(event, trigger.getLocalVariableSlots());
+		try {
+			return execute2_i(event, sender, rest);
+		} finally {
+			if (pushed)
+				Variables.popLocals(event);
+		}
+	}
+
+	private boolean execute2_i(final ScriptCommandEvent event, final CommandSender sender, final String rest) {
 		final ParseLogHandler log = SkriptLogger.startParseLogHandler();
 		try {
-			final boolean ok = SkriptParser.parseArguments(rest, ScriptCommand.this, event);
+			final CommandArgumentMatcher argumentMatcher = this.argumentMatcher;
+			final boolean ok = argumentMatcher != null && argumentMatcher.match(rest, event)
+				|| SkriptParser.parseArguments(rest, ScriptCommand.this, event);
 			if (!ok) {
 				final LogEntry e = log.getError();
 				if (e != null)
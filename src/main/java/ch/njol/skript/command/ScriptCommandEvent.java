@@ -23,6 +23,7 @@ import ch.njol.skript.util.Date;
 import org.bukkit.command.CommandSender;
 import org.bukkit.entity.Player;
 import org.bukkit.event.HandlerList;
+import org.eclipse.jdt.annotation.Nullable;
 
 public class ScriptCommandEvent extends CommandEvent {
 	
@@ -32,6 +33,11 @@ public class ScriptCommandEvent extends CommandEvent {
 	private final Date executionDate = new Date();
 	private boolean cooldownCancelled;
 
+	/**
+	 * The values of the script command's arguments, by their {@link Argument#getIndex() index}.
+	 */
+	private final Object[][] argumentValues;
+
 	/**
 	 * @param scriptCommand The script command executed.
 	 * @param sender The executor of this script command.
@@ -43,6 +49,7 @@ public class ScriptCommandEvent extends CommandEvent {
 		this.scriptCommand = scriptCommand;
 		this.commandLabel = commandLabel;
 		this.rest = rest;
+		this.argumentValues = new Object[scriptCommand.getArguments().size()][];
 	}
 
 	/**
@@ -67,6 +74,25 @@ public class ScriptCommandEvent extends CommandEvent {
 		return rest;
 	}
 
+	/**
+	 * @param argument An argument of the script command executed.
+	 * @return The values of the argument, or null if they have not been set or if it is not an argument of the script command.
+	 */
+	@Nullable
+	Object[] getArgumentValues(Argument<?> argument) {
+		int index = argument.getIndex();
+		if (index >= argumentValues.length || scriptCommand.getArguments().get(index) != argument)
+			return null;
+		return argumentValues[index];
+	}
+
+	void setArgumentValues(Argument<?> argument, Object[] values) {
+		int index = argument.getIndex();
+		if (index >= argumentValues.length || scriptCommand.getArguments().get(index) != argument)
+			throw new IllegalArgumentException("Argument " + argument + " is not an argument of /" + scriptCommand.getName());
+		argumentValues[index] = values;
+	}
+
 	/**
 	 * Only accurate when this event is not delayed (yet)
 	 */
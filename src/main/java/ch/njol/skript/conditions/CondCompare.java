@@ -22,15 +22,18 @@ import org.bukkit.event.Event;
 import org.eclipse.jdt.annotation.Nullable;
 
 import ch.njol.skript.Skript;
+import ch.njol.skript.classes.data.DefaultComparators;
 import org.skriptlang.skript.lang.comparator.Comparator;
 import org.skriptlang.skript.lang.comparator.Relation;
 import ch.njol.skript.doc.Description;
 import ch.njol.skript.doc.Examples;
 import ch.njol.skript.doc.Name;
 import ch.njol.skript.doc.Since;
+import ch.njol.skript.expressions.arithmetic.ExprArithmetic;
 import ch.njol.skript.lang.Condition;
 import ch.njol.skript.lang.Expression;
 import ch.njol.skript.lang.ExpressionList;
+import ch.njol.skript.lang.Literal;
 import ch.njol.skript.lang.ParseContext;
 import ch.njol.skript.lang.SkriptParser.ParseResult;
 import ch.njol.skript.lang.UnparsedLiteral;
@@ -105,6 +108,13 @@ public class CondCompare extends Condition {
 	@Nullable
 	private Comparator comp;
 	
+	/**
+	 * If this compares two numbers, each of which is an arithmetic expression or a single number literal,
+	 * these are the arithmetic expressions or the values of the literals, which are compared without boxing.
+	 */
+	@Nullable
+	private Object firstNumber, secondNumber;
+	
 	@SuppressWarnings("null")
 	@Override
 	public boolean init(final Expression<?>[] vars, final int matchedPattern, final Kleenean isDelayed, final ParseResult parser) {
@@ -149,9 +159,52 @@ public class CondCompare extends Condition {
 			}
 		}
 		
+		if (third == null && comp != null && comp == Comparators.getComparator(Number.class, Number.class)) {
+			Object firstNumber = getNumber(first);
+			Object secondNumber = getNumber(second);
+			if (firstNumber != null && secondNumber != null) {
+				this.firstNumber = firstNumber;
+				this.secondNumber = secondNumber;
+			}
+		}
+		
 		return true;
 	}
 	
+	/**
+	 * @return the given expression if it is an arithmetic expression, the value of the given expression if it is a single number literal,
+	 * or null otherwise.
+	 */
+	@Nullable
+	private static Object getNumber(Expression<?> expression) {
+		if (expression instanceof ExprArithmetic)
+			return expression;
+		if (expression instanceof Literal && Number.class.isAssignableFrom(expression.getReturnType())) {
+			Object[] values = ((Literal<?>) expression).getAll();
+			if (values.length == 1)
+				return values[0];
+		}
+		return null;
+	}
+	
+	/**
+	 * Compares {@link #firstNumber} and {@link #secondNumber} like the comparator of numbers would compare their values.
+	 */
+	private Relation compareNumbers(Event e) {
+		Object first = firstNumber, second = secondNumber;
+		assert first != null && second != null;
+		boolean firstLong = first instanceof ExprArithmetic ? ((ExprArithmetic) first).isInteger() : first instanceof Long;
+		boolean secondLong = second instanceof ExprArithmetic ? ((ExprArithmetic) second).isInteger() : second instanceof Long;
+		if (firstLong && secondLong) {
+			long l1 = first instanceof ExprArithmetic ? ((ExprArithmetic) first).getLong(e) : (Long) first;
+			long l2 = second instanceof ExprArithmetic ? ((ExprArithmetic) second).getLong(e) : (Long) second;
+			return Relation.get(l1 - l2);
+		}
+		double d1 = first instanceof ExprArithmetic ? ((ExprArithmetic) first).getDouble(e) : ((Number) first).doubleValue();
+		double d2 = second instanceof ExprArithmetic ? ((ExprArithmetic) second).getDouble(e) : ((Number) second).doubleValue();
+		return DefaultComparators.compareNumbers(d1, d2);
+	}
+	
 	public static String f(final Expression<?> e) {
 		if (e.getReturnType() == Object.class)
 			return e.toString(null, false);
@@ -304,6 +357,8 @@ public class CondCompare extends Condition {
 	@Override
 	@SuppressWarnings({"null", "unchecked"})
 	public boolean check(final Event e) {
+		if (firstNumber != null)
+			return relation.isImpliedBy(compareNumbers(e)) ^ isNegated();
 		final Expression<?> third = this.third;
 		return first.check(e, (Checker<Object>) o1 ->
 			second.check(e, (Checker<Object>) o2 -> {
@@ -63,7 +63,7 @@ public class EffReturn extends Effect {
 	@SuppressWarnings("unchecked")
 	@Override
 	public boolean init(Expression<?>[] exprs, int matchedPattern, Kleenean isDelayed, ParseResult parseResult) {
-		ScriptFunction<?> f = Functions.currentFunction;
+		ScriptFunction<?> f = Functions.getCurrentFunction();
 		if (f == null) {
 			Skript.error("The return statement can only be used in a function");
 			return false;
@@ -109,7 +109,7 @@ public class EffReturn extends Effect {
 	protected TriggerItem walk(final Event e) {
 		debug(e, false);
 		if (e instanceof FunctionEvent) {
-			((ScriptFunction) function).setReturnValue(value.getArray(e));
+			((ScriptFunction) function).setReturnValue((FunctionEvent<?>) e, value.getArray(e));
 		} else {
 			assert false : e;
 		}
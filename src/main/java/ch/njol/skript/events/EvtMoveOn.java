@@ -41,6 +41,7 @@ import org.bukkit.plugin.EventExecutor;
 import org.eclipse.jdt.annotation.Nullable;
 
 import java.util.ArrayList;
+import java.util.EnumSet;
 import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
@@ -68,6 +69,12 @@ public class EvtMoveOn extends SkriptEvent {
 	
 	// Fence blocks and fence gates
 	private static final ItemType FENCE_PART = Aliases.javaItemType("fence part");
+	private static final Set<Material> FENCE_PART_MATERIALS = EnumSet.noneOf(Material.class);
+
+	static {
+		for (ItemData data : FENCE_PART)
+			FENCE_PART_MATERIALS.add(data.getType());
+	}
 	
 	private static final Map<Material, List<Trigger>> ITEM_TYPE_TRIGGERS = new ConcurrentHashMap<>();
 	
@@ -121,7 +128,7 @@ public class EvtMoveOn extends SkriptEvent {
 	}
 	
 	private static int getBlockY(double y, Material id) {
-		if (FENCE_PART.isOfType(id) && Math.abs((y - Math.floor(y)) - 0.5) < Skript.EPSILON)
+		if (FENCE_PART_MATERIALS.contains(id) && Math.abs((y - Math.floor(y)) - 0.5) < Skript.EPSILON)
 			return (int) Math.floor(y) - 1;
 		return (int) Math.ceil(y) - 1;
 	}
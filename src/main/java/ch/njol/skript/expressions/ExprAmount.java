@@ -111,7 +111,8 @@ public class ExprAmount extends SimpleExpression<Long> {
 
 	@SuppressWarnings("unchecked")
 	private static int getRecursiveSize(Map<String, ?> map) {
-		int count = 0;
+		// The value of the variable this is the list of is not one of the entries
+		int count = map.get(null) != null ? 1 : 0;
 		for (Map.Entry<String, ?> entry : map.entrySet()) {
 			Object value = entry.getValue();
 			if (value instanceof Map)
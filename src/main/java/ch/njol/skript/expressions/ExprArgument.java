@@ -115,7 +115,7 @@ public class ExprArgument extends SimpleExpression<Object> {
 			return false;
 		}
 
-		List<Argument<?>> currentArguments = Commands.currentArguments;
+		List<Argument<?>> currentArguments = Commands.getCurrentArguments();
 		if (scriptCommand && (currentArguments == null || currentArguments.isEmpty())) {
 			Skript.error("This command doesn't have any arguments", ErrorQuality.SEMANTIC_ERROR);
 			return false;
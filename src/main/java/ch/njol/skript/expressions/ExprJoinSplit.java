@@ -33,6 +33,7 @@ import ch.njol.skript.lang.Expression;
 import ch.njol.skript.lang.ExpressionType;
 import ch.njol.skript.lang.SkriptParser.ParseResult;
 import ch.njol.skript.lang.util.SimpleExpression;
+import ch.njol.skript.lang.util.SimplifiedLiteral;
 import ch.njol.util.Kleenean;
 import ch.njol.util.StringUtils;
 
@@ -101,6 +102,13 @@ public class ExprJoinSplit extends SimpleExpression<String> {
 		return String.class;
 	}
 
+	@Override
+	public Expression<? extends String> simplify() {
+		if (SimplifiedLiteral.isConstant(strings) && (delimiter == null || SimplifiedLiteral.isConstant(delimiter)))
+			return SimplifiedLiteral.of(this);
+		return this;
+	}
+
 	@Override
 	public String toString(@Nullable Event event, boolean debug) {
 		if (join)
@@ -21,8 +21,10 @@ package ch.njol.skript.expressions.arithmetic;
 import java.util.List;
 
 import org.bukkit.event.Event;
+import org.eclipse.jdt.annotation.Nullable;
 
 import ch.njol.skript.lang.Expression;
+import ch.njol.skript.lang.Literal;
 import ch.njol.skript.util.Utils;
 import ch.njol.util.Checker;
 
@@ -47,7 +49,19 @@ public class ArithmeticChain implements ArithmeticGettable {
 	
 	@Override
 	public Number get(Event event, boolean integer) {
-		return operator.calculate(left.get(event, integer), right.get(event, integer), integer);
+		if (integer)
+			return getLong(event);
+		return getDouble(event);
+	}
+
+	@Override
+	public long getLong(Event event) {
+		return operator.calculate(left.getLong(event), right.getLong(event));
+	}
+
+	@Override
+	public double getDouble(Event event) {
+		return operator.calculate(left.getDouble(event), right.getDouble(event));
 	}
 	
 	@SuppressWarnings("unchecked")
@@ -64,6 +78,10 @@ public class ArithmeticChain implements ArithmeticGettable {
 				List<Object> rightChain = chain.subList(lastIndex + 1, chain.size());
 				ArithmeticGettable right = parse(rightChain);
 				
+				// Chains of constants only need to be calculated once
+				if (left instanceof ArithmeticConstant && right instanceof ArithmeticConstant)
+					return new ArithmeticConstant(operator.calculate(left.getLong(null), right.getLong(null)),
+						operator.calculate(left.getDouble(null), right.getDouble(null)));
 				return new ArithmeticChain(left, operator, right);
 			}
 		}
@@ -71,7 +89,26 @@ public class ArithmeticChain implements ArithmeticGettable {
 		if (chain.size() != 1)
 			throw new IllegalStateException();
 		
-		return new NumberExpressionInfo((Expression<? extends Number>) chain.get(0));
+		Expression<? extends Number> expression = (Expression<? extends Number>) chain.get(0);
+		Number constant = getConstant(expression);
+		if (constant != null)
+			return new ArithmeticConstant(constant);
+		return new NumberExpressionInfo(expression);
+	}
+
+	/**
+	 * @return the value of the given expression if it is always the same, i.e. it is a literal with a single value
+	 * or an arithmetic expression of such literals.
+	 */
+	@Nullable
+	private static Number getConstant(Expression<? extends Number> expression) {
+		if (expression instanceof Literal) {
+			Number[] values = ((Literal<? extends Number>) expression).getAll();
+			return values.length == 1 ? values[0] : null;
+		}
+		if (expression instanceof ExprArithmetic && ((ExprArithmetic) expression).isConstant())
+			return expression.getSingle(null);
+		return null;
 	}
 	
 }
@@ -0,0 +1,72 @@
+/**
+ *   This file is part of Skript.
+ *
+ *  Skript is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  Skript is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with Skript.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * Copyright Peter Güttinger, SkriptLang team and contributors
+ */
+package ch.njol.skript.expressions.arithmetic;
+
+import org.bukkit.event.Event;
+import org.eclipse.jdt.annotation.Nullable;
+
+/**
+ * A part of an arithmetic chain that always has the same value, e.g. a literal or a chain of literals like <tt>20 * 60</tt>.
+ * Its value is calculated once when the chain is {@link ArithmeticChain#parse(java.util.List) parsed}.
+ */
+public class ArithmeticConstant implements ArithmeticGettable {
+	
+	private final long longValue;
+	private final double doubleValue;
+	
+	private final Number longNumber;
+	private final Number doubleNumber;
+	
+	/**
+	 * @param value the value of a literal, which is also returned by {@link #get(Event, boolean)} like it is for other expressions.
+	 */
+	public ArithmeticConstant(Number value) {
+		this.longValue = value.longValue();
+		this.doubleValue = value.doubleValue();
+		this.longNumber = value;
+		this.doubleNumber = value;
+	}
+	
+	/**
+	 * @param longValue the value when calculated with integers.
+	 * @param doubleValue the value when calculated with decimal numbers.
+	 */
+	public ArithmeticConstant(long longValue, double doubleValue) {
+		this.longValue = longValue;
+		this.doubleValue = doubleValue;
+		this.longNumber = longValue;
+		this.doubleNumber = doubleValue;
+	}
+	
+	@Override
+	public Number get(@Nullable Event event, boolean integer) {
+		return integer ? longNumber : doubleNumber;
+	}
+	
+	@Override
+	public long getLong(@Nullable Event event) {
+		return longValue;
+	}
+	
+	@Override
+	public double getDouble(@Nullable Event event) {
+		return doubleValue;
+	}
+	
+}
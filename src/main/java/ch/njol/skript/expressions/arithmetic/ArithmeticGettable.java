@@ -23,5 +23,19 @@ import org.bukkit.event.Event;
 public interface ArithmeticGettable {
 	
 	Number get(Event event, boolean integer);
+
+	/**
+	 * Gets the value as an integer, which is the same as {@link #get(Event, boolean) get(event, true)} without boxing.
+	 */
+	default long getLong(Event event) {
+		return get(event, true).longValue();
+	}
+
+	/**
+	 * Gets the value as a decimal number, which is the same as {@link #get(Event, boolean) get(event, false)} without boxing.
+	 */
+	default double getDouble(Event event) {
+		return get(event, false).doubleValue();
+	}
 	
 }
@@ -18,7 +18,6 @@
  */
 package ch.njol.skript.expressions.arithmetic;
 
-import java.lang.reflect.Array;
 import java.util.ArrayList;
 import java.util.List;
 
@@ -32,10 +31,9 @@ import ch.njol.skript.doc.Name;
 import ch.njol.skript.doc.Since;
 import ch.njol.skript.lang.Expression;
 import ch.njol.skript.lang.ExpressionType;
-import ch.njol.skript.lang.Literal;
 import ch.njol.skript.lang.SkriptParser.ParseResult;
 import ch.njol.skript.lang.util.SimpleExpression;
-import ch.njol.skript.lang.util.SimpleLiteral;
+import ch.njol.skript.lang.util.SimplifiedLiteral;
 import ch.njol.skript.util.Patterns;
 import ch.njol.util.Kleenean;
 
@@ -141,14 +139,16 @@ public class ExprArithmetic extends SimpleExpression<Number> {
 		}
 		
 		// Chaining
-		if (first instanceof ExprArithmetic && !patternInfo.leftGrouped) {
-			chain.addAll(((ExprArithmetic) first).chain);
+		ExprArithmetic firstArithmetic = getArithmetic(first);
+		if (firstArithmetic != null && !patternInfo.leftGrouped) {
+			chain.addAll(firstArithmetic.chain);
 		} else {
 			chain.add(first);
 		}
 		chain.add(op);
-		if (second instanceof ExprArithmetic && !patternInfo.rightGrouped) {
-			chain.addAll(((ExprArithmetic) second).chain);
+		ExprArithmetic secondArithmetic = getArithmetic(second);
+		if (secondArithmetic != null && !patternInfo.rightGrouped) {
+			chain.addAll(secondArithmetic.chain);
 		} else {
 			chain.add(second);
 		}
@@ -161,11 +161,42 @@ public class ExprArithmetic extends SimpleExpression<Number> {
 	@SuppressWarnings("null")
 	@Override
 	protected Number[] get(final Event e) {
-		Number[] one = (Number[]) Array.newInstance(returnType, 1);
-		
-		one[0] = arithmeticGettable.get(e, returnType == Long.class);
-		
-		return one;
+		if (returnType == Long.class)
+			return new Long[] {arithmeticGettable.getLong(e)};
+		return new Double[] {arithmeticGettable.getDouble(e)};
+	}
+	
+	/**
+	 * @return whether this expression's value is a {@link Long}, otherwise it is a {@link Double}.
+	 */
+	public boolean isInteger() {
+		return returnType == Long.class;
+	}
+	
+	/**
+	 * Calculates the value of this expression as an integer without boxing.
+	 * If this expression {@link #isInteger() isn't an integer}, the decimal value is truncated.
+	 */
+	public long getLong(final Event e) {
+		if (returnType == Long.class)
+			return arithmeticGettable.getLong(e);
+		return (long) arithmeticGettable.getDouble(e);
+	}
+	
+	/**
+	 * Calculates the value of this expression as a decimal number without boxing.
+	 */
+	public double getDouble(final Event e) {
+		if (returnType == Long.class)
+			return arithmeticGettable.getLong(e);
+		return arithmeticGettable.getDouble(e);
+	}
+	
+	/**
+	 * @return whether this expression only consists of literals, so its value has been calculated when parsing.
+	 */
+	boolean isConstant() {
+		return arithmeticGettable instanceof ArithmeticConstant;
 	}
 	
 	@Override
@@ -183,11 +214,21 @@ public class ExprArithmetic extends SimpleExpression<Number> {
 		return first.toString(e, debug) + " " + op + " " + second.toString(e, debug);
 	}
 	
-	@SuppressWarnings("null")
+	/**
+	 * @return the given expression if it is an arithmetic expression, the arithmetic expression it has been simplified from, or null.
+	 */
+	@Nullable
+	private static ExprArithmetic getArithmetic(Expression<?> expression) {
+		// Simplified arithmetic still needs its chain, as the operator precedence is only applied to the whole chain
+		if (expression instanceof SimplifiedLiteral)
+			expression = expression.getSource();
+		return expression instanceof ExprArithmetic ? (ExprArithmetic) expression : null;
+	}
+	
 	@Override
 	public Expression<? extends Number> simplify() {
-		if (first instanceof Literal && second instanceof Literal)
-			return new SimpleLiteral<>(getArray(null), Number.class, false);
+		if (isConstant())
+			return SimplifiedLiteral.of(this);
 		return this;
 	}
 	
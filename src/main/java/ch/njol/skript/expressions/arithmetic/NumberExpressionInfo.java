@@ -35,5 +35,17 @@ public class NumberExpressionInfo implements ArithmeticGettable {
 		Number number = expression.getSingle(event);
 		return number != null ? number : 0;
 	}
+
+	@Override
+	public long getLong(Event event) {
+		Number number = expression.getSingle(event);
+		return number != null ? number.longValue() : 0;
+	}
+
+	@Override
+	public double getDouble(Event event) {
+		Number number = expression.getSingle(event);
+		return number != null ? number.doubleValue() : 0;
+	}
 	
 }
@@ -139,7 +139,8 @@ public abstract class WrapperExpression<T> extends SimpleExpression<T> {
 	
 	@Override
 	public Expression<? extends T> simplify() {
-		return expr;
+		// Subclasses may behave differently from the wrapped expression, so this can't simply be unwrapped
+		return this;
 	}
 	
 	@Override
@@ -23,6 +23,7 @@ import java.util.ArrayList;
 import java.util.Collection;
 import java.util.HashSet;
 import java.util.Iterator;
+import java.util.List;
 import java.util.Set;
 
 import org.bukkit.Location;
@@ -103,6 +104,46 @@ public abstract class RegionsPlugin<P extends Plugin> extends Hook<P> {
 		return r;
 	}
 	
+	/**
+	 * Gets the regions at each of the given locations.
+	 * Hooks may override this to share work between the locations, by default each location is queried on its own.
+	 * 
+	 * @param locations The locations.
+	 * @return The regions at each location, in the order of the locations.
+	 */
+	public List<Collection<? extends Region>> getRegionsAt_i(List<Location> locations) {
+		List<Collection<? extends Region>> regions = new ArrayList<>(locations.size());
+		for (Location l : locations)
+			regions.add(getRegionsAt_i(l));
+		return regions;
+	}
+	
+	/**
+	 * Gets the regions at each of the given locations, with one query per regions plugin.
+	 * 
+	 * @param locations The locations.
+	 * @return The regions at each location, in the order of the locations.
+	 */
+	public static List<Set<Region>> getRegionsAt(final List<Location> locations) {
+		List<Set<Region>> r = new ArrayList<>(locations.size());
+		for (int i = 0; i < locations.size(); i++)
+			r.add(new HashSet<>());
+		Iterator<RegionsPlugin<?>> it = plugins.iterator();
+		while (it.hasNext()) {
+			RegionsPlugin<?> pl = it.next();
+			try {
+				List<Collection<? extends Region>> regions = pl.getRegionsAt_i(locations);
+				for (int i = 0; i < regions.size(); i++)
+					r.get(i).addAll(regions.get(i));
+			} catch (Throwable e) { // Unstable WorldGuard API
+				Skript.error(pl.getName() + " hook crashed and was removed to prevent future errors.");
+				e.printStackTrace();
+				it.remove();
+			}
+		}
+		return r;
+	}
+	
 	@Nullable
 	public abstract Region getRegion_i(World world, String name);
 	
@@ -26,6 +26,7 @@ import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.Iterator;
+import java.util.List;
 import java.util.UUID;
 
 import org.bukkit.Bukkit;
@@ -210,6 +211,34 @@ public class WorldGuardHook extends RegionsPlugin<WorldGuardPlugin> {
 		return r;
 	}
 	
+	@Override
+	public List<Collection<? extends Region>> getRegionsAt_i(List<Location> locations) {
+		List<Collection<? extends Region>> regions = new ArrayList<>(locations.size());
+		WorldGuardPlatform platform = WorldGuard.getInstance().getPlatform();
+		// Locations are usually in the same world, so only look up the region manager when the world changes
+		World lastWorld = null;
+		RegionManager manager = null;
+		for (Location l : locations) {
+			World world = l == null ? null : l.getWorld();
+			if (world == null) {
+				regions.add(Collections.emptyList());
+				continue;
+			}
+			if (world != lastWorld) {
+				lastWorld = world;
+				manager = platform.getRegionContainer().get(BukkitAdapter.adapt(world));
+			}
+			ArrayList<Region> r = new ArrayList<>();
+			ApplicableRegionSet applicable = manager == null ? null : manager.getApplicableRegions(BukkitAdapter.asBlockVector(l));
+			if (applicable != null) {
+				for (ProtectedRegion region : applicable)
+					r.add(new WorldGuardRegion(world, region));
+			}
+			regions.add(r);
+		}
+		return regions;
+	}
+	
 	@Override
 	@Nullable
 	public Region getRegion_i(final World world, final String name) {
@@ -30,20 +30,26 @@ import ch.njol.skript.registrations.EventValues;
 import ch.njol.skript.util.Getter;
 import org.bukkit.Bukkit;
 import org.bukkit.Location;
+import org.bukkit.World;
 import org.bukkit.entity.Player;
 import org.bukkit.event.Event;
 import org.bukkit.event.EventPriority;
 import org.bukkit.event.Listener;
 import org.bukkit.event.player.PlayerMoveEvent;
 import org.bukkit.event.player.PlayerPortalEvent;
+import org.bukkit.event.player.PlayerQuitEvent;
 import org.bukkit.event.player.PlayerTeleportEvent;
 import org.bukkit.plugin.EventExecutor;
 import org.eclipse.jdt.annotation.Nullable;
 
 import java.util.ArrayList;
-import java.util.Collections;
+import java.util.Arrays;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.atomic.AtomicBoolean;
 
 public class EvtRegionBorder extends SkriptEvent {
@@ -85,41 +91,136 @@ public class EvtRegionBorder extends SkriptEvent {
 				return;
 			last = event;
 
+			TriggerIndex triggers = triggerIndex;
+			if (triggers.isEmpty())
+				return;
+
 			PlayerMoveEvent moveEvent = (PlayerMoveEvent) event;
 			Location to = moveEvent.getTo();
 			Location from = moveEvent.getFrom();
 
-			if (to.equals(from))
+			// Regions consist of blocks, so players can only enter or leave them by moving to another block
+			if (PlayerRegions.isSameBlock(from, to))
 				return;
 
-			Set<? extends Region> oldRegions = RegionsPlugin.getRegionsAt(from);
-			Set<? extends Region> newRegions = RegionsPlugin.getRegionsAt(to);
+			UUID uuid = moveEvent.getPlayer().getUniqueId();
+			PlayerRegions cached = PLAYER_REGIONS.get(uuid);
+			Set<Region> oldRegions;
+			Set<Region> newRegions;
+			if (cached != null && cached.isAt(from)) {
+				oldRegions = cached.regions;
+				newRegions = RegionsPlugin.getRegionsAt(Arrays.asList(to)).get(0);
+			} else {
+				List<Set<Region>> regions = RegionsPlugin.getRegionsAt(Arrays.asList(from, to));
+				oldRegions = regions.get(0);
+				newRegions = regions.get(1);
+			}
 
 			for (Region oldRegion : oldRegions) {
 				if (!newRegions.contains(oldRegion))
-					callEvent(oldRegion, moveEvent, false);
+					callEvent(triggers, oldRegion, moveEvent, false);
 			}
 
 			for (Region newRegion : newRegions) {
 				if (!oldRegions.contains(newRegion))
-					callEvent(newRegion, moveEvent, true);
+					callEvent(triggers, newRegion, moveEvent, true);
+			}
+
+			if (moveEvent.isCancelled()) {
+				PLAYER_REGIONS.put(uuid, new PlayerRegions(from, oldRegions));
+			} else {
+				PLAYER_REGIONS.put(uuid, new PlayerRegions(to, newRegions));
 			}
 		}
 	};
 
-	private static void callEvent(Region region, PlayerMoveEvent event, boolean enter) {
+	private static void callEvent(TriggerIndex triggers, Region region, PlayerMoveEvent event, boolean enter) {
+		List<Trigger> anyRegion = enter ? triggers.enterAny : triggers.leaveAny;
+		List<Trigger> forRegion = (enter ? triggers.enter : triggers.leave).get(region);
+		if (anyRegion.isEmpty() && forRegion == null)
+			return;
+
 		RegionBorderEvent regionEvent = new RegionBorderEvent(region, event.getPlayer(), enter);
 		regionEvent.setCancelled(event.isCancelled());
-		synchronized (TRIGGERS) {
-			for (Trigger trigger : TRIGGERS) {
-				if (((EvtRegionBorder) trigger.getEvent()).applies(regionEvent))
-					trigger.execute(regionEvent);
+		execute(anyRegion, regionEvent);
+		if (forRegion != null)
+			execute(forRegion, regionEvent);
+		event.setCancelled(regionEvent.isCancelled());
+	}
+
+	private static void execute(List<Trigger> triggers, RegionBorderEvent event) {
+		for (Trigger trigger : triggers) {
+			if (((EvtRegionBorder) trigger.getEvent()).applies(event))
+				trigger.execute(event);
+		}
+	}
+
+	private static final List<Trigger> TRIGGERS = new ArrayList<>();
+
+	/**
+	 * The {@link #TRIGGERS}, indexed by their region and whether they are for entering or leaving it.
+	 * Replaced whenever the triggers change.
+	 */
+	private static volatile TriggerIndex triggerIndex = new TriggerIndex(TRIGGERS);
+
+	private static final class TriggerIndex {
+
+		private final List<Trigger> enterAny = new ArrayList<>();
+		private final List<Trigger> leaveAny = new ArrayList<>();
+		private final Map<Region, List<Trigger>> enter = new HashMap<>();
+		private final Map<Region, List<Trigger>> leave = new HashMap<>();
+
+		private TriggerIndex(List<Trigger> triggers) {
+			for (Trigger trigger : triggers) {
+				EvtRegionBorder event = (EvtRegionBorder) trigger.getEvent();
+				if (event.regions == null) {
+					(event.enter ? enterAny : leaveAny).add(trigger);
+					continue;
+				}
+				for (Region region : event.regions.getAll()) {
+					List<Trigger> regionTriggers = (event.enter ? enter : leave).computeIfAbsent(region, r -> new ArrayList<>());
+					if (!regionTriggers.contains(trigger))
+						regionTriggers.add(trigger);
+				}
 			}
 		}
-		event.setCancelled(regionEvent.isCancelled());
+
+		private boolean isEmpty() {
+			return enterAny.isEmpty() && leaveAny.isEmpty() && enter.isEmpty() && leave.isEmpty();
+		}
+
 	}
 
-	private static final List<Trigger> TRIGGERS = Collections.synchronizedList(new ArrayList<>());
+	/**
+	 * The regions each player was in after their last move, and the block they moved to.
+	 */
+	private static final Map<UUID, PlayerRegions> PLAYER_REGIONS = new ConcurrentHashMap<>();
+
+	private static final class PlayerRegions {
+
+		@Nullable
+		private final World world;
+		private final int x, y, z;
+		private final Set<Region> regions;
+
+		private PlayerRegions(Location location, Set<Region> regions) {
+			this.world = location.getWorld();
+			this.x = location.getBlockX();
+			this.y = location.getBlockY();
+			this.z = location.getBlockZ();
+			this.regions = regions;
+		}
+
+		private boolean isAt(Location location) {
+			return location.getWorld() == world && location.getBlockX() == x && location.getBlockY() == y && location.getBlockZ() == z;
+		}
+
+		private static boolean isSameBlock(Location first, Location second) {
+			return first.getWorld() == second.getWorld() && first.getBlockX() == second.getBlockX()
+				&& first.getBlockY() == second.getBlockY() && first.getBlockZ() == second.getBlockZ();
+		}
+
+	}
 
 	private static final AtomicBoolean REGISTERED_EXECUTORS = new AtomicBoolean();
 	
@@ -138,19 +239,27 @@ public class EvtRegionBorder extends SkriptEvent {
 
 	@Override
 	public boolean postLoad() {
-		TRIGGERS.add(trigger);
+		synchronized (TRIGGERS) {
+			TRIGGERS.add(trigger);
+			triggerIndex = new TriggerIndex(TRIGGERS);
+		}
 		if (REGISTERED_EXECUTORS.compareAndSet(false, true)) {
 			EventPriority priority = SkriptConfig.defaultEventPriority.value();
 			Bukkit.getPluginManager().registerEvent(PlayerMoveEvent.class, new Listener(){}, priority, EXECUTOR, Skript.getInstance(), true);
 			Bukkit.getPluginManager().registerEvent(PlayerTeleportEvent.class, new Listener(){}, priority, EXECUTOR, Skript.getInstance(), true);
 			Bukkit.getPluginManager().registerEvent(PlayerPortalEvent.class, new Listener(){}, priority, EXECUTOR, Skript.getInstance(), true);
+			Bukkit.getPluginManager().registerEvent(PlayerQuitEvent.class, new Listener(){}, EventPriority.MONITOR,
+				(listener, event) -> PLAYER_REGIONS.remove(((PlayerQuitEvent) event).getPlayer().getUniqueId()), Skript.getInstance(), false);
 		}
 		return true;
 	}
 
 	@Override
 	public void unload() {
-		TRIGGERS.remove(trigger);
+		synchronized (TRIGGERS) {
+			TRIGGERS.remove(trigger);
+			triggerIndex = new TriggerIndex(TRIGGERS);
+		}
 	}
 
 	@Override
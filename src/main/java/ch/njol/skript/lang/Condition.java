@@ -18,7 +18,7 @@
  */
 package ch.njol.skript.lang;
 
-import java.util.Iterator;
+import java.util.Collection;
 
 import org.bukkit.event.Event;
 import org.eclipse.jdt.annotation.Nullable;
@@ -74,7 +74,7 @@ public abstract class Condition extends Statement {
 		s = s.trim();
 		while (s.startsWith("(") && SkriptParser.next(s, 0, ParseContext.DEFAULT) == s.length())
 			s = s.substring(1, s.length() - 1);
-		return (Condition) SkriptParser.parse(s, (Iterator) Skript.getConditions().iterator(), defaultError);
+		return (Condition) SkriptParser.parse(s, (Collection) Skript.getConditions(), defaultError);
 	}
 	
 }
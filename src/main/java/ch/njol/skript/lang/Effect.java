@@ -18,7 +18,7 @@
  */
 package ch.njol.skript.lang;
 
-import java.util.Iterator;
+import java.util.Collection;
 
 import org.bukkit.event.Event;
 import org.eclipse.jdt.annotation.Nullable;
@@ -73,7 +73,7 @@ public abstract class Effect extends Statement {
 			}
 			log.clear();
 
-			Effect effect = (Effect) SkriptParser.parse(s, (Iterator) Skript.getEffects().iterator(), defaultError);
+			Effect effect = (Effect) SkriptParser.parse(s, (Collection) Skript.getEffects(), defaultError);
 			if (effect != null) {
 				log.printLog();
 				return effect;
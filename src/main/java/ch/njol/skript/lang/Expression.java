@@ -260,11 +260,14 @@ public interface Expression<T> extends SyntaxElement, Debuggable {
 	public Expression<?> getSource();
 	
 	/**
-	 * Simplifies the expression, e.g. if it only contains literals the expression may be simplified to a literal, and wrapped expressions are unwrapped.
+	 * Simplifies the expression, e.g. if it only contains literals the expression may be simplified to a literal.
 	 * <p>
-	 * After this method was used the toString methods are likely not useful anymore.
+	 * The parser calls this method on every expression right after it has been initialised,
+	 * and uses the returned expression in its place, so the returned expression must behave exactly like this one.
+	 * Expressions that neither depend on the event nor have side effects should return {@link ch.njol.skript.lang.util.SimplifiedLiteral#of(Expression)}
+	 * if all of their inputs are {@link ch.njol.skript.lang.util.SimplifiedLiteral#isConstant(Expression) constant}, so they are only evaluated once.
 	 * <p>
-	 * This method is not yet used but will be used to improve efficiency in the future.
+	 * After this method was used the toString methods are likely not useful anymore.
 	 * 
 	 * @return A reference to a simpler version of this expression. Can change this expression directly and return itself if applicable, i.e. no references to the expression before
 	 *         this method call should be kept!
@@ -55,14 +55,16 @@ import org.skriptlang.skript.lang.script.Script;
 import org.skriptlang.skript.lang.script.ScriptWarning;
 
 import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collection;
 import java.util.Deque;
-import java.util.HashMap;
 import java.util.Iterator;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Predicate;
 import java.util.regex.MatchResult;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
@@ -185,6 +187,54 @@ public class SkriptParser {
 		}
 	}
 	
+	/**
+	 * Parses a string as one of the given syntax elements.
+	 * <p>
+	 * This gives the same result as {@link #parse(String, Iterator, String)} with the collection's iterator,
+	 * but uses an index of the words the elements' patterns require to only try patterns that might match.
+	 * The collection must not be modified other than by adding elements.
+	 * <p>
+	 * Can print an error.
+	 */
+	@Nullable
+	public static <T extends SyntaxElement> T parse(String expr, Collection<? extends SyntaxElementInfo<T>> source, @Nullable String defaultError) {
+		return parse(expr, SyntaxElementIndex.of(source), null, defaultError);
+	}
+
+	@Nullable
+	private static <T extends SyntaxElement> T parse(String expr, SyntaxElementIndex<? extends SyntaxElementInfo<? extends T>> index,
+													 @Nullable Predicate<SyntaxElementInfo<? extends T>> filter, @Nullable String defaultError) {
+		expr = "" + expr.trim();
+		if (expr.isEmpty()) {
+			Skript.error(defaultError);
+			return null;
+		}
+		ParseLogHandler log = SkriptLogger.startParseLogHandler();
+		try {
+			T e = new SkriptParser(expr).parse(index, filter);
+			if (e != null) {
+				log.printLog();
+				return e;
+			}
+			log.printError(defaultError);
+			return null;
+		} finally {
+			log.stop();
+		}
+	}
+
+	/**
+	 * Parses a string as one of the registered expressions that may return one of the given types,
+	 * the same way {@link #parse(String, Iterator, String)} would with {@link Skript#getExpressions(Class[])}.
+	 */
+	@Nullable
+	@SuppressWarnings({"unchecked", "rawtypes"})
+	private static Expression<?> parseExpressionSyntax(String expr, Class<?>[] types) {
+		SyntaxElementIndex index = SyntaxElementIndex.of(Skript.getExpressionInfos());
+		Predicate<SyntaxElementInfo<?>> filter = info -> Skript.canReturn((ExpressionInfo<?, ?>) info, types);
+		return (Expression<?>) parse(expr, index, (Predicate) filter, null);
+	}
+
 	@Nullable
 	public static <T extends SyntaxElement> T parseStatic(String expr, Iterator<? extends SyntaxElementInfo<? extends T>> source, @Nullable String defaultError) {
 		return parseStatic(expr, source, ParseContext.DEFAULT, defaultError);
@@ -219,57 +269,12 @@ public class SkriptParser {
 		try {
 			while (source.hasNext()) {
 				SyntaxElementInfo<? extends T> info = source.next();
-				patternsLoop: for (int i = 0; i < info.patterns.length; i++) {
+				for (int i = 0; i < info.patterns.length; i++) {
 					log.clear();
-					try {
-						String pattern = info.patterns[i];
-						assert pattern != null;
-						ParseResult res;
-						try {
-							res = parse_i(pattern, 0, 0);
-						} catch (MalformedPatternException e) {
-							String message = "pattern compiling exception, element class: " + info.c.getName();
-							try {
-								JavaPlugin providingPlugin = JavaPlugin.getProvidingPlugin(info.c);
-								message += " (provided by " + providingPlugin.getName() + ")";
-							} catch (IllegalArgumentException | IllegalStateException ignored) {}
-							throw new RuntimeException(message, e);
-
-						}
-						if (res != null) {
-							int x = -1;
-							for (int j = 0; (x = nextUnescaped(pattern, '%', x + 1)) != -1; j++) {
-								int x2 = nextUnescaped(pattern, '%', x + 1);
-								if (res.exprs[j] == null) {
-									String name = pattern.substring(x + 1, x2);
-									if (!name.startsWith("-")) {
-										ExprInfo vi = getExprInfo(name);
-										DefaultExpression<?> expr = vi.classes[0].getDefaultExpression();
-										if (expr == null)
-											throw new SkriptAPIException("The class '" + vi.classes[0].getCodeName() + "' does not provide a default expression. Either allow null (with %-" + vi.classes[0].getCodeName() + "%) or make it mandatory [pattern: " + info.patterns[i] + "]");
-										if (!(expr instanceof Literal) && (vi.flagMask & PARSE_EXPRESSIONS) == 0)
-											throw new SkriptAPIException("The default expression of '" + vi.classes[0].getCodeName() + "' is not a literal. Either allow null (with %-*" + vi.classes[0].getCodeName() + "%) or make it mandatory [pattern: " + info.patterns[i] + "]");
-										if (expr instanceof Literal && (vi.flagMask & PARSE_LITERALS) == 0)
-											throw new SkriptAPIException("The default expression of '" + vi.classes[0].getCodeName() + "' is a literal. Either allow null (with %-~" + vi.classes[0].getCodeName() + "%) or make it mandatory [pattern: " + info.patterns[i] + "]");
-										if (!vi.isPlural[0] && !expr.isSingle())
-											throw new SkriptAPIException("The default expression of '" + vi.classes[0].getCodeName() + "' is not a single-element expression. Change your pattern to allow multiple elements or make the expression mandatory [pattern: " + info.patterns[i] + "]");
-										if (vi.time != 0 && !expr.setTime(vi.time))
-											throw new SkriptAPIException("The default expression of '" + vi.classes[0].getCodeName() + "' does not have distinct time states. [pattern: " + info.patterns[i] + "]");
-										if (!expr.init())
-											continue patternsLoop;
-										res.exprs[j] = expr;
-									}
-								}
-								x = x2;
-							}
-							T t = info.c.newInstance();
-							if (t.init(res.exprs, i, getParser().getHasDelayBefore(), res)) {
-								log.printLog();
-								return t;
-							}
-						}
-					} catch (final InstantiationException | IllegalAccessException e) {
-						assert false;
+					T t = parse(info, i, null);
+					if (t != null) {
+						log.printLog();
+						return t;
 					}
 				}
 			}
@@ -279,7 +284,109 @@ public class SkriptParser {
 			log.stop();
 		}
 	}
-	
+
+	/**
+	 * Does the same as {@link #parse(Iterator)} with the syntax elements of the given index,
+	 * but only tries the patterns that are {@link SyntaxElementIndex#getCandidates(String) candidates} for this parser's expression.
+	 *
+	 * @param filter which syntax elements to try, {@code null} to try all.
+	 */
+	@Nullable
+	private <T extends SyntaxElement> T parse(SyntaxElementIndex<? extends SyntaxElementInfo<? extends T>> index,
+											  @Nullable Predicate<SyntaxElementInfo<? extends T>> filter) {
+		ParseLogHandler log = SkriptLogger.startParseLogHandler();
+		try {
+			BitSet candidates = index.getCandidates(expr);
+			for (int p = candidates.nextSetBit(0); p >= 0; p = candidates.nextSetBit(p + 1)) {
+				SyntaxElementInfo<? extends T> info = index.getInfo(p);
+				if (filter != null && !filter.test(info))
+					continue;
+				log.clear();
+				T t = parse(info, index.getPatternIndex(p), index.getPattern(p));
+				if (t != null) {
+					log.printLog();
+					return t;
+				}
+			}
+			log.printError();
+			return null;
+		} finally {
+			log.stop();
+		}
+	}
+
+	/**
+	 * Tries to parse this parser's expression as the syntax element using the given pattern of it.
+	 *
+	 * @param i the index of the pattern in the syntax element's patterns.
+	 * @param compiledPattern the compiled pattern if available.
+	 * @return the initialised syntax element, or {@code null} if the pattern didn't match or the element failed to initialise.
+	 */
+	@Nullable
+	@SuppressWarnings("unchecked")
+	private <T extends SyntaxElement> T parse(SyntaxElementInfo<? extends T> info, int i, @Nullable SkriptPattern compiledPattern) {
+		try {
+			String pattern = info.patterns[i];
+			assert pattern != null;
+			ParseResult res;
+			try {
+				res = parse_i(compiledPattern != null ? compiledPattern : getCompiledPattern(pattern));
+			} catch (MalformedPatternException e) {
+				String message = "pattern compiling exception, element class: " + info.c.getName();
+				try {
+					JavaPlugin providingPlugin = JavaPlugin.getProvidingPlugin(info.c);
+					message += " (provided by " + providingPlugin.getName() + ")";
+				} catch (IllegalArgumentException | IllegalStateException ignored) {}
+				throw new RuntimeException(message, e);
+
+			}
+			if (res != null) {
+				int x = -1;
+				for (int j = 0; (x = nextUnescaped(pattern, '%', x + 1)) != -1; j++) {
+					int x2 = nextUnescaped(pattern, '%', x + 1);
+					if (res.exprs[j] == null) {
+						String name = pattern.substring(x + 1, x2);
+						if (!name.startsWith("-")) {
+							ExprInfo vi = getExprInfo(name);
+							DefaultExpression<?> expr = vi.classes[0].getDefaultExpression();
+							if (expr == null)
+								throw new SkriptAPIException("The class '" + vi.classes[0].getCodeName() + "' does not provide a default expression. Either allow null (with %-" + vi.classes[0].getCodeName() + "%) or make it mandatory [pattern: " + info.patterns[i] + "]");
+							if (!(expr instanceof Literal) && (vi.flagMask & PARSE_EXPRESSIONS) == 0)
+								throw new SkriptAPIException("The default expression of '" + vi.classes[0].getCodeName() + "' is not a literal. Either allow null (with %-*" + vi.classes[0].getCodeName() + "%) or make it mandatory [pattern: " + info.patterns[i] + "]");
+							if (expr instanceof Literal && (vi.flagMask & PARSE_LITERALS) == 0)
+								throw new SkriptAPIException("The default expression of '" + vi.classes[0].getCodeName() + "' is a literal. Either allow null (with %-~" + vi.classes[0].getCodeName() + "%) or make it mandatory [pattern: " + info.patterns[i] + "]");
+							if (!vi.isPlural[0] && !expr.isSingle())
+								throw new SkriptAPIException("The default expression of '" + vi.classes[0].getCodeName() + "' is not a single-element expression. Change your pattern to allow multiple elements or make the expression mandatory [pattern: " + info.patterns[i] + "]");
+							if (vi.time != 0 && !expr.setTime(vi.time))
+								throw new SkriptAPIException("The default expression of '" + vi.classes[0].getCodeName() + "' does not have distinct time states. [pattern: " + info.patterns[i] + "]");
+							if (!expr.init())
+								return null;
+							res.exprs[j] = expr;
+						}
+					}
+					x = x2;
+				}
+				T t = info.c.newInstance();
+				if (t.init(res.exprs, i, getParser().getHasDelayBefore(), res))
+					return t instanceof Expression ? (T) simplify((Expression<?>) t) : t;
+			}
+		} catch (final InstantiationException | IllegalAccessException e) {
+			assert false;
+		}
+		return null;
+	}
+
+	/**
+	 * Simplifies a freshly parsed expression, see {@link Expression#simplify()}.
+	 * Simplified expressions are logged when the verbosity is set to debug.
+	 */
+	private static <T> Expression<? extends T> simplify(Expression<T> expression) {
+		Expression<? extends T> simplified = expression.simplify();
+		if (simplified != expression && Skript.debug())
+			Skript.debug("Simplified " + expression.toString(null, true) + " to " + simplified.toString(null, true));
+		return simplified;
+	}
+
 	@SuppressWarnings("null")
 	private final static Pattern varPattern = Pattern.compile("((the )?var(iable)? )?\\{.+\\}", Pattern.CASE_INSENSITIVE);
 	
@@ -348,9 +455,10 @@ public class SkriptParser {
 			if ((flags & PARSE_EXPRESSIONS) != 0) {
 				final Expression<?> e;
 				if (expr.startsWith("\"") && expr.length() != 1 && nextQuote(expr, 1) == expr.length() - 1) {
-					e = VariableString.newInstance("" + expr.substring(1, expr.length() - 1));
+					VariableString string = VariableString.newInstance("" + expr.substring(1, expr.length() - 1));
+					e = string == null ? null : simplify(string);
 				} else {
-					e = (Expression<?>) parse(expr, (Iterator) Skript.getExpressions(types), null);
+					e = parseExpressionSyntax(expr, types);
 				}
 				if (e != null) { // Expression/VariableString parsing success
 					for (final Class<? extends T> t : types) {
@@ -526,9 +634,10 @@ public class SkriptParser {
 			if ((flags & PARSE_EXPRESSIONS) != 0) {
 				final Expression<?> e;
 				if (expr.startsWith("\"") && expr.length() != 1 && nextQuote(expr, 1) == expr.length() - 1) {
-					e = VariableString.newInstance("" + expr.substring(1, expr.length() - 1));
+					VariableString string = VariableString.newInstance("" + expr.substring(1, expr.length() - 1));
+					e = string == null ? null : simplify(string);
 				} else {
-					e = (Expression<?>) parse(expr, (Iterator) Skript.getExpressions(types), null);
+					e = parseExpressionSyntax(expr, types);
 				}
 				if (e != null) { // Expression/VariableString parsing success
 					Class<?> returnType = e.getReturnType(); // Sometimes getReturnType does non-trivial costly operations
@@ -1265,11 +1374,23 @@ public class SkriptParser {
 
 	private static final Map<String, SkriptPattern> patterns = new ConcurrentHashMap<>();
 
+	/**
+	 * @return the compiled form of the given pattern, which is only compiled once.
+	 * @throws MalformedPatternException if the pattern is malformed.
+	 */
+	static SkriptPattern getCompiledPattern(String pattern) throws MalformedPatternException {
+		return patterns.computeIfAbsent(pattern, PatternCompiler::compile);
+	}
+
 	@Nullable
 	private ParseResult parse_i(String pattern, int i, int j) {
 		if (i != 0 || j != 0)
 			throw new IllegalArgumentException();
-		SkriptPattern skriptPattern = patterns.computeIfAbsent(pattern, PatternCompiler::compile);
+		return parse_i(getCompiledPattern(pattern));
+	}
+
+	@Nullable
+	private ParseResult parse_i(SkriptPattern skriptPattern) {
 		ch.njol.skript.patterns.MatchResult matchResult = skriptPattern.match(expr, flags, context);
 		if (matchResult == null)
 			return null;
@@ -1388,7 +1509,7 @@ public class SkriptParser {
 		public int time = 0;
 	}
 	
-	private static final Map<String,ExprInfo> exprInfoCache = new HashMap<>();
+	private static final Map<String,ExprInfo> exprInfoCache = new ConcurrentHashMap<>();
 	
 	private static ExprInfo getExprInfo(String s) throws IllegalArgumentException, SkriptAPIException {
 		ExprInfo r = exprInfoCache.get(s);
@@ -18,7 +18,7 @@
  */
 package ch.njol.skript.lang;
 
-import java.util.Iterator;
+import java.util.Collection;
 
 import org.eclipse.jdt.annotation.Nullable;
 
@@ -57,7 +57,7 @@ public abstract class Statement extends TriggerItem implements SyntaxElement {
 			}
 			log.clear();
 
-			Statement statement = (Statement) SkriptParser.parse(s, (Iterator) Skript.getStatements().iterator(), defaultError);
+			Statement statement = (Statement) SkriptParser.parse(s, (Collection) Skript.getStatements(), defaultError);
 			if (statement != null) {
 				log.printLog();
 				return statement;
@@ -0,0 +1,186 @@
+/**
+ *   This file is part of Skript.
+ *
+ *  Skript is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  Skript is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with Skript.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * Copyright Peter Güttinger, SkriptLang team and contributors
+ */
+package ch.njol.skript.lang;
+
+import ch.njol.skript.patterns.MalformedPatternException;
+import ch.njol.skript.patterns.SkriptPattern;
+import org.eclipse.jdt.annotation.Nullable;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * An inverted index from the {@link SkriptPattern#getRequiredWords() required words} of the patterns
+ * of a collection of syntax elements to those patterns.
+ * <p>
+ * Each pattern is numbered by its position when iterating all patterns of all elements in order,
+ * so the candidates for an expression can be tried in the same order as without the index.
+ * A pattern is indexed under the one of its required words that the fewest other patterns require,
+ * the other required words are still checked when the pattern is matched.
+ * Patterns without required words are candidates for every expression.
+ */
+final class SyntaxElementIndex<I extends SyntaxElementInfo<?>> {
+
+	private static final Map<Collection<?>, SyntaxElementIndex<?>> indices = Collections.synchronizedMap(new IdentityHashMap<>());
+
+	/**
+	 * Gets the index of the given syntax elements, creating it if the elements have changed since it was last created.
+	 *
+	 * @param infos the syntax elements, which must not be modified other than by adding elements.
+	 * @return the index.
+	 */
+	@SuppressWarnings("unchecked")
+	static <I extends SyntaxElementInfo<?>> SyntaxElementIndex<I> of(Collection<I> infos) {
+		SyntaxElementIndex<I> index = (SyntaxElementIndex<I>) indices.get(infos);
+		if (index == null || index.infoCount != infos.size()) {
+			index = new SyntaxElementIndex<>(infos);
+			indices.put(infos, index);
+		}
+		return index;
+	}
+
+	private final int infoCount;
+
+	/**
+	 * The syntax element of each pattern.
+	 */
+	private final List<I> infos = new ArrayList<>();
+	/**
+	 * The index of each pattern in its syntax element's patterns.
+	 */
+	private final int[] patternIndices;
+	/**
+	 * The compiled patterns, {@code null} for patterns that could not be compiled.
+	 * These are always candidates, so that the error is reported when they are tried.
+	 */
+	private final @Nullable SkriptPattern[] patterns;
+
+	private final Map<String, BitSet> candidatesByWord = new HashMap<>();
+	private final BitSet alwaysCandidates = new BitSet();
+
+	private SyntaxElementIndex(Collection<I> infos) {
+		this.infoCount = infos.size();
+
+		List<Integer> patternIndices = new ArrayList<>();
+		for (I info : infos) {
+			for (int i = 0; i < info.patterns.length; i++) {
+				this.infos.add(info);
+				patternIndices.add(i);
+			}
+		}
+		int size = this.infos.size();
+		this.patternIndices = new int[size];
+		this.patterns = new SkriptPattern[size];
+
+		Map<String, Integer> wordCounts = new HashMap<>();
+		for (int p = 0; p < size; p++) {
+			this.patternIndices[p] = patternIndices.get(p);
+			try {
+				patterns[p] = SkriptParser.getCompiledPattern(this.infos.get(p).patterns[this.patternIndices[p]]);
+			} catch (MalformedPatternException e) {
+				continue;
+			}
+			for (String word : patterns[p].getRequiredWords())
+				wordCounts.merge(word, 1, Integer::sum);
+		}
+
+		for (int p = 0; p < size; p++) {
+			SkriptPattern pattern = patterns[p];
+			String rarest = null;
+			if (pattern != null) {
+				int rarestCount = Integer.MAX_VALUE;
+				for (String word : pattern.getRequiredWords()) {
+					int count = wordCounts.get(word);
+					if (count < rarestCount) {
+						rarest = word;
+						rarestCount = count;
+					}
+				}
+			}
+			if (rarest == null) {
+				alwaysCandidates.set(p);
+			} else {
+				candidatesByWord.computeIfAbsent(rarest, word -> new BitSet(size)).set(p);
+			}
+		}
+	}
+
+	/**
+	 * @return the amount of patterns in this index.
+	 */
+	int size() {
+		return infos.size();
+	}
+
+	/**
+	 * Gets the patterns that might match the given expression.
+	 *
+	 * @param expr the expression.
+	 * @return the numbers of the candidate patterns, which may be modified.
+	 */
+	BitSet getCandidates(String expr) {
+		BitSet candidates = (BitSet) alwaysCandidates.clone();
+		int length = expr.length();
+		int start = 0;
+		while (start < length) {
+			int end = expr.indexOf(' ', start);
+			if (end == -1)
+				end = length;
+			if (end > start) {
+				char[] word = new char[end - start];
+				for (int i = start; i < end; i++)
+					word[i - start] = Character.toLowerCase(expr.charAt(i));
+				BitSet wordCandidates = candidatesByWord.get(new String(word));
+				if (wordCandidates != null)
+					candidates.or(wordCandidates);
+			}
+			start = end + 1;
+		}
+		return candidates;
+	}
+
+	/**
+	 * @return the syntax element of the given pattern.
+	 */
+	I getInfo(int pattern) {
+		return infos.get(pattern);
+	}
+
+	/**
+	 * @return the index of the given pattern in its syntax element's patterns.
+	 */
+	int getPatternIndex(int pattern) {
+		return patternIndices[pattern];
+	}
+
+	/**
+	 * @return the compiled pattern, or {@code null} if it could not be compiled.
+	 */
+	@Nullable
+	SkriptPattern getPattern(int pattern) {
+		return patterns[pattern];
+	}
+
+}
@@ -19,6 +19,8 @@
 package ch.njol.skript.lang;
 
 import org.skriptlang.skript.lang.script.Script;
+import ch.njol.skript.lang.parser.ParserInstance;
+import ch.njol.skript.variables.LocalVariableSlots;
 import ch.njol.skript.variables.Variables;
 import org.bukkit.event.Event;
 import org.eclipse.jdt.annotation.Nullable;
@@ -34,6 +36,8 @@ public class Trigger extends TriggerSection {
 	private final Script script;
 	private int line = -1; // -1 is default: it means there is no line number available
 	private String debugLabel;
+
+	private final LocalVariableSlots localVariableSlots;
 	
 	public Trigger(@Nullable Script script, String name, SkriptEvent event, List<TriggerItem> items) {
 		super(items);
@@ -41,6 +45,7 @@ public class Trigger extends TriggerSection {
 		this.name = name;
 		this.event = event;
 		this.debugLabel = "unknown trigger";
+		this.localVariableSlots = ParserInstance.get().getLocalVariableSlots();
 	}
 
 	/**
@@ -49,24 +54,26 @@ public class Trigger extends TriggerSection {
 	 * @return false if an exception occurred.
 	 */
 	public boolean execute(Event event) {
-		boolean success = TriggerItem.walk(this, event);
-
-		// Clear local variables
-		Variables.removeLocals(event);
-		/*
-		 * Local variables can be used in delayed effects by backing reference
-		 * of VariablesMap up. Basically:
-		 *
-		 * Object localVars = Variables.removeLocals(event);
-		 *
-		 * ... and when you want to continue execution:
-		 *
-		 * Variables.setLocalVariables(event, localVars);
-		 *
-		 * See Delay effect for reference.
-		 */
-
-		return success;
+		boolean pushed = Variables.pushLocals(event, localVariableSlots);
+		try {
+			return TriggerItem.walk(this, event);
+		} finally {
+			// Clear local variables
+			if (pushed)
+				Variables.popLocals(event);
+			/*
+			 * Local variables can be used in delayed effects by backing reference
+			 * of VariablesMap up. Basically:
+			 *
+			 * Object localVars = Variables.removeLocals(event);
+			 *
+			 * ... and when you want to continue execution:
+			 *
+			 * Variables.setLocalVariables(event, localVars);
+			 *
+			 * See Delay effect for reference.
+			 */
+		}
 	}
 	
 	@Override
@@ -122,5 +129,12 @@ public class Trigger extends TriggerSection {
 	public String getDebugLabel() {
 		return debugLabel;
 	}
+
+	/**
+	 * @return The slots of the local variables of this trigger, which are used when it is {@link #execute(Event) executed}.
+	 */
+	public LocalVariableSlots getLocalVariableSlots() {
+		return localVariableSlots;
+	}
 	
 }
@@ -26,7 +26,6 @@ import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.NoSuchElementException;
-import java.util.TreeMap;
 
 import org.bukkit.Bukkit;
 import org.bukkit.World;
@@ -36,7 +35,6 @@ import org.eclipse.jdt.annotation.Nullable;
 import org.skriptlang.skript.lang.comparator.Comparators;
 import org.skriptlang.skript.lang.comparator.Relation;
 import org.skriptlang.skript.lang.converter.Converters;
-import org.skriptlang.skript.lang.script.Script;
 import org.skriptlang.skript.lang.script.ScriptWarning;
 
 import ch.njol.skript.Skript;
@@ -51,10 +49,10 @@ import ch.njol.skript.lang.SkriptParser.ParseResult;
 import ch.njol.skript.lang.parser.ParserInstance;
 import ch.njol.skript.lang.util.SimpleExpression;
 import ch.njol.skript.registrations.Classes;
-import ch.njol.skript.structures.StructVariables.DefaultVariables;
 import ch.njol.skript.util.StringMode;
 import ch.njol.skript.util.Utils;
 import ch.njol.skript.variables.TypeHints;
+import ch.njol.skript.variables.VariableKey;
 import ch.njol.skript.variables.Variables;
 import ch.njol.util.Checker;
 import ch.njol.util.Kleenean;
@@ -70,12 +68,6 @@ public class Variable<T> implements Expression<T> {
 	public final static String SEPARATOR = SINGLE_SEPARATOR_CHAR + SINGLE_SEPARATOR_CHAR;
 	public final static String LOCAL_VARIABLE_TOKEN = "_";
 
-	/**
-	 * Script this variable was created in.
-	 */
-	@Nullable
-	private final Script script;
-
 	/**
 	 * The name of this variable, excluding the local variable token, but including the list variable token '::*'.
 	 */
@@ -90,6 +82,13 @@ public class Variable<T> implements Expression<T> {
 	@Nullable
 	private final Variable<?> source;
 
+	/**
+	 * The key of this variable if its name is constant, created once when parsing.
+	 * Local variables are assigned a slot in the parser's {@link ParserInstance#getLocalVariableSlots() local variable slots}.
+	 */
+	@Nullable
+	private final VariableKey key;
+
 	@SuppressWarnings("unchecked")
 	private Variable(VariableString name, Class<? extends T>[] types, boolean local, boolean list, @Nullable Variable<?> source) {
 		assert name != null;
@@ -99,8 +98,6 @@ public class Variable<T> implements Expression<T> {
 
 		ParserInstance parser = getParser();
 
-		this.script = parser.isActive() ? parser.getCurrentScript() : null;
-
 		this.local = local;
 		this.list = list;
 
@@ -110,6 +107,14 @@ public class Variable<T> implements Expression<T> {
 		this.superType = (Class<T>) Utils.getSuperType(types);
 
 		this.source = source;
+
+		if (!name.isSimple()) {
+			this.key = null;
+		} else if (local) {
+			this.key = VariableKey.local(name.toString(null), parser.getLocalVariableSlots());
+		} else {
+			this.key = VariableKey.of(name.toString(null));
+		}
 	}
 
 	/**
@@ -306,33 +311,37 @@ public class Variable<T> implements Expression<T> {
 	 */
 	@Nullable
 	public Object getRaw(Event event) {
-		DefaultVariables data = script == null ? null : script.getData(DefaultVariables.class);
-		if (data != null)
-			data.enterScope();
-		try {
-			String name = this.name.toString(event);
-
-			// prevents e.g. {%expr%} where "%expr%" ends with "::*" from returning a Map
-			if (name.endsWith(Variable.SEPARATOR + "*") != list)
-				return null;
-			Object value = !list ? convertIfOldPlayer(name, event, Variables.getVariable(name, event, local)) : Variables.getVariable(name, event, local);
-			if (value != null)
-				return value;
-
-			// Check for default variables if value is still null.
-			if (data == null || !data.hasDefaultVariables())
-				return null;
-
-			for (String typeHint : this.name.getDefaultVariableNames(name, event)) {
-				value = Variables.getVariable(typeHint, event, false);
-				if (value != null)
-					return value;
-			}
-		} finally {
-			if (data != null)
-				data.exitScope();
-		}
-		return null;
+		VariableKey key = getKey(event);
+		String name = key.getName();
+
+		// prevents e.g. {%expr%} where "%expr%" ends with "::*" from returning a Map
+		if (name.endsWith(Variable.SEPARATOR + "*") != list)
+			return null;
+		Object value = !list ? convertIfOldPlayer(name, event, Variables.getVariable(key, event, local)) : Variables.getVariable(key, event, local);
+		if (value != null)
+			return value;
+
+		// Check for default variables if value is still null.
+		return this.name.getDefaultVariableValue(event);
+	}
+
+	/**
+	 * @return the key of this variable in the given event.
+	 */
+	private VariableKey getKey(Event event) {
+		VariableKey key = this.key;
+		return key != null ? key : VariableKey.of(name.toString(event));
+	}
+
+	/**
+	 * @return the value of the given list entry, i.e. the value of the entry's subtree if it is one.
+	 */
+	@Nullable
+	@SuppressWarnings("unchecked")
+	private static Object getEntryValue(@Nullable Object value) {
+		if (value instanceof Map)
+			return ((Map<String, ?>) value).get(null);
+		return value;
 	}
 
 	@Nullable
@@ -344,16 +353,17 @@ public class Variable<T> implements Expression<T> {
 		if (val == null)
 			return Array.newInstance(types[0], 0);
 		List<Object> l = new ArrayList<>();
-		String name = StringUtils.substring(this.name.toString(event), 0, -1);
+		String name = null;
 		for (Entry<String, ?> v : ((Map<String, ?>) val).entrySet()) {
-			if (v.getKey() != null && v.getValue() != null) {
-				Object o;
-				if (v.getValue() instanceof Map)
-					o = ((Map<String, ?>) v.getValue()).get(null);
-				else
-					o = v.getValue();
+			if (v.getKey() != null) {
+				Object o = getEntryValue(v.getValue());
+				if (o instanceof Player) {
+					if (name == null)
+						name = StringUtils.substring(getKey(event).getName(), 0, -1);
+					o = convertIfOldPlayer(name + v.getKey(), event, o);
+				}
 				if (o != null)
-					l.add(convertIfOldPlayer(name + v.getKey(), event, o));
+					l.add(o);
 			}
 		}
 		return l.toArray();
@@ -380,14 +390,14 @@ public class Variable<T> implements Expression<T> {
 	public Iterator<Pair<String, Object>> variablesIterator(Event e) {
 		if (!list)
 			throw new SkriptAPIException("Looping a non-list variable");
-		String name = StringUtils.substring(this.name.toString(e), 0, -1);
-		Object val = Variables.getVariable(name + "*", e, local);
+		VariableKey listKey = getKey(e);
+		Object val = Variables.getVariable(listKey, e, local);
 		if (val == null)
 			return new EmptyIterator<>();
-		assert val instanceof TreeMap;
-		// temporary list to prevent CMEs
+		assert val instanceof Map;
+		// visits the elements the list had when the loop started, without copying it unless it's changed while looping
 		@SuppressWarnings("unchecked")
-		Iterator<String> keys = new ArrayList<>(((Map<String, Object>) val).keySet()).iterator();
+		Iterator<Entry<String, Object>> entries = Variables.iterateList((Map<String, Object>) val);
 		return new Iterator<Pair<String, Object>>() {
 			@Nullable
 			private String key;
@@ -398,11 +408,14 @@ public class Variable<T> implements Expression<T> {
 			public boolean hasNext() {
 				if (next != null)
 					return true;
-				while (keys.hasNext()) {
-					key = keys.next();
+				while (entries.hasNext()) {
+					Entry<String, Object> entry = entries.next();
+					key = entry.getKey();
 					if (key != null) {
-						next = convertIfOldPlayer(name + key, e, Variables.getVariable(name + key, e, local));
-						if (next != null && !(next instanceof TreeMap))
+						next = getEntryValue(entry.getValue());
+						if (next instanceof Player)
+							next = convertIfOldPlayer(StringUtils.substring(listKey.getName(), 0, -1) + key, e, next);
+						if (next != null)
 							return true;
 					}
 				}
@@ -433,17 +446,15 @@ public class Variable<T> implements Expression<T> {
 			T item = getSingle(e);
 			return item != null ? new SingleItemIterator<>(item) : null;
 		}
-		String name = StringUtils.substring(this.name.toString(e), 0, -1);
-		Object val = Variables.getVariable(name + "*", e, local);
+		VariableKey listKey = getKey(e);
+		Object val = Variables.getVariable(listKey, e, local);
 		if (val == null)
 			return new EmptyIterator<>();
-		assert val instanceof TreeMap;
-		// temporary list to prevent CMEs
+		assert val instanceof Map;
+		// visits the elements the list had when the loop started, without copying it unless it's changed while looping
 		@SuppressWarnings("unchecked")
-		Iterator<String> keys = new ArrayList<>(((Map<String, Object>) val).keySet()).iterator();
+		Iterator<Entry<String, Object>> entries = Variables.iterateList((Map<String, Object>) val);
 		return new Iterator<T>() {
-			@Nullable
-			private String key;
 			@Nullable
 			private T next = null;
 
@@ -452,12 +463,14 @@ public class Variable<T> implements Expression<T> {
 			public boolean hasNext() {
 				if (next != null)
 					return true;
-				while (keys.hasNext()) {
-					key = keys.next();
+				while (entries.hasNext()) {
+					Entry<String, Object> entry = entries.next();
+					String key = entry.getKey();
 					if (key != null) {
-						next = Converters.convert(Variables.getVariable(name + key, e, local), types);
-						next = (T) convertIfOldPlayer(name + key, e, next);
-						if (next != null && !(next instanceof TreeMap))
+						next = Converters.convert(getEntryValue(entry.getValue()), types);
+						if (next instanceof Player)
+							next = (T) convertIfOldPlayer(StringUtils.substring(listKey.getName(), 0, -1) + key, e, next);
+						if (next != null)
 							return true;
 					}
 				}
@@ -494,12 +507,12 @@ public class Variable<T> implements Expression<T> {
 	}
 
 	private void set(Event e, @Nullable Object value) {
-		Variables.setVariable("" + name.toString(e), value, e, local);
+		Variables.setVariable(getKey(e), value, e, local);
 	}
 
 	private void setIndex(Event e, String index, @Nullable Object value) {
 		assert list;
-		String s = name.toString(e);
+		String s = getKey(e).getName();
 		assert s.endsWith("::*") : s + "; " + name;
 		Variables.setVariable(s.substring(0, s.length() - 1) + index, value, e, local);
 	}
@@ -22,7 +22,8 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Iterator;
 import java.util.List;
-import java.util.stream.Collectors;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
 
 import org.bukkit.ChatColor;
 import org.bukkit.event.Event;
@@ -30,16 +31,16 @@ import org.eclipse.jdt.annotation.Nullable;
 import org.jetbrains.annotations.NotNull;
 import org.skriptlang.skript.lang.script.Script;
 
-import com.google.common.collect.Lists;
-
 import ch.njol.skript.Skript;
 import ch.njol.skript.classes.Changer.ChangeMode;
 import ch.njol.skript.classes.ClassInfo;
 import ch.njol.skript.expressions.ExprColoured;
 import ch.njol.skript.lang.SkriptParser.ParseResult;
 import ch.njol.skript.lang.parser.ParserInstance;
+import ch.njol.skript.lang.util.ContextlessEvent;
 import ch.njol.skript.lang.util.ConvertedExpression;
 import ch.njol.skript.lang.util.SimpleExpression;
+import ch.njol.skript.lang.util.SimplifiedLiteral;
 import ch.njol.skript.log.BlockingLogHandler;
 import ch.njol.skript.log.RetainingLogHandler;
 import ch.njol.skript.log.SkriptLogger;
@@ -49,8 +50,11 @@ import ch.njol.skript.util.StringMode;
 import ch.njol.skript.util.Utils;
 import ch.njol.skript.util.chat.ChatMessages;
 import ch.njol.skript.util.chat.MessageComponent;
+import ch.njol.skript.variables.VariableKey;
+import ch.njol.skript.variables.Variables;
 import ch.njol.util.Checker;
 import ch.njol.util.Kleenean;
+import ch.njol.util.NonNullPair;
 import ch.njol.util.StringUtils;
 import ch.njol.util.coll.CollectionUtils;
 import ch.njol.util.coll.iterator.SingleItemIterator;
@@ -78,12 +82,42 @@ public class VariableString implements Expression<String> {
 	private final String simpleUnformatted;
 	private final StringMode mode;
 
+	/**
+	 * Whether this is a simple string that has been {@link #simplify() simplified} from a string with expressions.
+	 */
+	private final boolean simplified;
+
 	/**
 	 * Message components that this string consists of. Only simple parts have
 	 * been evaluated here.
 	 */
 	private final MessageComponent[] components;
 
+	/**
+	 * Whether each part of {@link #string} is a single expression, which can be evaluated without creating an array.
+	 */
+	private final boolean @Nullable [] singles;
+
+	/**
+	 * The length of the last string this was evaluated to, used to presize the builder of the next evaluation.
+	 */
+	private int lengthHint;
+
+	/**
+	 * The message components of a simple string, parsed when they are first needed.
+	 */
+	@Nullable
+	private List<MessageComponent> simpleComponents;
+
+	private static final DefaultVariable[] NO_DEFAULT_VARIABLES = new DefaultVariable[0];
+	private static final Pattern DEFAULT_VARIABLE_TYPE = Pattern.compile("<([^<>]+)>");
+
+	/**
+	 * The default variables of the script that this string may fall back to if it is a variable name,
+	 * in order of priority. These are determined when parsing, see {@link #findDefaultVariables(Script)}.
+	 */
+	private final DefaultVariable[] defaultVariables;
+
 	/**
 	 * Creates a new VariableString which does not contain variables.
 	 * 
@@ -97,11 +131,14 @@ public class VariableString implements Expression<String> {
 		this.orig = simple;
 		this.string = null;
 		this.mode = StringMode.MESSAGE;
+		this.simplified = false;
 		
 		ParserInstance parser = getParser();
 		this.script = parser.isActive() ? parser.getCurrentScript() : null;
 		
 		this.components = new MessageComponent[] {ChatMessages.plainText(simpleUnformatted)};
+		this.singles = null;
+		this.defaultVariables = NO_DEFAULT_VARIABLES;
 	}
 
 	/**
@@ -115,6 +152,7 @@ public class VariableString implements Expression<String> {
 		this.orig = orig;
 		this.string = new Object[string.length];
 		this.stringUnformatted = new Object[string.length];
+		this.singles = new boolean[string.length];
 
 		ParserInstance parser = getParser();
 		this.script = parser.isActive() ? parser.getCurrentScript() : null;
@@ -126,9 +164,12 @@ public class VariableString implements Expression<String> {
 			if (object instanceof String) {
 				this.string[i] = Utils.replaceChatStyles((String) object);
 				components.addAll(ChatMessages.parse((String) object));
+				lengthHint += ((String) object).length();
 			} else {
 				this.string[i] = object;
 				components.add(null); // Not known parse-time
+				singles[i] = object instanceof Expression<?> && ((Expression<?>) object).isSingle();
+				lengthHint += 16;
 			}
 
 			// For unformatted string, don't format stuff
@@ -141,6 +182,33 @@ public class VariableString implements Expression<String> {
 		this.isSimple = false;
 		this.simple = null;
 		this.simpleUnformatted = null;
+		this.simplified = false;
+
+		this.defaultVariables = script != null && mode == StringMode.VARIABLE_NAME ? findDefaultVariables(script) : NO_DEFAULT_VARIABLES;
+	}
+
+	/**
+	 * Creates a simple VariableString from a string whose expressions all have constant values, see {@link #simplify()}.
+	 *
+	 * @param orig Original string (unparsed), which is parsed again if the {@link #setMode(StringMode) mode is changed}.
+	 * @param simpleUnformatted The string with the values of the expressions in place of them.
+	 * @param simple The same string with the chat styles of the literal parts replaced.
+	 */
+	private VariableString(String orig, String simpleUnformatted, String simple, @Nullable Script script) {
+		this.isSimple = true;
+		this.simpleUnformatted = simpleUnformatted;
+		this.simple = simple;
+
+		this.orig = orig;
+		this.string = null;
+		this.mode = StringMode.MESSAGE;
+		this.simplified = true;
+
+		this.script = script;
+
+		this.components = new MessageComponent[] {ChatMessages.plainText(simpleUnformatted)};
+		this.singles = null;
+		this.defaultVariables = NO_DEFAULT_VARIABLES;
 	}
 
 	/**
@@ -398,10 +466,11 @@ public class VariableString implements Expression<String> {
 		}
 		Object[] string = this.stringUnformatted;
 		assert string != null;
-		StringBuilder b = new StringBuilder();
-		for (Object o : string) {
+		StringBuilder b = new StringBuilder(lengthHint);
+		for (int i = 0; i < string.length; i++) {
+			Object o = string[i];
 			if (o instanceof Expression<?>) {
-				b.append(Classes.toString(((Expression<?>) o).getArray(e), true, mode));
+				b.append(toString(i, e));
 			} else {
 				b.append(o);
 			}
@@ -416,10 +485,8 @@ public class VariableString implements Expression<String> {
 	 * @return Message components.
 	 */
 	public List<MessageComponent> getMessageComponents(Event e) {
-		if (isSimple) { // Trusted, constant string in a script
-			assert simpleUnformatted != null;
-			return ChatMessages.parse(simpleUnformatted);
-		}
+		if (isSimple) // Trusted, constant string in a script
+			return getSimpleComponents();
 		
 		// Parse formating
 		Object[] string = this.stringUnformatted;
@@ -446,7 +513,7 @@ public class VariableString implements Expression<String> {
 					}
 					continue;
 				} else if (o instanceof Expression<?>) {
-					text = Classes.toString(((Expression<?>) o).getArray(e), true, mode);
+					text = toString(stringPart, e);
 				}
 				
 				assert text != null;
@@ -481,13 +548,26 @@ public class VariableString implements Expression<String> {
 	 * @return Message components.
 	 */
 	public List<MessageComponent> getMessageComponentsUnsafe(Event e) {
-		if (isSimple) { // Trusted, constant string in a script
-			assert simpleUnformatted != null;
-			return ChatMessages.parse(simpleUnformatted);
-		}
+		if (isSimple) // Trusted, constant string in a script
+			return getSimpleComponents();
 		
 		return ChatMessages.parse(toUnformattedString(e));
 	}
+
+	/**
+	 * @return a copy of the message components of this simple string, which are only parsed once.
+	 */
+	private List<MessageComponent> getSimpleComponents() {
+		List<MessageComponent> components = simpleComponents;
+		if (components == null) {
+			assert simpleUnformatted != null;
+			simpleComponents = components = ChatMessages.parse(simpleUnformatted);
+		}
+		List<MessageComponent> copy = new ArrayList<>(components.size());
+		for (MessageComponent component : components)
+			copy.add(component.copy());
+		return copy;
+	}
 	
 	/**
 	 * Parses all expressions in the string and returns it in chat JSON format.
@@ -533,27 +613,32 @@ public class VariableString implements Expression<String> {
 
 		Object[] string = this.string;
 		assert string != null;
-		StringBuilder builder = new StringBuilder();
-		List<Class<?>> types = new ArrayList<>();
-		for (Object object : string) {
+		StringBuilder builder = new StringBuilder(lengthHint);
+		for (int i = 0; i < string.length; i++) {
+			Object object = string[i];
 			if (object instanceof Expression<?>) {
-				Object[] objects = ((Expression<?>) object).getArray(event);
-				if (objects != null && objects.length > 0)
-					types.add(objects[0].getClass());
-				builder.append(Classes.toString(objects, true, mode));
+				builder.append(toString(i, event));
 			} else {
 				builder.append(object);
 			}
 		}
 		String complete = builder.toString();
-		if (script != null && mode == StringMode.VARIABLE_NAME && !types.isEmpty()) {
-			DefaultVariables data = script.getData(DefaultVariables.class);
-			if (data != null)
-				data.add(complete, types.toArray(new Class<?>[0]));
-		}
+		lengthHint = complete.length();
 		return complete;
 	}
 
+	/**
+	 * Converts the values of the expression at the given index of {@link #string} to a string.
+	 * Single expressions are evaluated without creating an array.
+	 */
+	private String toString(int index, Event event) {
+		assert string != null && singles != null;
+		Expression<?> expression = (Expression<?>) string[index];
+		if (singles[index])
+			return Classes.toString(expression.getSingle(event), mode);
+		return Classes.toString(expression.getArray(event), true, mode);
+	}
+
 	/**
 	 * Use {@link #toString(Event)} to get the actual string. This method is for debugging.
 	 */
@@ -579,48 +664,168 @@ public class VariableString implements Expression<String> {
 
 	/**
 	 * Builds all possible default variable type hints based on the super type of the expression.
-	 * 
+	 *
 	 * @return List<String> of all possible super class code names.
+	 * @deprecated the variable name is no longer needed, use {@link #getDefaultVariableNames(Event)}.
 	 */
 	@NotNull
+	@Deprecated
 	public List<String> getDefaultVariableNames(String variableName, Event event) {
-		if (script == null || mode != StringMode.VARIABLE_NAME)
-			return Lists.newArrayList();
+		return getDefaultVariableNames(event);
+	}
 
-		if (isSimple) {
-			assert simple != null;
-			return Lists.newArrayList(simple, "object");
+	/**
+	 * Gets the names of the default variables of the script that apply to this variable name in the given event,
+	 * i.e. whose types are super types of the first values of this string's expressions, in order of priority.
+	 *
+	 * @return the names of the applicable default variables.
+	 */
+	@NotNull
+	public List<String> getDefaultVariableNames(Event event) {
+		List<String> names = new ArrayList<>();
+		Class<?>[] types = getDefaultVariableTypes(event);
+		if (types == null)
+			return names;
+		for (DefaultVariable defaultVariable : defaultVariables) {
+			if (defaultVariable.appliesTo(types))
+				names.add(defaultVariable.key.getName());
 		}
+		return names;
+	}
 
-		DefaultVariables data = script.getData(DefaultVariables.class);
-		// Checked in Variable#getRaw already
-		assert data != null : "default variables not present in current script";
+	/**
+	 * Gets the value of the first default variable of the script that applies to this variable name
+	 * in the given event and is set, see {@link #getDefaultVariableNames(Event)}.
+	 *
+	 * @return the value of the default variable, or {@code null} if none is set.
+	 */
+	@Nullable
+	Object getDefaultVariableValue(Event event) {
+		Class<?>[] types = getDefaultVariableTypes(event);
+		if (types == null)
+			return null;
+		for (DefaultVariable defaultVariable : defaultVariables) {
+			if (!defaultVariable.appliesTo(types))
+				continue;
+			Object value = Variables.getVariable(defaultVariable.key, event, false);
+			if (value != null)
+				return value;
+		}
+		return null;
+	}
 
-		Class<?>[] savedHints = data.get(variableName);
-		if (savedHints == null || savedHints.length == 0)
-			return Lists.newArrayList();
+	/**
+	 * @return the classes of the first values of this string's expressions,
+	 * or {@code null} if there are no default variables for this string or an expression has no values.
+	 */
+	private Class<?> @Nullable [] getDefaultVariableTypes(Event event) {
+		if (defaultVariables.length == 0)
+			return null;
+		assert string != null;
+		Class<?>[] types = new Class<?>[defaultVariables[0].types.length];
+		int index = 0;
+		for (Object object : string) {
+			if (!(object instanceof Expression<?>))
+				continue;
+			Object[] values = ((Expression<?>) object).getArray(event);
+			if (values == null || values.length == 0)
+				return null;
+			types[index++] = values[0].getClass();
+		}
+		return types;
+	}
+
+	/**
+	 * Finds the default variables of the script whose names only differ from this string
+	 * in having a type in place of each expression, e.g. {@code balance::<player>} for {@code balance::%player%}.
+	 * They are sorted by the position of their types in {@link Classes#getClassInfos()}, comparing the last expression's type first,
+	 * so that the most specific types come first.
+	 */
+	private DefaultVariable[] findDefaultVariables(Script script) {
+		DefaultVariables data = script.getData(DefaultVariables.class);
+		if (data == null || !data.hasDefaultVariables())
+			return NO_DEFAULT_VARIABLES;
 
-		List<StringBuilder> typeHints = Lists.newArrayList(new StringBuilder());
-		// Represents the index of which expression in a variable string, example name::%entity%::%object% the index of 0 will be entity.
-		int hintIndex = 0;
+		// The literal text before each expression and after the last one
+		List<String> literals = new ArrayList<>();
+		StringBuilder literal = new StringBuilder();
 		assert string != null;
 		for (Object object : string) {
-			if (!(object instanceof Expression)) {
-				typeHints.forEach(builder -> builder.append(object));
+			if (object instanceof Expression<?>) {
+				literals.add(literal.toString());
+				literal.setLength(0);
+			} else {
+				literal.append(object);
+			}
+		}
+		literals.add(literal.toString());
+		int expressions = literals.size() - 1;
+
+		List<ClassInfo<?>> classInfos = Classes.getClassInfos();
+		List<DefaultVariable> defaultVariables = new ArrayList<>();
+		variables:
+		for (NonNullPair<String, Object> variable : data.getVariables()) {
+			Matcher matcher = DEFAULT_VARIABLE_TYPE.matcher(variable.getKey());
+			Class<?>[] types = new Class<?>[expressions];
+			int[] positions = new int[expressions];
+			StringBuilder name = new StringBuilder(literals.get(0));
+			for (int i = 0; i < expressions; i++) {
+				if (!matcher.find())
+					continue variables;
+				ClassInfo<?> classInfo = Classes.getClassInfoNoError(matcher.group(1));
+				if (classInfo == null)
+					continue variables;
+				types[i] = classInfo.getC();
+				positions[i] = classInfos.indexOf(classInfo);
+				name.append('<').append(classInfo.getCodeName()).append('>').append(literals.get(i + 1));
+			}
+			if (matcher.find())
 				continue;
+			VariableKey key = VariableKey.of(name.toString());
+			if (key.getName().equals(VariableKey.of(variable.getKey()).getName()))
+				defaultVariables.add(new DefaultVariable(key, types, positions));
+		}
+		if (defaultVariables.isEmpty())
+			return NO_DEFAULT_VARIABLES;
+
+		defaultVariables.sort((first, second) -> {
+			for (int i = expressions - 1; i >= 0; i--) {
+				int compare = Integer.compare(first.positions[i], second.positions[i]);
+				if (compare != 0)
+					return compare;
 			}
-			StringBuilder[] current = typeHints.toArray(new StringBuilder[0]);
-			for (ClassInfo<?> classInfo : Classes.getAllSuperClassInfos(savedHints[hintIndex])) {
-				for (StringBuilder builder : current) {
-					String hint = builder.toString() + "<" + classInfo.getCodeName() + ">";
-					// Has to duplicate the builder as it builds multiple off the last builder.
-					typeHints.add(new StringBuilder(hint));
-					typeHints.remove(builder);
-				}
+			return 0;
+		});
+		return defaultVariables.toArray(NO_DEFAULT_VARIABLES);
+	}
+
+	/**
+	 * A default variable that a variable name may fall back to, with the type in place of each of the name's expressions.
+	 */
+	private static final class DefaultVariable {
+
+		private final VariableKey key;
+		private final Class<?>[] types;
+
+		/**
+		 * The position of each type's class info in {@link Classes#getClassInfos()}.
+		 */
+		private final int[] positions;
+
+		private DefaultVariable(VariableKey key, Class<?>[] types, int[] positions) {
+			this.key = key;
+			this.types = types;
+			this.positions = positions;
+		}
+
+		private boolean appliesTo(Class<?>[] types) {
+			for (int i = 0; i < types.length; i++) {
+				if (!this.types[i].isAssignableFrom(types[i]))
+					return false;
 			}
-			hintIndex++;
+			return true;
 		}
-		return typeHints.stream().map(StringBuilder::toString).collect(Collectors.toList());
+
 	}
 
 	public boolean isSimple() {
@@ -632,7 +837,7 @@ public class VariableString implements Expression<String> {
 	}
 
 	public VariableString setMode(StringMode mode) {
-		if (this.mode == mode || isSimple)
+		if (this.mode == mode || isSimple && !simplified)
 			return this;
 		@SuppressWarnings("resource")
 		BlockingLogHandler h = new BlockingLogHandler().start();
@@ -760,7 +965,38 @@ public class VariableString implements Expression<String> {
 	
 	@Override
 	public Expression<String> simplify() {
-		return this;
+		// Only messages are simplified, as the values of expressions are formatted differently in other modes
+		if (isSimple || mode != StringMode.MESSAGE)
+			return this;
+		Object[] string = this.string, stringUnformatted = this.stringUnformatted;
+		assert string != null && stringUnformatted != null;
+		StringBuilder simple = new StringBuilder();
+		StringBuilder simpleUnformatted = new StringBuilder();
+		Event event = ContextlessEvent.get();
+		for (int i = 0; i < string.length; i++) {
+			if (!(string[i] instanceof Expression<?>)) {
+				simple.append(string[i]);
+				simpleUnformatted.append(stringUnformatted[i]);
+				continue;
+			}
+			if (!SimplifiedLiteral.isConstant((Expression<?>) string[i]))
+				return this;
+			String value = toString(i, event);
+			// Formatting is parsed in the whole of a simple string, but never in the values of expressions,
+			// so the values must neither contain formatting nor complete the formatting around them
+			for (int c = 0; c < value.length(); c++) {
+				char character = value.charAt(c);
+				if (!Character.isLetterOrDigit(character) && character != ' ' && character != '.' && character != ',' && character != '-')
+					return this;
+			}
+			if (simpleUnformatted.length() > 0 && "&§<".indexOf(simpleUnformatted.charAt(simpleUnformatted.length() - 1)) != -1)
+				return this;
+			if (i + 1 < string.length && stringUnformatted[i + 1] instanceof String && ((String) stringUnformatted[i + 1]).startsWith(">"))
+				return this;
+			simple.append(value);
+			simpleUnformatted.append(value);
+		}
+		return new VariableString(orig, simpleUnformatted.toString(), simple.toString(), script);
 	}
 
 }
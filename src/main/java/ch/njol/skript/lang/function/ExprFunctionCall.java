@@ -58,7 +58,6 @@ public class ExprFunctionCall<T> extends SimpleExpression<T> {
 	@Nullable
 	protected T[] get(Event e) {
 		Object[] returnValue = function.execute(e);
-		function.resetReturnValue();
 		return Converters.convert(returnValue, returnTypes, returnType);
 	}
 
@@ -153,11 +153,15 @@ public abstract class Function<T> {
 
 	/**
 	 * Resets the return value of the {@code Function}.
-	 * Should be called right after execution.
 	 *
 	 * @return Whether or not the return value was successfully reset
+	 * @deprecated Skript no longer calls this after executing a function, as return values are kept per execution
+	 * by the {@link FunctionEvent}. Functions must not keep their return values in fields between executions.
 	 */
-	public abstract boolean resetReturnValue();
+	@Deprecated
+	public boolean resetReturnValue() {
+		return true;
+	}
 
 	@Override
 	public String toString() {
@@ -62,6 +62,11 @@ public class FunctionReference<T> {
 	@Nullable
 	private Function<? extends T> function;
 	
+	/**
+	 * Whether {@link #function} can be executed with {@link ScriptFunction#executeSingles(Object[], int)}.
+	 */
+	private boolean executeSingles;
+	
 	/**
 	 * If all function parameters can be condensed to a single list.
 	 */
@@ -72,6 +77,11 @@ public class FunctionReference<T> {
 	 */
 	private final Expression<?>[] parameters;
 
+	/**
+	 * The {@link ClassInfo} used to clone the values of each parameter, for the class of the last value.
+	 */
+	private final @Nullable ParameterCloner[] cloners;
+
 	/**
 	 * Indicates if the caller expects this function to return a single value.
 	 * Used for verifying correctness of the function signature.
@@ -107,6 +117,7 @@ public class FunctionReference<T> {
 		this.script = script;
 		this.returnTypes = returnTypes;
 		parameters = params;
+		cloners = new ParameterCloner[params.length];
 	}
 	
 	/**
@@ -256,6 +267,10 @@ public class FunctionReference<T> {
 		return function;
 	}
 
+	/**
+	 * @deprecated see {@link Function#resetReturnValue()}.
+	 */
+	@Deprecated
 	public boolean resetReturnValue() {
 		if (function != null)
 			return function.resetReturnValue();
@@ -266,12 +281,26 @@ public class FunctionReference<T> {
 	@Nullable
 	protected T[] execute(Event e) {
 		// If needed, acquire the function reference
-		if (function == null)
+		Function<? extends T> function = this.function;
+		if (function == null) {
 			function = (Function<? extends T>) Functions.getFunction(functionName, script);
-
-		if (function == null) { // It might be impossible to resolve functions in some cases!
-			Skript.error("Couldn't resolve call for '" + functionName + "'.");
-			return null; // Return nothing and hope it works
+			if (function == null) { // It might be impossible to resolve functions in some cases!
+				Skript.error("Couldn't resolve call for '" + functionName + "'.");
+				return null; // Return nothing and hope it works
+			}
+			executeSingles = !singleListParam && function instanceof ScriptFunction
+				&& ((ScriptFunction<?>) function).hasOnlySingleParameters();
+			this.function = function;
+		}
+		
+		if (executeSingles) { // Only one value per parameter, which doesn't need an array each
+			Object[] values = new Object[function.getParameters().length];
+			for (int i = 0; i < parameters.length; i++) {
+				Object value = parameters[i].getSingle(e);
+				// Don't allow mutating across function boundary; same hack is applied to variables
+				values[i] = value == null ? null : clone(i, value);
+			}
+			return ((ScriptFunction<? extends T>) function).executeSingles(values, parameters.length);
 		}
 		
 		// Prepare parameter values for calling
@@ -289,10 +318,10 @@ public class FunctionReference<T> {
 		} else { // Use parameters in normal way
 			for (int i = 0; i < parameters.length; i++) {
 				Object[] array = parameters[i].getArray(e);
-				params[i] = Arrays.copyOf(array, array.length);
+				params[i] = new Object[array.length];
 				// Don't allow mutating across function boundary; same hack is applied to variables
-				for (int j = 0; j < params[i].length; j++) {
-					params[i][j] = Classes.clone(params[i][j]);
+				for (int j = 0; j < array.length; j++) {
+					params[i][j] = clone(i, array[j]);
 				}
 			}
 		}
@@ -300,6 +329,33 @@ public class FunctionReference<T> {
 		// Execute the function
 		return function.execute(params);
 	}
+
+	/**
+	 * Clones a value of a parameter like {@link Classes#clone(Object)},
+	 * reusing the {@link ClassInfo} of the previous value of the parameter if it has the same class.
+	 */
+	@SuppressWarnings({"unchecked", "rawtypes"})
+	private Object clone(int parameter, Object value) {
+		Class<?> c = value.getClass();
+		if (c.isArray())
+			return Classes.clone(value);
+		ParameterCloner cloner = cloners[parameter];
+		if (cloner == null || cloner.type != c)
+			cloners[parameter] = cloner = new ParameterCloner(c, Classes.getSuperClassInfo(c));
+		return ((ClassInfo) cloner.classInfo).clone(value);
+	}
+
+	private static final class ParameterCloner {
+
+		private final Class<?> type;
+		private final ClassInfo<?> classInfo;
+
+		private ParameterCloner(Class<?> type, ClassInfo<?> classInfo) {
+			this.type = type;
+			this.classInfo = classInfo;
+		}
+
+	}
 	
 	public boolean isSingle() {
 		return single;
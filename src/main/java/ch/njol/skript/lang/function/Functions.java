@@ -25,6 +25,7 @@ import ch.njol.skript.classes.ClassInfo;
 import ch.njol.skript.config.SectionNode;
 import ch.njol.skript.lang.ParseContext;
 import ch.njol.skript.lang.SkriptParser;
+import ch.njol.skript.lang.parser.ParserInstance;
 import ch.njol.skript.log.SkriptLogger;
 import ch.njol.skript.registrations.Classes;
 import ch.njol.skript.util.Utils;
@@ -53,9 +54,44 @@ public abstract class Functions {
 
 	private Functions() {}
 
+	/**
+	 * @deprecated Not reliable when scripts are loaded in parallel, use {@link #getCurrentFunction()} instead.
+	 */
+	@Deprecated
 	@Nullable
 	public static ScriptFunction<?> currentFunction = null;
 
+	static {
+		ParserInstance.registerData(FunctionData.class, FunctionData::new);
+	}
+
+	/**
+	 * Holds the function that is being loaded by a {@link ParserInstance}.
+	 */
+	public static class FunctionData extends ParserInstance.Data {
+
+		@Nullable
+		private ScriptFunction<?> currentFunction;
+
+		public FunctionData(ParserInstance parserInstance) {
+			super(parserInstance);
+		}
+
+	}
+
+	/**
+	 * @return the function whose body is currently being loaded on this thread, or null if none is.
+	 */
+	@Nullable
+	public static ScriptFunction<?> getCurrentFunction() {
+		return ParserInstance.get().getData(FunctionData.class).currentFunction;
+	}
+
+	static void setCurrentFunction(@Nullable ScriptFunction<?> function) {
+		ParserInstance.get().getData(FunctionData.class).currentFunction = function;
+		currentFunction = function;
+	}
+
 	/**
 	 * Function namespaces.
 	 */
@@ -382,9 +418,11 @@ public abstract class Functions {
 		// Queue references to signatures we have for revalidation
 		// Can't validate here, because other scripts might be loaded soon
 		for (Signature<?> sign : namespace.getSignatures()) {
-			for (FunctionReference<?> ref : sign.calls) {
-				if (!script.equals(ref.script)) {
-					toValidate.add(ref);
+			synchronized (sign.calls) {
+				for (FunctionReference<?> ref : sign.calls) {
+					if (!script.equals(ref.script)) {
+						toValidate.add(ref);
+					}
 				}
 			}
 		}
@@ -407,9 +445,11 @@ public abstract class Functions {
 			}
 		}
 
-		for (FunctionReference<?> ref : signature.calls) {
-			if (!signature.script.equals(ref.script))
-				toValidate.add(ref);
+		synchronized (signature.calls) {
+			for (FunctionReference<?> ref : signature.calls) {
+				if (!signature.script.equals(ref.script))
+					toValidate.add(ref);
+			}
 		}
 	}
 
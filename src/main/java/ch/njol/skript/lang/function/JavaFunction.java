@@ -94,9 +94,4 @@ public abstract class JavaFunction<T> extends Function<T> {
 		return since;
 	}
 
-	@Override
-	public boolean resetReturnValue() {
-		return true;
-	}
-
 }
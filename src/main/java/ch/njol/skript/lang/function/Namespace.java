@@ -21,6 +21,7 @@ package ch.njol.skript.lang.function;
 import java.util.Collection;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.Objects;
 
 import org.eclipse.jdt.annotation.Nullable;
@@ -154,7 +155,7 @@ public class Namespace {
 
 	public Namespace() {
 		this.signatures = new HashMap<>();
-		this.functions = new HashMap<>();
+		this.functions = new ConcurrentHashMap<>();
 	}
 	
 	@Nullable
@@ -19,13 +19,16 @@
 package ch.njol.skript.lang.function;
 
 import org.skriptlang.skript.lang.script.Script;
+import org.bukkit.Bukkit;
 import org.eclipse.jdt.annotation.Nullable;
 
 import ch.njol.skript.ScriptLoader;
 import ch.njol.skript.config.SectionNode;
 import ch.njol.skript.effects.EffReturn;
+import ch.njol.skript.lang.Expression;
 import ch.njol.skript.lang.Trigger;
 import ch.njol.skript.lang.util.SimpleEvent;
+import ch.njol.skript.variables.VariableKey;
 import ch.njol.skript.variables.Variables;
 
 /**
@@ -34,11 +37,16 @@ import ch.njol.skript.variables.Variables;
 public class ScriptFunction<T> extends Function<T> {
 	
 	private final Trigger trigger;
+
+	/**
+	 * The keys of the local variables of the parameters, or {@code null} for parameters that aren't single.
+	 */
+	private final VariableKey[] parameterKeys;
 	
 	public ScriptFunction(Signature<T> sign, Script script, SectionNode node) {
 		super(sign);
 		
-		Functions.currentFunction = this;
+		Functions.setCurrentFunction(this);
 		try {
 			trigger = new Trigger(
 				script,
@@ -48,21 +56,24 @@ public class ScriptFunction<T> extends Function<T> {
 			);
 			trigger.setLineNumber(node.getLine());
 		} finally {
-			Functions.currentFunction = null;
+			Functions.setCurrentFunction(null);
+		}
+
+		Parameter<?>[] parameters = sign.getParameters();
+		parameterKeys = new VariableKey[parameters.length];
+		for (int i = 0; i < parameters.length; i++) {
+			if (parameters[i].single)
+				parameterKeys[i] = VariableKey.local(parameters[i].name, trigger.getLocalVariableSlots());
 		}
 	}
 	
-	private boolean returnValueSet = false;
-	@Nullable
-	private T[] returnValue = null;
-	
 	/**
+	 * Sets the return value of the given execution of this function.
 	 * Should only be called by {@link EffReturn}.
 	 */
-	public final void setReturnValue(final @Nullable T[] value) {
-		assert !returnValueSet;
-		returnValueSet = true;
-		returnValue = value;
+	public final void setReturnValue(FunctionEvent<?> event, @Nullable T[] value) {
+		assert event.getFunction() == this : event;
+		event.setReturnValue(value);
 	}
 	
 	// REMIND track possible types of local variables (including undefined variables) (consider functions, commands, and EffChange) - maybe make a general interface for this purpose
@@ -70,28 +81,91 @@ public class ScriptFunction<T> extends Function<T> {
 	@Override
 	@Nullable
 	public T[] execute(final FunctionEvent<?> e, final Object[][] params) {
-		Parameter<?>[] parameters = getSignature().getParameters();
-		for (int i = 0; i < parameters.length; i++) {
-			Parameter<?> p = parameters[i];
-			Object[] val = params[i];
-			if (p.single && val.length > 0) {
-				Variables.setVariable(p.name, val[0], e, true);
-			} else {
-				for (int j = 0; j < val.length; j++) {
-					Variables.setVariable(p.name + "::" + (j + 1), val[j], e, true);
+		// Set the parameters in the frame the trigger will be executed in
+		boolean pushed = Variables.pushLocals(e, trigger.getLocalVariableSlots());
+		try {
+			Parameter<?>[] parameters = getSignature().getParameters();
+			for (int i = 0; i < parameters.length; i++) {
+				Parameter<?> p = parameters[i];
+				Object[] val = params[i];
+				if (p.single && val.length > 0) {
+					Variables.setVariable(parameterKeys[i], val[0], e, true);
+				} else {
+					for (int j = 0; j < val.length; j++) {
+						Variables.setVariable(p.name + "::" + (j + 1), val[j], e, true);
+					}
 				}
 			}
+
+			trigger.execute(e);
+		} finally {
+			if (pushed)
+				Variables.popLocals(e);
 		}
-		
-		trigger.execute(e);
-		return returnValue;
+		return getReturnValue(e);
 	}
 
-	@Override
-	public boolean resetReturnValue() {
-		returnValue = null;
-		returnValueSet = false;
+	/**
+	 * Executes this function with one value for each of its parameters, which must all be single.
+	 * This works like {@link #execute(Object[][])}, but doesn't need an array for each parameter.
+	 *
+	 * @param values The values of the parameters. Values of parameters that are not {@code given} are replaced by
+	 * their default values, missing values of given parameters are {@code null}.
+	 * @param given The amount of parameters that were given.
+	 * @return The result(s) of this function
+	 */
+	@Nullable
+	final T[] executeSingles(Object[] values, int given) {
+		FunctionEvent<T> e = new FunctionEvent<>(this);
+		if (Functions.callFunctionEvents)
+			Bukkit.getPluginManager().callEvent(e);
+
+		Parameter<?>[] parameters = getSignature().getParameters();
+		assert values.length == parameters.length && values.length == parameterKeys.length;
+		for (int i = given; i < parameters.length; i++) {
+			Expression<?> def = parameters[i].def;
+			assert def != null; // Should've been parse error
+			values[i] = def.getSingle(e);
+		}
+		if (!executeWithNulls) {
+			for (Object value : values) {
+				if (value == null)
+					return null;
+			}
+		}
+
+		boolean pushed = Variables.pushLocals(e, trigger.getLocalVariableSlots());
+		try {
+			for (int i = 0; i < values.length; i++) {
+				if (values[i] != null)
+					Variables.setVariable(parameterKeys[i], values[i], e, true);
+			}
+
+			trigger.execute(e);
+		} finally {
+			if (pushed)
+				Variables.popLocals(e);
+		}
+
+		T[] r = getReturnValue(e);
+		return r == null || r.length > 0 ? r : null;
+	}
+
+	/**
+	 * @return Whether all parameters of this function are single, so it can be executed with {@link #executeSingles(Object[], int)}.
+	 */
+	final boolean hasOnlySingleParameters() {
+		for (VariableKey key : parameterKeys) {
+			if (key == null)
+				return false;
+		}
 		return true;
 	}
 
+	@SuppressWarnings("unchecked")
+	@Nullable
+	private T[] getReturnValue(FunctionEvent<?> e) {
+		return (T[]) e.getReturnValue();
+	}
+
 }
@@ -0,0 +1,116 @@
+/**
+ *   This file is part of Skript.
+ *
+ *  Skript is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  Skript is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with Skript.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * Copyright Peter Güttinger, SkriptLang team and contributors
+ */
+package ch.njol.skript.lang.parser;
+
+import ch.njol.skript.lang.ParseContext;
+import ch.njol.skript.log.LogEntry;
+import ch.njol.skript.log.SkriptLogger;
+import org.eclipse.jdt.annotation.Nullable;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Remembers which sub-expressions of the line being parsed failed to parse as which types,
+ * so that other patterns containing the same sub-expression don't have to parse it again.
+ * Together with the failure, the error that was logged for it is remembered and logged again.
+ * <p>
+ * Only failures are remembered, as successfully parsed expressions may be modified by the elements using them.
+ *
+ * @see ParserInstance#getParseMemo()
+ */
+public final class ParseMemo {
+
+	private final Map<Key, Failure> failures = new HashMap<>();
+
+	ParseMemo() {}
+
+	/**
+	 * Logs the error of the given sub-expression if it failed to parse before.
+	 *
+	 * @param expr The sub-expression.
+	 * @param type The type the sub-expression is parsed as, including anything else that affects parsing it.
+	 * @param flags The parse flags.
+	 * @param context The parse context.
+	 * @return Whether the sub-expression failed to parse before.
+	 */
+	public boolean replayFailure(String expr, Object type, int flags, ParseContext context) {
+		Failure failure = failures.get(new Key(expr, type, flags, context));
+		if (failure == null)
+			return false;
+		LogEntry error = failure.error;
+		if (error != null)
+			SkriptLogger.log(new LogEntry(error.getLevel(), error.getQuality(), error.getMessage(), error.node));
+		return true;
+	}
+
+	/**
+	 * Remembers that the given sub-expression failed to parse.
+	 *
+	 * @param error The error that was logged for the failure, if any.
+	 * @see #replayFailure(String, Object, int, ParseContext)
+	 */
+	public void addFailure(String expr, Object type, int flags, ParseContext context, @Nullable LogEntry error) {
+		failures.put(new Key(expr, type, flags, context), new Failure(error));
+	}
+
+	private static final class Key {
+
+		private final String expr;
+		private final Object type;
+		private final int flags;
+		private final ParseContext context;
+
+		private Key(String expr, Object type, int flags, ParseContext context) {
+			this.expr = expr;
+			this.type = type;
+			this.flags = flags;
+			this.context = context;
+		}
+
+		@Override
+		public boolean equals(Object o) {
+			if (this == o)
+				return true;
+			if (!(o instanceof Key))
+				return false;
+			Key key = (Key) o;
+			return flags == key.flags && context == key.context && expr.equals(key.expr) && type.equals(key.type);
+		}
+
+		@Override
+		public int hashCode() {
+			return Objects.hash(expr, type, flags, context);
+		}
+
+	}
+
+	private static final class Failure {
+
+		@Nullable
+		private final LogEntry error;
+
+		private Failure(@Nullable LogEntry error) {
+			this.error = error;
+		}
+
+	}
+
+}
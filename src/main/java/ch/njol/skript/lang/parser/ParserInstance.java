@@ -24,10 +24,12 @@ import ch.njol.skript.config.Config;
 import ch.njol.skript.config.Node;
 import ch.njol.skript.lang.Expression;
 import ch.njol.skript.lang.SkriptEvent;
+import ch.njol.skript.lang.SectionSkriptEvent;
 import ch.njol.skript.lang.SkriptParser;
 import ch.njol.skript.lang.TriggerSection;
 import ch.njol.skript.log.HandlerList;
 import ch.njol.skript.structures.StructOptions.OptionsData;
+import ch.njol.skript.variables.LocalVariableSlots;
 import ch.njol.util.Kleenean;
 import ch.njol.util.coll.CollectionUtils;
 import org.bukkit.event.Event;
@@ -42,6 +44,7 @@ import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.function.Function;
 
 public final class ParserInstance {
@@ -141,6 +144,12 @@ public final class ParserInstance {
 	 */
 	public void setCurrentStructure(@Nullable Structure structure) {
 		currentStructure = structure;
+		parseMemo = null;
+		// Sections and conditions change the structure temporarily while their trigger is still being loaded
+		if (structure != null && structure != localVariableSlotsOwner && !(structure instanceof SectionSkriptEvent)) {
+			localVariableSlots = new LocalVariableSlots();
+			localVariableSlotsOwner = structure;
+		}
 	}
 
 	/**
@@ -170,6 +179,21 @@ public final class ParserInstance {
 		return false;
 	}
 
+	// Local variables API
+
+	private LocalVariableSlots localVariableSlots = new LocalVariableSlots();
+
+	@Nullable
+	private Structure localVariableSlotsOwner;
+
+	/**
+	 * @return The slots of the local variables of the Structure currently being handled by this ParserInstance.
+	 * Local variables with constant names are assigned slots in it when they are parsed.
+	 */
+	public LocalVariableSlots getLocalVariableSlots() {
+		return localVariableSlots;
+	}
+
 	// Event API
 
 	@Nullable
@@ -192,6 +216,7 @@ public final class ParserInstance {
 	 */
 	public void setCurrentEvents(Class<? extends Event> @Nullable [] currentEvents) {
 		this.currentEvents = currentEvents;
+		parseMemo = null;
 		getDataInstances().forEach(data -> data.onCurrentEventsChange(currentEvents));
 	}
 
@@ -265,6 +290,7 @@ public final class ParserInstance {
 	 */
 	public void setCurrentSections(List<TriggerSection> currentSections) {
 		this.currentSections = currentSections;
+		parseMemo = null;
 	}
 
 	/**
@@ -343,6 +369,7 @@ public final class ParserInstance {
 	 */
 	public void setHasDelayBefore(Kleenean hasDelayBefore) {
 		this.hasDelayBefore = hasDelayBefore;
+		parseMemo = null;
 	}
 
 	/**
@@ -378,6 +405,7 @@ public final class ParserInstance {
 	 */
 	public void setNode(@Nullable Node node) {
 		this.node = (node == null || node.getParent() == null) ? null : node;
+		parseMemo = null;
 	}
 
 	/**
@@ -389,6 +417,26 @@ public final class ParserInstance {
 		return node;
 	}
 
+	// Parse memo API
+
+	@Nullable
+	private ParseMemo parseMemo;
+
+	/**
+	 * Gets the memo of the sub-expressions that failed to parse while parsing the current node.
+	 * The memo is discarded whenever the node or any other state that may affect parsing changes.
+	 * @return The memo, or null if there is no current node.
+	 */
+	@Nullable
+	public ParseMemo getParseMemo() {
+		if (node == null)
+			return null;
+		ParseMemo parseMemo = this.parseMemo;
+		if (parseMemo == null)
+			this.parseMemo = parseMemo = new ParseMemo();
+		return parseMemo;
+	}
+
 	private String indentation = "";
 
 	public void setIndentation(String indentation) {
@@ -430,7 +478,7 @@ public final class ParserInstance {
 		
 	}
 	
-	private static final Map<Class<? extends Data>, Function<ParserInstance, ? extends Data>> dataRegister = new HashMap<>();
+	private static final Map<Class<? extends Data>, Function<ParserInstance, ? extends Data>> dataRegister = new ConcurrentHashMap<>();
 	// Should be Map<Class<? extends Data>, ? extends Data>, but that caused issues (with generics) in #getData(Class)
 	private final Map<Class<? extends Data>, Data> dataMap = new HashMap<>();
 	
@@ -30,6 +30,7 @@ import ch.njol.skript.classes.ClassInfo;
 import org.skriptlang.skript.lang.converter.Converter;
 import org.skriptlang.skript.lang.converter.ConverterInfo;
 import ch.njol.skript.lang.Expression;
+import ch.njol.skript.lang.Literal;
 import ch.njol.skript.lang.SkriptParser.ParseResult;
 import ch.njol.skript.registrations.Classes;
 import org.skriptlang.skript.lang.converter.Converters;
@@ -260,9 +261,13 @@ public class ConvertedExpression<F, T> implements Expression<T> {
 	@SuppressWarnings("unchecked")
 	@Override
 	public Expression<? extends T> simplify() {
-		final Expression<? extends T> c = source.simplify().getConvertedExpression(to);
-		if (c != null)
-			return c;
+		// Only literals can be converted without side effects
+		final Expression<?> source = this.source.simplify();
+		if (source instanceof Literal) {
+			final Expression<? extends T> c = source.getConvertedExpression(to);
+			if (c != null)
+				return c;
+		}
 		return this;
 	}
 	
@@ -56,7 +56,11 @@ public abstract class SimpleExpression<T> implements Expression<T> {
 	@Override
 	@Nullable
 	public final T getSingle(final Event e) {
-		final T[] all = getArray(e);
+		final T[] values = get(e);
+		// Most single expressions return exactly one value, which doesn't need to be copied into a new array
+		if (values != null && values.length == 1 && values[0] != null)
+			return values[0];
+		final T[] all = getArray(values);
 		if (all.length == 0)
 			return null;
 		if (all.length > 1)
@@ -98,7 +102,15 @@ public abstract class SimpleExpression<T> implements Expression<T> {
 	@SuppressWarnings("unchecked")
 	@Override
 	public final T[] getArray(final Event e) {
-		final T[] all = get(e);
+		return getArray(get(e));
+	}
+
+	/**
+	 * Removes null elements from the given values returned by {@link #get(Event)},
+	 * and picks one of them at random if this is an 'or' list.
+	 */
+	@SuppressWarnings("unchecked")
+	private T[] getArray(final @Nullable T[] all) {
 		if (all == null) {
 			final T[] r = (T[]) Array.newInstance(getReturnType(), 0);
 			assert r != null;
@@ -0,0 +1,100 @@
+/**
+ *   This file is part of Skript.
+ *
+ *  Skript is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  Skript is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with Skript.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * Copyright Peter Güttinger, SkriptLang team and contributors
+ */
+package ch.njol.skript.lang.util;
+
+import org.bukkit.event.Event;
+import org.eclipse.jdt.annotation.Nullable;
+
+import ch.njol.skript.lang.Expression;
+import ch.njol.skript.lang.ExpressionList;
+import ch.njol.skript.lang.Literal;
+import ch.njol.skript.lang.UnparsedLiteral;
+import ch.njol.skript.lang.VariableString;
+
+/**
+ * A literal that an expression has been {@link Expression#simplify() simplified} to, because its value is always the same.
+ * The expression is kept as the {@link #getSource() source} of the literal, which is also used for {@link #toString(Event, boolean)}.
+ */
+public class SimplifiedLiteral<T> extends SimpleLiteral<T> {
+	
+	private final Expression<T> source;
+	
+	private SimplifiedLiteral(T[] data, Class<T> c, boolean and, Expression<T> source) {
+		super(data, c, and);
+		this.source = source;
+	}
+	
+	/**
+	 * Evaluates the given expression once and creates a literal of its values.
+	 * The expression must not depend on the event or have side effects, and its {@link #isConstant(Expression) inputs must be constant}.
+	 * 
+	 * @param expression the expression to simplify.
+	 * @return a literal of the values of the expression,
+	 * or the expression itself if it doesn't have any values or failed to evaluate, so that the error happens when it is used.
+	 */
+	@SuppressWarnings("unchecked")
+	public static <T> Expression<T> of(Expression<T> expression) {
+		T[] values;
+		try {
+			values = expression.getAll(ContextlessEvent.get());
+		} catch (RuntimeException e) {
+			return expression;
+		}
+		if (values.length == 0)
+			return expression;
+		return new SimplifiedLiteral<>(values, (Class<T>) expression.getReturnType(), expression.getAnd(), expression);
+	}
+	
+	/**
+	 * Checks whether the given expression always has the same values,
+	 * i.e. it is a literal, a {@link VariableString#isSimple() simple} string or a list of these.
+	 * Lists that pick one of their values at random are not constant.
+	 */
+	public static boolean isConstant(Expression<?> expression) {
+		if (expression instanceof UnparsedLiteral)
+			return false;
+		if (expression instanceof Literal)
+			return expression.getAnd() || ((Literal<?>) expression).getAll().length == 1;
+		if (expression instanceof VariableString)
+			return ((VariableString) expression).isSimple();
+		if (expression instanceof ExpressionList) {
+			if (!expression.getAnd())
+				return false;
+			for (Expression<?> child : ((ExpressionList<?>) expression).getExpressions()) {
+				if (!isConstant(child))
+					return false;
+			}
+			return true;
+		}
+		return false;
+	}
+	
+	@Override
+	public Expression<T> getSource() {
+		return source;
+	}
+	
+	@Override
+	public String toString(@Nullable Event event, boolean debug) {
+		if (debug)
+			return super.toString(event, true);
+		return source.toString(event, false);
+	}
+	
+}
@@ -33,11 +33,13 @@ public class SkriptPattern {
 	private final int expressionAmount;
 
 	private final String[] keywords;
+	private final String[] requiredWords;
 
 	public SkriptPattern(PatternElement first, int expressionAmount) {
 		this.first = first;
 		this.expressionAmount = expressionAmount;
 		keywords = getKeywords(first);
+		requiredWords = getRequiredWords(first);
 	}
 
 	@Nullable
@@ -86,6 +88,70 @@ public class SkriptPattern {
 		return keywords.toArray(new String[0]);
 	}
 
+	/**
+	 * Gets the words that any expression this pattern matches contains,
+	 * see {@link #getRequiredWords(PatternElement)}.
+	 * <p>
+	 * <b>Do not modify the returned array!</b>
+	 *
+	 * @return the lowercase words required by this pattern.
+	 */
+	public String[] getRequiredWords() {
+		return requiredWords;
+	}
+
+	/**
+	 * Gets the words of the mandatory literals of the given pattern that are
+	 * separated from the rest of the pattern by spaces or the start or end of the pattern.
+	 * Any expression the pattern matches contains each of these words,
+	 * surrounded by spaces or the start or end of the expression.
+	 * <p>
+	 * Only words made up of ASCII characters are included,
+	 * so that they compare equal to the {@link Character#toLowerCase(char) lowercase}
+	 * characters of an expression the same way {@link LiteralPatternElement} does.
+	 *
+	 * @param first the first element of the pattern.
+	 * @return the lowercase words required by the pattern.
+	 */
+	public static String[] getRequiredWords(PatternElement first) {
+		List<String> words = new ArrayList<>();
+		boolean atStart = true;
+		PatternElement next = first;
+		while (next != null) {
+			if (next instanceof GroupPatternElement) {
+				next = ((GroupPatternElement) next).getPatternElement();
+				continue;
+			}
+			if (next instanceof LiteralPatternElement) {
+				String literal = next.toString();
+				int start = 0;
+				while (start < literal.length()) {
+					int end = literal.indexOf(' ', start);
+					if (end == -1)
+						end = literal.length();
+					// A word at the start or end of the literal might be joined with whatever the pattern matches next to it
+					if (end > start && (start > 0 || atStart) && (end < literal.length() || next.next == null)) {
+						String word = literal.substring(start, end);
+						if (isAscii(word))
+							words.add(word);
+					}
+					start = end + 1;
+				}
+			}
+			atStart = false;
+			next = next.next;
+		}
+		return words.toArray(new String[0]);
+	}
+
+	private static boolean isAscii(String string) {
+		for (int i = 0; i < string.length(); i++) {
+			if (string.charAt(i) > 127)
+				return false;
+		}
+		return true;
+	}
+
 	/**
 	 * @return the size of the {@link MatchResult#expressions} array
 	 * from a match.
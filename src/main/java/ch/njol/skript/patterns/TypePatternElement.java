@@ -24,6 +24,7 @@ import ch.njol.skript.lang.Expression;
 import ch.njol.skript.lang.Literal;
 import ch.njol.skript.lang.SkriptParser;
 import ch.njol.skript.lang.SkriptParser.ExprInfo;
+import ch.njol.skript.lang.parser.ParseMemo;
 import ch.njol.skript.lang.parser.ParserInstance;
 import ch.njol.skript.log.ErrorQuality;
 import ch.njol.skript.log.ParseLogHandler;
@@ -47,6 +48,11 @@ public class TypePatternElement extends PatternElement {
 
 	private final int expressionIndex;
 
+	/**
+	 * Identifies what this element parses in the {@link ParseMemo}.
+	 */
+	private final String memoType;
+
 	public TypePatternElement(ClassInfo<?>[] classes, boolean[] isPlural, boolean isNullable, int flagMask, int time, int expressionIndex) {
 		this.classes = classes;
 		this.isPlural = isPlural;
@@ -54,6 +60,7 @@ public class TypePatternElement extends PatternElement {
 		this.flagMask = flagMask;
 		this.time = time;
 		this.expressionIndex = expressionIndex;
+		this.memoType = toString();
 	}
 
 	public static TypePatternElement fromString(String s, int expressionIndex) {
@@ -137,6 +144,7 @@ public class TypePatternElement extends PatternElement {
 			return null;
 
 		ExprInfo exprInfo = getExprInfo();
+		ParserInstance parser = ParserInstance.get();
 
 		ParseLogHandler loopLogHandler = SkriptLogger.startParseLogHandler();
 		try {
@@ -148,16 +156,22 @@ public class TypePatternElement extends PatternElement {
 
 				MatchResult newMatchResult = matchNext(expr, matchResultCopy);
 
-				if (newMatchResult != null) {
+				String subExpr = newMatchResult == null ? null : expr.substring(matchResult.exprOffset, newExprOffset);
+				int flags = matchResult.flags & flagMask;
+				ParseMemo memo = parser.getParseMemo(); // Parsing the previous sub-expression may have changed it
+				if (subExpr != null && (memo == null || !memo.replayFailure(subExpr, memoType, flags, matchResult.parseContext))) {
 					ParseLogHandler expressionLogHandler = SkriptLogger.startParseLogHandler();
 					try {
-						Expression<?> expression = new SkriptParser(expr.substring(matchResult.exprOffset, newExprOffset), matchResult.flags & flagMask, matchResult.parseContext).parseExpression(exprInfo);
-						if (expression != null) {
+						Expression<?> expression = new SkriptParser(subExpr, flags, matchResult.parseContext).parseExpression(exprInfo);
+						if (expression == null) {
+							if (memo != null)
+								memo.addFailure(subExpr, memoType, flags, matchResult.parseContext, expressionLogHandler.getError());
+						} else {
 							if (time != 0) {
 								if (expression instanceof Literal)
 									return null;
 
-								if (ParserInstance.get().getHasDelayBefore() == Kleenean.TRUE) {
+								if (parser.getHasDelayBefore() == Kleenean.TRUE) {
 									Skript.error("Cannot use time states after the event has already passed", ErrorQuality.SEMANTIC_ERROR);
 									return null;
 								}
@@ -78,11 +78,70 @@ public abstract class Classes {
 	private Classes() {}
 	
 	@Nullable
-	private static ClassInfo<?>[] classInfos = null;
+	private static volatile ClassInfo<?>[] classInfos = null;
 	private final static List<ClassInfo<?>> tempClassInfos = new ArrayList<>();
 	private final static HashMap<Class<?>, ClassInfo<?>> exactClassInfos = new HashMap<>();
-	private final static HashMap<Class<?>, ClassInfo<?>> superClassInfos = new HashMap<>();
 	private final static HashMap<String, ClassInfo<?>> classInfosByCodeName = new HashMap<>();
+
+	/*
+	 * The class infos of each class, which are computed when first requested once all class infos are registered and sorted.
+	 * Unlike maps, these can be read from any thread without locking and don't need to hash the class.
+	 */
+
+	private final static ClassValue<ClassInfo<?>> exactClassInfoCache = new ClassValue<ClassInfo<?>>() {
+		@Override
+		@Nullable
+		protected ClassInfo<?> computeValue(Class<?> c) {
+			return exactClassInfos.get(c);
+		}
+	};
+
+	private final static ClassValue<ClassInfo<?>> superClassInfoCache = new ClassValue<ClassInfo<?>>() {
+		@Override
+		@Nullable
+		protected ClassInfo<?> computeValue(Class<?> c) {
+			for (ClassInfo<?> ci : getClassInfos()) {
+				if (ci.getC().isAssignableFrom(c))
+					return ci;
+			}
+			return null;
+		}
+	};
+
+	private final static ClassValue<List<ClassInfo<?>>> allSuperClassInfoCache = new ClassValue<List<ClassInfo<?>>>() {
+		@Override
+		protected List<ClassInfo<?>> computeValue(Class<?> c) {
+			List<ClassInfo<?>> list = new ArrayList<>();
+			for (ClassInfo<?> ci : getClassInfos()) {
+				if (ci.getC().isAssignableFrom(c))
+					list.add(ci);
+			}
+			return Collections.unmodifiableList(list);
+		}
+	};
+
+	/**
+	 * The first class info that can {@link #toString(Object) convert} instances of a class to a string, i.e. has a parser.
+	 */
+	private final static ClassValue<ClassInfo<?>> parserClassInfoCache = new ClassValue<ClassInfo<?>>() {
+		@Override
+		@Nullable
+		protected ClassInfo<?> computeValue(Class<?> c) {
+			for (ClassInfo<?> ci : getClassInfos()) {
+				if (ci.getParser() != null && ci.getC().isAssignableFrom(c))
+					return ci;
+			}
+			return null;
+		}
+	};
+
+	/**
+	 * @return whether the class infos have been sorted, after which no more class infos can be registered
+	 * and the class infos of classes can be cached.
+	 */
+	private static boolean isSorted() {
+		return classInfos != null;
+	}
 	
 	/**
 	 * @param info info about the class to register
@@ -292,6 +351,10 @@ public abstract class Classes {
 	@SuppressWarnings("unchecked")
 	@Nullable
 	public static <T> ClassInfo<T> getExactClassInfo(final @Nullable Class<T> c) {
+		if (c == null)
+			return null;
+		if (isSorted())
+			return (ClassInfo<T>) exactClassInfoCache.get(c);
 		return (ClassInfo<T>) exactClassInfos.get(c);
 	}
 	
@@ -305,37 +368,24 @@ public abstract class Classes {
 	public static <T> ClassInfo<? super T> getSuperClassInfo(final Class<T> c) {
 		assert c != null;
 		checkAllowClassInfoInteraction();
-		final ClassInfo<?> i = superClassInfos.get(c);
-		if (i != null)
-			return (ClassInfo<? super T>) i;
-		for (final ClassInfo<?> ci : getClassInfos()) {
-			if (ci.getC().isAssignableFrom(c)) {
-				if (!Skript.isAcceptRegistrations())
-					superClassInfos.put(c, ci);
-				return (ClassInfo<? super T>) ci;
-			}
-		}
-		assert false;
-		return null;
+		final ClassInfo<?> ci = isSorted() ? superClassInfoCache.get(c) : null;
+		assert ci != null : c;
+		return (ClassInfo<? super T>) ci;
 	}
 
 	/**
 	 * Gets all the class info of the given class in closest order to ending on object. This list will never be empty unless <tt>c</tt> is null.
 	 * 
 	 * @param c the class to check if assignable from
-	 * @return The closest list of superclass infos
+	 * @return The closest list of superclass infos, which is unmodifiable
 	 */
-	@SuppressWarnings("unchecked")
+	@SuppressWarnings({"unchecked", "rawtypes"})
 	public static <T> List<ClassInfo<? super T>> getAllSuperClassInfos(Class<T> c) {
 		assert c != null;
 		checkAllowClassInfoInteraction();
-		List<ClassInfo<? super T>> list = new ArrayList<>();
-		for (ClassInfo<?> ci : getClassInfos()) {
-			if (ci.getC().isAssignableFrom(c)) {
-				list.add((ClassInfo<? super T>) ci);
-			}
-		}
-		return list;
+		if (!isSorted())
+			return Collections.emptyList();
+		return (List) allSuperClassInfoCache.get(c);
 	}
 	
 	/**
@@ -442,7 +492,7 @@ public abstract class Classes {
 	@Nullable
 	public static String getExactClassName(final Class<?> c) {
 		checkAllowClassInfoInteraction();
-		final ClassInfo<?> ci = exactClassInfos.get(c);
+		final ClassInfo<?> ci = getExactClassInfo(c);
 		return ci == null ? null : ci.getCodeName();
 	}
 	
@@ -636,15 +686,16 @@ public abstract class Classes {
 			}
 			return "[" + b.toString() + "]";
 		}
-		for (final ClassInfo<?> ci : getClassInfos()) {
+		checkAllowClassInfoInteraction();
+		final ClassInfo<?> ci = isSorted() ? parserClassInfoCache.get(o.getClass()) : null;
+		if (ci != null) {
 			final Parser<?> parser = ci.getParser();
-			if (parser != null && ci.getC().isInstance(o)) {
-				@SuppressWarnings("unchecked")
-				final String s = mode == StringMode.MESSAGE ? ((Parser<T>) parser).toString(o, flags)
-						: mode == StringMode.DEBUG ? "[" + ci.getCodeName() + ":" + ((Parser<T>) parser).toString(o, mode) + "]"
-								: ((Parser<T>) parser).toString(o, mode);
-				return s;
-			}
+			assert parser != null : ci;
+			@SuppressWarnings("unchecked")
+			final String s = mode == StringMode.MESSAGE ? ((Parser<T>) parser).toString(o, flags)
+					: mode == StringMode.DEBUG ? "[" + ci.getCodeName() + ":" + ((Parser<T>) parser).toString(o, mode) + "]"
+							: ((Parser<T>) parser).toString(o, mode);
+			return s;
 		}
 		return mode == StringMode.VARIABLE_NAME ? "object:" + o : "" + o;
 	}
@@ -713,15 +764,13 @@ public abstract class Classes {
 	}
 	
 	/**
-	 * Must be called on the appropriate thread for the given value (i.e. the main thread currently)
+	 * Must be called on the appropriate thread for the given value,
+	 * i.e. the main thread if its serializer {@link Serializer#mustSyncDeserialization() must sync}.
 	 */
 	public static SerializedVariable.@Nullable Value serialize(@Nullable Object o) {
 		if (o == null)
 			return null;
 		
-		// temporary
-		assert Bukkit.isPrimaryThread();
-		
 		ClassInfo<?> ci = getSuperClassInfo(o.getClass());
 		if (ci.getSerializeAs() != null) {
 			ci = getExactClassInfo(ci.getSerializeAs());
@@ -21,6 +21,8 @@ package ch.njol.skript.registrations;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 import org.bukkit.event.Event;
 import org.eclipse.jdt.annotation.Nullable;
@@ -216,30 +218,117 @@ public class EventValues {
 		return getEventValueGetter(event, c, time, true);
 	}
 	
+	/**
+	 * The getters that have been resolved since registrations were closed, including missing and excluded ones.
+	 */
+	private static final Map<GetterKey, ResolvedGetter> resolvedGetters = new ConcurrentHashMap<>();
+
 	@SuppressWarnings("unchecked")
 	@Nullable
 	private static <T, E extends Event> Getter<? extends T, ? super E> getEventValueGetter(Class<E> event, Class<T> c, int time, boolean allowDefault) {
+		ResolvedGetter resolved;
+		if (Skript.isAcceptRegistrations()) { // Event values and converters may still change
+			resolved = resolveEventValueGetter(event, c, time, allowDefault);
+		} else {
+			GetterKey key = new GetterKey(event, c, time, allowDefault);
+			resolved = resolvedGetters.get(key);
+			if (resolved == null) {
+				resolved = resolveEventValueGetter(event, c, time, allowDefault);
+				resolvedGetters.put(key, resolved);
+			}
+		}
+		if (resolved.excluded)
+			Skript.error(resolved.excludeErrorMessage);
+		return (Getter<? extends T, ? super E>) resolved.getter;
+	}
+
+	/**
+	 * The result of resolving a getter, see {@link #resolveEventValueGetter(Class, Class, int, boolean)}.
+	 */
+	private static final class ResolvedGetter {
+
+		private static final ResolvedGetter NONE = new ResolvedGetter(null);
+
+		@Nullable
+		private final Getter<?, ?> getter;
+		private final boolean excluded;
+		@Nullable
+		private final String excludeErrorMessage;
+
+		private ResolvedGetter(@Nullable Getter<?, ?> getter) {
+			this(getter, false, null);
+		}
+
+		private ResolvedGetter(@Nullable Getter<?, ?> getter, boolean excluded, @Nullable String excludeErrorMessage) {
+			this.getter = getter;
+			this.excluded = excluded;
+			this.excludeErrorMessage = excludeErrorMessage;
+		}
+
+		private static ResolvedGetter excluded(@Nullable String excludeErrorMessage) {
+			return new ResolvedGetter(null, true, excludeErrorMessage);
+		}
+
+	}
+
+	private static final class GetterKey {
+
+		private final Class<? extends Event> event;
+		private final Class<?> c;
+		private final int time;
+		private final boolean allowDefault;
+
+		private GetterKey(Class<? extends Event> event, Class<?> c, int time, boolean allowDefault) {
+			this.event = event;
+			this.c = c;
+			this.time = time;
+			this.allowDefault = allowDefault;
+		}
+
+		@Override
+		public boolean equals(Object o) {
+			if (this == o)
+				return true;
+			if (!(o instanceof GetterKey))
+				return false;
+			GetterKey key = (GetterKey) o;
+			return event == key.event && c == key.c && time == key.time && allowDefault == key.allowDefault;
+		}
+
+		@Override
+		public int hashCode() {
+			return 31 * (31 * (31 * event.hashCode() + c.hashCode()) + time) + (allowDefault ? 1 : 0);
+		}
+
+	}
+
+	/**
+	 * Finds the getter of the given event value, without using the cache.
+	 * Instead of printing the error of an excluded event value, the excluded result is returned.
+	 */
+	@SuppressWarnings("unchecked")
+	private static <T, E extends Event> ResolvedGetter resolveEventValueGetter(Class<E> event, Class<T> c, int time, boolean allowDefault) {
 		List<EventValueInfo<?, ?>> eventValues = getEventValuesList(time);
 		// First check for exact classes matching the parameters.
 		for (EventValueInfo<?, ?> eventValueInfo : eventValues) {
 			if (!c.equals(eventValueInfo.c))
 				continue;
-			if (!checkExcludes(eventValueInfo, event))
-				return null;
+			if (isExcluded(eventValueInfo, event))
+				return ResolvedGetter.excluded(eventValueInfo.excludeErrorMessage);
 			if (eventValueInfo.event.isAssignableFrom(event))
-				return (Getter<? extends T, ? super E>) eventValueInfo.getter;
+				return new ResolvedGetter(eventValueInfo.getter);
 		}
 		// Second check for assignable subclasses.
 		for (EventValueInfo<?, ?> eventValueInfo : eventValues) {
 			if (!c.isAssignableFrom(eventValueInfo.c))
 				continue;
-			if (!checkExcludes(eventValueInfo, event))
-				return null;
+			if (isExcluded(eventValueInfo, event))
+				return ResolvedGetter.excluded(eventValueInfo.excludeErrorMessage);
 			if (eventValueInfo.event.isAssignableFrom(event))
-				return (Getter<? extends T, ? super E>) eventValueInfo.getter;
+				return new ResolvedGetter(eventValueInfo.getter);
 			if (!event.isAssignableFrom(eventValueInfo.event))
 				continue;
-			return new Getter<T, E>() {
+			return new ResolvedGetter(new Getter<T, E>() {
 				@Override
 				@Nullable
 				public T get(E event) {
@@ -247,7 +336,7 @@ public class EventValues {
 						return null;
 					return ((Getter<? extends T, E>) eventValueInfo.getter).get(event);
 				}
-			};
+			});
 		}
 		// Most checks have returned before this below is called, but Skript will attempt to convert or find an alternative.
 		// Third check is if the returned object matches the class.
@@ -257,9 +346,9 @@ public class EventValues {
 			boolean checkInstanceOf = !eventValueInfo.event.isAssignableFrom(event);
 			if (checkInstanceOf && !event.isAssignableFrom(eventValueInfo.event))
 				continue;
-			if (!checkExcludes(eventValueInfo, event))
-				return null;
-			return new Getter<T, E>() {
+			if (isExcluded(eventValueInfo, event))
+				return ResolvedGetter.excluded(eventValueInfo.excludeErrorMessage);
+			return new ResolvedGetter(new Getter<T, E>() {
 				@Override
 				@Nullable
 				public T get(E event) {
@@ -270,7 +359,7 @@ public class EventValues {
 						return (T) object;
 					return null;
 				}
-			};
+			});
 		}
 		// Fourth check will attempt to convert the event value to the requesting type.
 		// This first for loop will check that the events are exact. See issue #5016
@@ -282,9 +371,9 @@ public class EventValues {
 			if (getter == null)
 				continue;
 			
-			if (!checkExcludes(eventValueInfo, event))
-				return null;
-			return getter;
+			if (isExcluded(eventValueInfo, event))
+				return ResolvedGetter.excluded(eventValueInfo.excludeErrorMessage);
+			return new ResolvedGetter(getter);
 		}
 		// This loop will attempt to look for converters assignable to the class of the provided event.
 		for (EventValueInfo<?, ?> eventValueInfo : eventValues) {
@@ -296,14 +385,14 @@ public class EventValues {
 			if (getter == null)
 				continue;
 			
-			if (!checkExcludes(eventValueInfo, event))
-				return null;
-			return getter;
+			if (isExcluded(eventValueInfo, event))
+				return ResolvedGetter.excluded(eventValueInfo.excludeErrorMessage);
+			return new ResolvedGetter(getter);
 		}
 		// If the check should try again matching event values with a 0 time (most event values).
 		if (allowDefault && time != 0)
-			return getEventValueGetter(event, c, 0, false);
-		return null;
+			return resolveEventValueGetter(event, c, 0, false);
+		return ResolvedGetter.NONE;
 	}
 
 	/**
@@ -311,18 +400,16 @@ public class EventValues {
 	 * 
 	 * @param info The event value info that will be used to grab the value from
 	 * @param event The event class to check the excludes against.
-	 * @return boolean if true the event value passes for the events.
+	 * @return boolean if true the event value doesn't exist for the events.
 	 */
-	private static boolean checkExcludes(EventValueInfo<?, ?> info, Class<? extends Event> event) {
+	private static boolean isExcluded(EventValueInfo<?, ?> info, Class<? extends Event> event) {
 		if (info.excludes == null)
-			return true;
+			return false;
 		for (Class<? extends Event> ex : (Class<? extends Event>[]) info.excludes) {
-			if (ex.isAssignableFrom(event)) {
-				Skript.error(info.excludeErrorMessage);
-				return false;
-			}
+			if (ex.isAssignableFrom(event))
+				return true;
 		}
-		return true;
+		return false;
 	}
 
 	/**
@@ -34,14 +34,13 @@ import ch.njol.skript.lang.util.ContainerExpression;
 import ch.njol.skript.util.Container;
 import ch.njol.skript.util.Container.ContainerType;
 import ch.njol.skript.util.LiteralUtils;
+import ch.njol.skript.variables.Variables;
 import ch.njol.util.Kleenean;
 import org.bukkit.event.Event;
 import org.eclipse.jdt.annotation.Nullable;
 
 import java.util.Iterator;
 import java.util.List;
-import java.util.Map;
-import java.util.WeakHashMap;
 
 @Name("Loop")
 @Description({
@@ -89,8 +88,20 @@ public class SecLoop extends Section {
 	@SuppressWarnings("NotNullFieldNotInitialized")
 	private Expression<?> expr;
 
-	private final transient Map<Event, Object> current = new WeakHashMap<>();
-	private final transient Map<Event, Iterator<?>> currentIter = new WeakHashMap<>();
+	/**
+	 * The state of this loop in one execution, kept as {@link Variables#getExecutionState(Event, Object) execution state}.
+	 */
+	private static final class LoopState {
+
+		private final Iterator<?> iterator;
+		@Nullable
+		private Object current;
+
+		private LoopState(Iterator<?> iterator) {
+			this.iterator = iterator;
+		}
+
+	}
 
 	@Nullable
 	private TriggerItem actualNext;
@@ -129,22 +140,20 @@ public class SecLoop extends Section {
 	@Override
 	@Nullable
 	protected TriggerItem walk(Event e) {
-		Iterator<?> iter = currentIter.get(e);
-		if (iter == null) {
-			iter = expr instanceof Variable ? ((Variable<?>) expr).variablesIterator(e) : expr.iterator(e);
-			if (iter != null) {
-				if (iter.hasNext())
-					currentIter.put(e, iter);
-				else
-					iter = null;
+		LoopState state = (LoopState) Variables.getExecutionState(e, this);
+		if (state == null) {
+			Iterator<?> iter = expr instanceof Variable ? ((Variable<?>) expr).variablesIterator(e) : expr.iterator(e);
+			if (iter != null && iter.hasNext()) {
+				state = new LoopState(iter);
+				Variables.setExecutionState(e, this, state);
 			}
 		}
-		if (iter == null || !iter.hasNext()) {
+		if (state == null || !state.iterator.hasNext()) {
 			exit(e);
 			debug(e, false);
 			return actualNext;
 		} else {
-			current.put(e, iter.next());
+			state.current = state.iterator.next();
 			return walk(e, true);
 		}
 	}
@@ -156,7 +165,8 @@ public class SecLoop extends Section {
 
 	@Nullable
 	public Object getCurrent(Event e) {
-		return current.get(e);
+		LoopState state = (LoopState) Variables.getExecutionState(e, this);
+		return state == null ? null : state.current;
 	}
 
 	public Expression<?> getLoopedExpression() {
@@ -175,7 +185,6 @@ public class SecLoop extends Section {
 	}
 
 	public void exit(Event event) {
-		current.remove(event);
-		currentIter.remove(event);
+		Variables.setExecutionState(event, this, null);
 	}
 }
@@ -18,14 +18,10 @@
  */
 package ch.njol.skript.structures;
 
-import java.util.ArrayDeque;
 import java.util.ArrayList;
 import java.util.Collection;
-import java.util.Deque;
-import java.util.HashMap;
 import java.util.List;
 import java.util.Locale;
-import java.util.Map;
 
 import org.bukkit.event.Event;
 import org.jetbrains.annotations.Nullable;
@@ -51,13 +47,13 @@ import ch.njol.skript.lang.Literal;
 import ch.njol.skript.lang.ParseContext;
 import ch.njol.skript.lang.SkriptParser.ParseResult;
 import ch.njol.skript.lang.Variable;
+import ch.njol.skript.lang.VariableString;
 import ch.njol.skript.log.ParseLogHandler;
 import ch.njol.skript.log.SkriptLogger;
 import ch.njol.skript.registrations.Classes;
 import ch.njol.skript.variables.Variables;
 import ch.njol.util.NonNullPair;
 import ch.njol.util.StringUtils;
-import ch.njol.util.coll.CollectionUtils;
 
 @Name("Variables")
 @Description({
@@ -85,47 +81,37 @@ public class StructVariables extends Structure {
 
 	public static class DefaultVariables implements ScriptData {
 
-		private final Deque<Map<String, Class<?>[]>> hints = new ArrayDeque<>();
 		private final List<NonNullPair<String, Object>> variables;
 
 		public DefaultVariables(Collection<NonNullPair<String, Object>> variables) {
 			this.variables = ImmutableList.copyOf(variables);
 		}
 
-		@SuppressWarnings("unchecked")
-		public void add(String variable, Class<?>... hints) {
-			if (hints == null || hints.length <= 0)
-				return;
-			if (CollectionUtils.containsAll(hints, Object.class)) // Ignore useless type hint.
-				return;
-			// This important empty check ensures that the variable type hint came from a defined DefaultVariable.
-			if (this.hints.isEmpty())
-				return;
-			this.hints.getFirst().put(variable, hints);
-		}
+		/**
+		 * @deprecated the default variables a variable may fall back to are determined when it is parsed,
+		 * see {@link VariableString#getDefaultVariableNames(Event)}. This method does nothing.
+		 */
+		@Deprecated
+		public void add(String variable, Class<?>... hints) {}
 
-		public void enterScope() {
-			hints.push(new HashMap<>());
-		}
+		/**
+		 * @deprecated see {@link #add(String, Class[])}. This method does nothing.
+		 */
+		@Deprecated
+		public void enterScope() {}
 
-		public void exitScope() {
-			hints.pop();
-		}
+		/**
+		 * @deprecated see {@link #add(String, Class[])}. This method does nothing.
+		 */
+		@Deprecated
+		public void exitScope() {}
 
 		/**
-		 * Returns the type hints of a variable.
-		 * Can be null if no type hint was saved.
-		 * 
-		 * @param variable The variable string of a variable.
-		 * @return type hints of a variable if found otherwise null.
+		 * @deprecated see {@link #add(String, Class[])}. Type hints are no longer saved, so this always returns null.
 		 */
 		@Nullable
+		@Deprecated
 		public Class<?>[] get(String variable) {
-			for (Map<String, Class<?>[]> map : hints) {
-				Class<?>[] hints = map.get(variable);
-				if (hints != null && hints.length > 0)
-					return hints;
-			}
 			return null;
 		}
 
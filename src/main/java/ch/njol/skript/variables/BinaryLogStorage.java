@@ -0,0 +1,724 @@
+/**
+ *   This file is part of Skript.
+ *
+ *  Skript is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  Skript is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with Skript.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * Copyright Peter Güttinger, SkriptLang team and contributors
+ */
+package ch.njol.skript.variables;
+
+import ch.njol.skript.Skript;
+import ch.njol.skript.config.SectionNode;
+import ch.njol.skript.lang.Variable;
+import ch.njol.skript.log.SkriptLogger;
+import ch.njol.skript.registrations.Classes;
+import ch.njol.skript.util.ExceptionUtils;
+import ch.njol.skript.util.FileUtils;
+import ch.njol.skript.util.Task;
+import ch.njol.skript.util.Timespan;
+import ch.njol.skript.util.Version;
+import ch.njol.skript.variables.SerializedVariable.Value;
+import org.eclipse.jdt.annotation.Nullable;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.zip.CRC32;
+
+/**
+ * A variable storage that stores its content in a binary snapshot file,
+ * and appends changes to a log file next to it.
+ * <p>
+ * Both files consist of a header followed by records of the form
+ * {@code length, checksum, payload}, where the payload contains the variable's name,
+ * and its serialized value unless the record is a deletion.
+ * When loading, the snapshot is read first and the log is replayed over it.
+ * A record that was only partially written (e.g. because the server crashed)
+ * fails its checksum, and the log is truncated before it.
+ * <p>
+ * Changes are buffered and written to the log in groups, with one fsync per group.
+ * Once the log has grown larger than the snapshot, it is compacted in the background:
+ * the log is rotated to {@code <file>.log.old}, a new snapshot is written from the variables in memory,
+ * and only after the new snapshot has replaced the old one is the rotated log deleted.
+ * Changes made meanwhile are appended to the new log,
+ * so script threads never wait for a compaction.
+ */
+public class BinaryLogStorage extends VariablesStorage {
+
+	/**
+	 * The magic number at the start of snapshot and log files, {@code SKBV} in ASCII.
+	 */
+	private static final int MAGIC = 0x534B4256;
+
+	/**
+	 * The version of the file format.
+	 */
+	private static final int FORMAT_VERSION = 1;
+
+	/**
+	 * The size of the header at the start of each file.
+	 */
+	private static final int HEADER_SIZE = 8;
+
+	/**
+	 * The size of a record's length and checksum.
+	 */
+	private static final int RECORD_HEADER_SIZE = 8;
+
+	/**
+	 * The default interval between commits of buffered changes, in ticks.
+	 */
+	private static final long DEFAULT_COMMIT_INTERVAL = 20;
+
+	/**
+	 * The period between checks whether the log should be compacted, in ticks.
+	 */
+	private static final long COMPACTION_CHECK_PERIOD = 60 * 20;
+
+	/**
+	 * The minimum size of the log before it is compacted, in bytes.
+	 */
+	private static final long MIN_COMPACTION_LOG_SIZE = 16 * 1024 * 1024;
+
+	/**
+	 * The log file changes are appended to.
+	 */
+	@Nullable
+	private File logFile;
+
+	/**
+	 * The log file that is being compacted.
+	 * If it exists while loading, the last compaction was interrupted and it must be replayed too.
+	 */
+	@Nullable
+	private File oldLogFile;
+
+	/**
+	 * Records that have not yet been committed to the log.
+	 * Must be locked with {@link #bufferLock}.
+	 */
+	private final ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+
+	/**
+	 * The lock for the {@link #buffer}.
+	 * Only held while records are added to or taken from the buffer, never during I/O.
+	 */
+	private final Object bufferLock = new Object();
+
+	/**
+	 * The channel to the {@link #logFile}, {@code null} while disconnected.
+	 * Must be locked with {@link #commitLock}.
+	 */
+	@Nullable
+	private FileChannel logChannel;
+
+	/**
+	 * The lock for the {@link #logChannel}.
+	 * <p>
+	 * A Lock on this object must be acquired after connectionLock
+	 * if that lock is used.
+	 */
+	private final Object commitLock = new Object();
+
+	/**
+	 * The size of the {@link #logFile}. Must be locked with {@link #commitLock}.
+	 */
+	private long logSize;
+
+	/**
+	 * The size of the snapshot {@link #file} after the last compaction.
+	 */
+	private volatile long snapshotSize;
+
+	/**
+	 * Whether a compaction is currently running.
+	 */
+	private final AtomicBoolean compacting = new AtomicBoolean();
+
+	@Nullable
+	private Task commitTask;
+
+	@Nullable
+	private Task compactionTask;
+
+	/**
+	 * Create a new binary log storage of the given name.
+	 *
+	 * @param name the name.
+	 */
+	BinaryLogStorage(String name) {
+		super(name);
+	}
+
+	@Override
+	protected boolean load_i(SectionNode sectionNode) {
+		SkriptLogger.setNode(null);
+
+		File file = this.file;
+		if (file == null) {
+			assert false : this;
+			return false;
+		}
+		File logFile = this.logFile = new File(file.getPath() + ".log");
+		File oldLogFile = this.oldLogFile = new File(file.getPath() + ".log.old");
+
+		long commitInterval = DEFAULT_COMMIT_INTERVAL;
+		if (sectionNode.getValue("commit interval") != null) {
+			Timespan interval = getValue(sectionNode, "commit interval", Timespan.class);
+			if (interval == null)
+				return false;
+			commitInterval = Math.max(1, interval.getTicks_i());
+		}
+
+		// Import an existing CSV file once, if this storage doesn't contain anything yet
+		String importFrom = sectionNode.getValue("import from");
+		if (importFrom != null && file.length() == 0 && !logFile.exists() && !oldLogFile.exists()) {
+			File csvFile = new File(importFrom);
+			if (!csvFile.isFile()) {
+				Skript.error("The file '" + importFrom + "' to import variables from does not exist");
+				return false;
+			}
+			if (!importCSV(csvFile, file))
+				return false;
+		}
+
+		// Read the snapshot, then replay the logs over it
+		Map<String, Value> records = new LinkedHashMap<>();
+		try {
+			snapshotSize = readRecords(file, records, false);
+			if (oldLogFile.exists())
+				readRecords(oldLogFile, records, true);
+			if (logFile.exists())
+				readRecords(logFile, records, true);
+		} catch (IOException e) {
+			Skript.error("An I/O error occurred while loading the variables: " + ExceptionUtils.toString(e));
+			Skript.error("This means that some to all variables could not be loaded!");
+			return false;
+		}
+
+		int unsuccessfulVariableCount = 0;
+		StringBuilder invalid = new StringBuilder();
+		for (Entry<String, Value> record : records.entrySet()) {
+			Value value = record.getValue();
+			Object deserializedValue = Classes.deserialize(value.type, value.data);
+			if (deserializedValue == null) {
+				if (invalid.length() != 0)
+					invalid.append(", ");
+				invalid.append(record.getKey());
+				unsuccessfulVariableCount++;
+				continue;
+			}
+			Variables.variableLoaded(record.getKey(), deserializedValue, this);
+		}
+
+		if (unsuccessfulVariableCount > 0) {
+			Skript.error(unsuccessfulVariableCount + " variable" + (unsuccessfulVariableCount == 1 ? "" : "s") +
+					" could not be loaded!");
+			Skript.error("Affected variables: " + invalid);
+		}
+
+		if (!connect())
+			return false;
+
+		commitTask = new Task(Skript.getInstance(), commitInterval, commitInterval, true) {
+			@Override
+			public void run() {
+				synchronized (commitLock) {
+					commit();
+				}
+			}
+		};
+		compactionTask = new Task(Skript.getInstance(), COMPACTION_CHECK_PERIOD, COMPACTION_CHECK_PERIOD, true) {
+			@Override
+			public void run() {
+				if (shouldCompact())
+					compact();
+			}
+		};
+
+		return true;
+	}
+
+	@Override
+	protected void allLoaded() {
+		// no transaction support
+	}
+
+	@Override
+	protected boolean requiresFile() {
+		return true;
+	}
+
+	@Override
+	protected File getFile(String fileName) {
+		return new File(fileName);
+	}
+
+	@Override
+	protected boolean connect() {
+		synchronized (connectionLock) {
+			synchronized (commitLock) {
+				if (logChannel != null)
+					return true;
+				assert logFile != null;
+				try {
+					logChannel = openLog(logFile);
+					logSize = logChannel.size();
+					return true;
+				} catch (IOException e) {
+					Skript.error("Cannot open the variable log '" + logFile.getName() + "': " + ExceptionUtils.toString(e));
+					return false;
+				}
+			}
+		}
+	}
+
+	@Override
+	protected void disconnect() {
+		synchronized (connectionLock) {
+			synchronized (commitLock) {
+				commit();
+				closeLog();
+			}
+		}
+	}
+
+	@Override
+	public void close() {
+		// Wait for the queued changes to reach the buffer
+		super.close();
+
+		if (commitTask != null)
+			commitTask.cancel();
+		if (compactionTask != null)
+			compactionTask.cancel();
+
+		if (shouldCompact())
+			compact();
+		disconnect();
+	}
+
+	@Override
+	protected boolean save(String name, @Nullable String type, @Nullable byte[] value) {
+		byte[] record;
+		try {
+			record = encodeRecord(name, type, value);
+		} catch (IOException e) {
+			//noinspection ThrowableNotThrown
+			Skript.exception(e, "Error saving variable named " + name);
+			return false;
+		}
+		synchronized (bufferLock) {
+			buffer.write(record, 0, record.length);
+		}
+		return true;
+	}
+
+	/**
+	 * Writes all buffered records to the log, and forces them to disk.
+	 * If this storage is disconnected, the records stay buffered until it reconnects.
+	 * <p>
+	 * The caller must hold the {@link #commitLock}.
+	 */
+	private void commit() {
+		FileChannel logChannel = this.logChannel;
+		if (logChannel == null)
+			return;
+
+		byte[] records;
+		synchronized (bufferLock) {
+			if (buffer.size() == 0)
+				return;
+			records = buffer.toByteArray();
+			buffer.reset();
+		}
+
+		try {
+			// A failed commit may have written part of a record, which would hide every later record when loading
+			if (logChannel.size() != logSize) {
+				logChannel.truncate(logSize);
+				logChannel.position(logSize);
+			}
+			ByteBuffer byteBuffer = ByteBuffer.wrap(records);
+			while (byteBuffer.hasRemaining())
+				logChannel.write(byteBuffer);
+			logChannel.force(false);
+			logSize += records.length;
+		} catch (IOException e) {
+			Skript.error("Cannot write to the variable log of the database '" + databaseName + "', " +
+					"changes will be retried: " + ExceptionUtils.toString(e));
+			// Put the records back in front of any newer ones
+			synchronized (bufferLock) {
+				byte[] newer = buffer.toByteArray();
+				buffer.reset();
+				buffer.write(records, 0, records.length);
+				buffer.write(newer, 0, newer.length);
+			}
+		}
+	}
+
+	/**
+	 * Closes the {@link #logChannel}. The caller must hold the {@link #commitLock}.
+	 */
+	private void closeLog() {
+		FileChannel logChannel = this.logChannel;
+		if (logChannel == null)
+			return;
+		this.logChannel = null;
+		try {
+			logChannel.close();
+		} catch (IOException e) {
+			Skript.error("Cannot close the variable log of the database '" + databaseName + "': " +
+					ExceptionUtils.toString(e));
+		}
+	}
+
+	/**
+	 * @return whether the log has grown large enough to be compacted,
+	 * or a previous compaction has not been finished.
+	 */
+	private boolean shouldCompact() {
+		if (oldLogFile != null && oldLogFile.exists())
+			return true;
+		synchronized (commitLock) {
+			return logSize > Math.max(MIN_COMPACTION_LOG_SIZE, snapshotSize);
+		}
+	}
+
+	/**
+	 * Compacts the log into a new snapshot.
+	 * <p>
+	 * The log is only locked while it is rotated; the snapshot is written
+	 * from the variables in memory while changes are appended to the new log.
+	 */
+	private void compact() {
+		if (!compacting.compareAndSet(false, true))
+			return;
+		try {
+			File file = this.file;
+			File logFile = this.logFile;
+			File oldLogFile = this.oldLogFile;
+			assert file != null && logFile != null && oldLogFile != null;
+
+			// Rotate the log, unless a previous compaction left a rotated log behind.
+			//  In that case, the new snapshot will contain everything from both logs anyway.
+			synchronized (commitLock) {
+				commit();
+				if (!oldLogFile.exists()) {
+					boolean connected = logChannel != null;
+					closeLog();
+					try {
+						FileUtils.move(logFile, oldLogFile, false);
+					} finally {
+						if (connected) {
+							logChannel = openLog(logFile);
+							logSize = logChannel.size();
+						}
+					}
+				}
+			}
+
+			// Write the new snapshot to a temporary file first, so that the old one stays intact if this fails
+			File tempFile = new File(file.getPath() + ".temp");
+			try (FileOutputStream fileOut = new FileOutputStream(tempFile)) {
+				DataOutputStream out = new DataOutputStream(new BufferedOutputStream(fileOut));
+				out.writeInt(MAGIC);
+				out.writeInt(FORMAT_VERSION);
+				writeSnapshot(out, "", Variables.getVariables());
+				out.flush();
+				fileOut.getChannel().force(true);
+			}
+			FileUtils.move(tempFile, file, true);
+			snapshotSize = file.length();
+
+			// Only now that the snapshot contains its changes, the rotated log may be deleted
+			Files.deleteIfExists(oldLogFile.toPath());
+		} catch (IOException e) {
+			Skript.error("Unable to compact the variables of the database '" + databaseName +
+					"' (no variables are lost): " + ExceptionUtils.toString(e));
+		} finally {
+			compacting.set(false);
+		}
+	}
+
+	/**
+	 * Writes the variables of this storage in the given tree to a snapshot.
+	 *
+	 * @param out the stream to write the records to.
+	 * @param parent The parent's name with {@link Variable#SEPARATOR} at the end.
+	 * @param node the variables tree.
+	 */
+	private void writeSnapshot(DataOutputStream out, String parent, VariablesMap.TreeNode node) throws IOException {
+		// Write the value of the variable this is the list of, e.g. {list} for {list::*}
+		Object value = node.getValue();
+		if (value != null)
+			writeSnapshot(out, parent.substring(0, parent.length() - Variable.SEPARATOR.length()), value);
+
+		for (Entry<String, Object> child : node.entrySet()) {
+			Object childValue = child.getValue();
+			if (childValue instanceof VariablesMap.TreeNode) {
+				writeSnapshot(out, parent + child.getKey() + Variable.SEPARATOR, (VariablesMap.TreeNode) childValue);
+			} else {
+				writeSnapshot(out, parent + child.getKey(), childValue);
+			}
+		}
+	}
+
+	/**
+	 * Writes a single variable to a snapshot, if it belongs to this storage.
+	 *
+	 * @param out the stream to write the record to.
+	 * @param name the name of the variable.
+	 * @param value the value of the variable.
+	 */
+	private void writeSnapshot(DataOutputStream out, String name, Object value) throws IOException {
+		// Loop over storages to make sure this variable is ours to store
+		for (VariablesStorage storage : Variables.STORAGES) {
+			if (storage.accept(name)) {
+				if (storage != this)
+					return;
+				break;
+			}
+		}
+
+		Value serializedValue;
+		try {
+			serializedValue = Classes.serialize(value);
+		} catch (Exception e) {
+			//noinspection ThrowableNotThrown
+			Skript.exception(e, "Error saving variable named " + name);
+			return;
+		}
+		if (serializedValue != null)
+			out.write(encodeRecord(name, serializedValue.type, serializedValue.data));
+	}
+
+	/**
+	 * Imports the variables of a CSV file, as written by {@link FlatFileStorage}, into a new snapshot.
+	 * The values are copied without being deserialized.
+	 *
+	 * @param csvFile the CSV file.
+	 * @param snapshotFile the snapshot file to write.
+	 * @return whether the import succeeded.
+	 */
+	boolean importCSV(File csvFile, File snapshotFile) {
+		Skript.info("Importing the variables of " + csvFile.getName() + " into the database '" + databaseName + "'...");
+
+		File tempFile = new File(snapshotFile.getPath() + ".temp");
+		int imported = 0;
+		try (
+			BufferedReader reader = new BufferedReader(
+				new InputStreamReader(Files.newInputStream(csvFile.toPath()), FlatFileStorage.FILE_CHARSET));
+			FileOutputStream fileOut = new FileOutputStream(tempFile)
+		) {
+			DataOutputStream out = new DataOutputStream(new BufferedOutputStream(fileOut));
+			out.writeInt(MAGIC);
+			out.writeInt(FORMAT_VERSION);
+
+			String line;
+			int lineNum = 0;
+			while ((line = reader.readLine()) != null) {
+				lineNum++;
+				line = line.trim();
+
+				if (line.isEmpty() || line.startsWith("#")) {
+					if (line.startsWith("# version:")) {
+						try {
+							Version csvSkriptVersion = new Version(line.substring("# version:".length()).trim());
+							if (csvSkriptVersion.isSmallerThan(new Version(2, 1))) {
+								Skript.error(csvFile.getName() + " was written by a version of Skript older than 2.1. " +
+									"Load it with the CSV database type once to update it before importing it.");
+								return false;
+							}
+						} catch (IllegalArgumentException ignored) {
+						}
+					}
+					continue;
+				}
+
+				String[] split = FlatFileStorage.splitCSV(line);
+				if (split == null || split.length != 3) {
+					Skript.error("invalid amount of commas in line " + lineNum + " ('" + line + "')");
+					continue;
+				}
+				if (split[1].equals("null"))
+					continue;
+
+				// Later lines for the same variable override earlier ones when loading, just like in CSV files
+				out.write(encodeRecord(split[0], split[1], FlatFileStorage.decode(split[2])));
+				imported++;
+			}
+
+			out.flush();
+			fileOut.getChannel().force(true);
+		} catch (IOException e) {
+			Skript.error("Cannot import the variables of " + csvFile.getName() + ": " + ExceptionUtils.toString(e));
+			return false;
+		}
+
+		try {
+			FileUtils.move(tempFile, snapshotFile, true);
+		} catch (IOException e) {
+			Skript.error("Cannot import the variables of " + csvFile.getName() + ": " + ExceptionUtils.toString(e));
+			return false;
+		}
+		Skript.info("Imported " + imported + " variables from " + csvFile.getName() + ". " +
+			"It is no longer used and may be removed from the 'import from' entry.");
+		return true;
+	}
+
+	/**
+	 * Opens the given log file for appending, writing the header if the file is new.
+	 *
+	 * @param logFile the log file.
+	 * @return the channel to the log file.
+	 */
+	static FileChannel openLog(File logFile) throws IOException {
+		FileChannel channel = FileChannel.open(logFile.toPath(),
+				StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+		if (channel.size() == 0) {
+			ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+			header.putInt(MAGIC).putInt(FORMAT_VERSION).flip();
+			while (header.hasRemaining())
+				channel.write(header);
+			channel.force(true);
+		}
+		return channel;
+	}
+
+	/**
+	 * Encodes a record for the given variable change.
+	 *
+	 * @param name the name of the variable.
+	 * @param type the type of the variable, {@code null} if it is deleted.
+	 * @param value the serialized value of the variable, {@code null} if it is deleted.
+	 * @return the record, including its length and checksum.
+	 */
+	static byte[] encodeRecord(String name, @Nullable String type, @Nullable byte[] value) throws IOException {
+		ByteArrayOutputStream payloadBytes = new ByteArrayOutputStream(32 + (value == null ? 0 : value.length));
+		DataOutputStream payload = new DataOutputStream(payloadBytes);
+		payload.writeUTF(name);
+		if (type == null || value == null) {
+			payload.writeBoolean(false);
+		} else {
+			payload.writeBoolean(true);
+			payload.writeUTF(type);
+			payload.writeInt(value.length);
+			payload.write(value);
+		}
+		payload.flush();
+
+		byte[] payloadArray = payloadBytes.toByteArray();
+		CRC32 crc = new CRC32();
+		crc.update(payloadArray);
+
+		ByteBuffer record = ByteBuffer.allocate(RECORD_HEADER_SIZE + payloadArray.length);
+		record.putInt(payloadArray.length);
+		record.putInt((int) crc.getValue());
+		record.put(payloadArray);
+		return record.array();
+	}
+
+	/**
+	 * Reads the records of a snapshot or log file into the given map.
+	 * Records of later changes replace earlier ones, and deletions remove them.
+	 * <p>
+	 * Reading stops at the first record that was only partially written.
+	 * If this is a log, it is truncated to the last complete record,
+	 * so that new records aren't appended after a corrupt one.
+	 *
+	 * @param file the file to read.
+	 * @param records the map to put the records in.
+	 * @param log whether the file is a log.
+	 * @return the size of the file.
+	 */
+	static long readRecords(File file, Map<String, Value> records, boolean log) throws IOException {
+		long fileSize = file.length();
+		if (fileSize == 0)
+			return 0;
+
+		long validSize = HEADER_SIZE;
+		try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file.toPath())))) {
+			if (fileSize < HEADER_SIZE || in.readInt() != MAGIC)
+				throw new IOException(file.getName() + " is not a variables file");
+			int version = in.readInt();
+			if (version != FORMAT_VERSION)
+				throw new IOException(file.getName() + " has the unsupported format version " + version);
+
+			CRC32 crc = new CRC32();
+			while (validSize < fileSize) {
+				byte[] payloadArray;
+				try {
+					int length = in.readInt();
+					int checksum = in.readInt();
+					if (length < 0 || length > fileSize - validSize - RECORD_HEADER_SIZE)
+						break;
+					payloadArray = new byte[length];
+					in.readFully(payloadArray);
+
+					crc.reset();
+					crc.update(payloadArray);
+					if ((int) crc.getValue() != checksum)
+						break;
+				} catch (EOFException e) {
+					break;
+				}
+
+				DataInputStream payload = new DataInputStream(new ByteArrayInputStream(payloadArray));
+				String name = payload.readUTF();
+				if (payload.readBoolean()) {
+					String type = payload.readUTF();
+					byte[] value = new byte[payload.readInt()];
+					payload.readFully(value);
+					records.remove(name); // keep the order of the latest change
+					records.put(name, new Value(type, value));
+				} else {
+					records.remove(name);
+				}
+
+				validSize += RECORD_HEADER_SIZE + payloadArray.length;
+			}
+		}
+
+		if (validSize < fileSize) {
+			Skript.warning("The end of " + file.getName() + " was incomplete, likely because the server crashed. " +
+				(fileSize - validSize) + " bytes of changes were discarded.");
+			if (log) {
+				try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.WRITE)) {
+					channel.truncate(validSize);
+					channel.force(true);
+				}
+			}
+		}
+		return validSize;
+	}
+
+}
@@ -0,0 +1,527 @@
+/**
+ *   This file is part of Skript.
+ *
+ *  Skript is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  Skript is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with Skript.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * Copyright Peter Güttinger, SkriptLang team and contributors
+ */
+package ch.njol.skript.variables;
+
+import ch.njol.skript.Skript;
+import ch.njol.skript.classes.ClassInfo;
+import ch.njol.skript.classes.Serializer;
+import ch.njol.skript.log.LogEntry;
+import ch.njol.skript.log.LogHandler;
+import ch.njol.skript.log.SkriptLogger;
+import ch.njol.skript.registrations.Classes;
+import ch.njol.skript.util.Utils;
+import ch.njol.skript.util.Version;
+import org.eclipse.jdt.annotation.Nullable;
+
+import java.io.EOFException;
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BiConsumer;
+
+/**
+ * Loads the variables of a {@link FlatFileStorage} file.
+ * <p>
+ * The file is split into chunks of whole lines, which are read, parsed and deserialized by a pool of loader threads.
+ * Values whose {@link Serializer} {@link Serializer#mustSyncDeserialization() must sync}
+ * and values saved by Skript versions before 2.1 are deserialized when their chunk is merged instead.
+ * Chunks are merged on the calling thread in the order of the file, in bulk,
+ * so later lines of a variable replace earlier ones and errors are reported in order,
+ * just like when the file was read line by line.
+ * This includes the messages logged while deserializing on a loader thread, which are retained until their line is merged.
+ * <p>
+ * The {@code # version:} lines of legacy files apply to the lines after them, even in later chunks:
+ * the version at the start of a chunk is only known once all previous chunks have been parsed,
+ * so chunks are deserialized once that is the case.
+ */
+final class CSVVariableLoader {
+
+	/**
+	 * The minimum size of a chunk in bytes, chunks end at the first line break after this size.
+	 */
+	static final int CHUNK_SIZE = 4 * 1024 * 1024;
+
+	/**
+	 * The maximum amount of chunks per loader thread that are loaded but not merged yet, which limits the memory used.
+	 */
+	private static final int PENDING_CHUNKS_PER_THREAD = 2;
+
+	private static final String VERSION_PREFIX = "# version:";
+
+	/**
+	 * The legacy formats that are in use at some point in the file.
+	 */
+	private static final class Format {
+
+		static final Format CURRENT = new Format(false, false);
+
+		private static final Version V2_0_BETA3 = new Version(2, 0, "beta 3");
+		private static final Version V2_1 = new Version(2, 1);
+
+		/**
+		 * Whether strings have to be updated to the chat styles of Skript 2.0 beta 3.
+		 */
+		final boolean update2_0_beta3;
+
+		/**
+		 * Whether values have to be deserialized from their pre-2.1 string format.
+		 */
+		final boolean update2_1;
+
+		private Format(boolean update2_0_beta3, boolean update2_1) {
+			this.update2_0_beta3 = update2_0_beta3;
+			this.update2_1 = update2_1;
+		}
+
+		static Format of(Version csvSkriptVersion) {
+			return new Format(csvSkriptVersion.isSmallerThan(V2_0_BETA3), csvSkriptVersion.isSmallerThan(V2_1));
+		}
+
+	}
+
+	/**
+	 * A line with a variable, or what should have been one.
+	 */
+	private static final class Row {
+
+		/**
+		 * The line number in the chunk, starting at 1.
+		 */
+		final int line;
+
+		/**
+		 * The line, only kept if it is invalid.
+		 */
+		@Nullable
+		final String text;
+
+		/**
+		 * The first value of the line, only kept if it is invalid.
+		 */
+		@Nullable
+		final String invalidName;
+
+		/**
+		 * The name, type and value of the variable, {@code null} if the line is invalid.
+		 */
+		final String @Nullable [] split;
+
+		@Nullable
+		Format format;
+
+		/**
+		 * The deserialized value, {@code null} if it could not be deserialized or it must be deserialized when merging.
+		 */
+		@Nullable
+		Object value;
+
+		/**
+		 * Whether the value must be deserialized when merging.
+		 */
+		boolean deferred;
+
+		/**
+		 * The messages logged while deserializing the value on a loader thread, if there were any.
+		 */
+		@Nullable
+		List<LogEntry> log;
+
+		Row(int line, String text, String @Nullable [] split) {
+			this.line = line;
+			boolean valid = split != null && split.length == 3;
+			this.text = valid ? null : text;
+			this.invalidName = valid || split == null || split.length == 0 ? null : split[0];
+			this.split = valid ? split : null;
+		}
+
+	}
+
+	/**
+	 * A part of the file containing whole lines.
+	 */
+	private static final class Chunk {
+
+		final List<Row> rows = new ArrayList<>();
+
+		/**
+		 * The index of the first row each version line applies to, and the format of that version.
+		 */
+		final List<Integer> formatChanges = new ArrayList<>(0);
+		final List<Format> formats = new ArrayList<>(0);
+
+		int lineCount;
+
+		/**
+		 * @param format the format at the start of this chunk.
+		 * @return the format at the end of this chunk.
+		 */
+		Format getEndFormat(Format format) {
+			return formats.isEmpty() ? format : formats.get(formats.size() - 1);
+		}
+
+		/**
+		 * Deserializes the values of this chunk that don't need to be deserialized when merging.
+		 *
+		 * @param format the format at the start of this chunk.
+		 * @return this chunk.
+		 */
+		Chunk deserialize(Format format) {
+			RowLogHandler log = new RowLogHandler().start();
+			try {
+				int formatChange = 0;
+				for (int i = 0; i < rows.size(); i++) {
+					while (formatChange < formatChanges.size() && formatChanges.get(formatChange) <= i)
+						format = formats.get(formatChange++);
+
+					Row row = rows.get(i);
+					String[] split = row.split;
+					if (split == null || split[1].equals("null"))
+						continue;
+					row.format = format;
+
+					if (format.update2_1) {
+						// The old deserialization requires the main thread
+						row.deferred = true;
+						continue;
+					}
+					ClassInfo<?> classInfo = Classes.getClassInfoNoError(split[1]);
+					Serializer<?> serializer = classInfo == null ? null : classInfo.getSerializer();
+					if (serializer != null && serializer.mustSyncDeserialization()) {
+						row.deferred = true;
+					} else {
+						row.value = Classes.deserialize(split[1], FlatFileStorage.decode(split[2]));
+						row.log = log.take();
+					}
+				}
+			} finally {
+				log.stop();
+			}
+			return this;
+		}
+
+	}
+
+	/**
+	 * Retains the messages logged on a loader thread, so that they can be logged when their row is merged.
+	 */
+	private static final class RowLogHandler extends LogHandler {
+
+		private List<LogEntry> entries = new ArrayList<>(0);
+
+		@Override
+		public LogResult log(LogEntry entry) {
+			entries.add(entry);
+			return LogResult.CACHED;
+		}
+
+		@Override
+		public RowLogHandler start() {
+			SkriptLogger.startLogHandler(this);
+			return this;
+		}
+
+		/**
+		 * @return the messages logged since the last call, or {@code null} if there were none.
+		 */
+		@Nullable
+		List<LogEntry> take() {
+			if (entries.isEmpty())
+				return null;
+			List<LogEntry> taken = entries;
+			entries = new ArrayList<>(0);
+			return taken;
+		}
+
+	}
+
+	private final BiConsumer<List<String>, List<Object>> consumer;
+
+	private int unsuccessfulVariableCount = 0;
+	private final StringBuilder invalid = new StringBuilder();
+	private Format format = Format.CURRENT;
+
+	/**
+	 * The amount of lines of the merged chunks.
+	 */
+	private int mergedLines = 0;
+
+	CSVVariableLoader(VariablesStorage storage) {
+		this((names, values) -> Variables.variablesLoaded(names, values, storage));
+	}
+
+	/**
+	 * @param consumer is given the names and values of the loaded variables in the order of the file,
+	 * instead of handing them to {@link Variables}.
+	 */
+	CSVVariableLoader(BiConsumer<List<String>, List<Object>> consumer) {
+		this.consumer = consumer;
+	}
+
+	/**
+	 * Loads the variables of the given file and hands them to {@link Variables#variablesLoaded(List, List, VariablesStorage)},
+	 * or the consumer given to the constructor.
+	 * Must be called on the main thread.
+	 *
+	 * @param file the file.
+	 * @throws IOException if the file could not be read,
+	 * the variables of the file up to where the error occurred are still loaded.
+	 */
+	void load(File file) throws IOException {
+		int threadCount = Math.max(1, Runtime.getRuntime().availableProcessors());
+		AtomicInteger threadNumber = new AtomicInteger();
+		ExecutorService executor = Executors.newFixedThreadPool(threadCount, runnable -> {
+			Thread thread = Skript.newThread(runnable, "Skript variable load thread #" + threadNumber.incrementAndGet());
+			thread.setDaemon(true);
+			return thread;
+		});
+
+		try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+			long[] chunkStarts = getChunkStarts(channel);
+
+			ArrayDeque<CompletableFuture<Chunk>> pending = new ArrayDeque<>();
+			CompletableFuture<Format> chunkFormat = CompletableFuture.completedFuture(Format.CURRENT);
+			for (int i = 0; i < chunkStarts.length - 1; i++) {
+				if (pending.size() >= threadCount * PENDING_CHUNKS_PER_THREAD)
+					merge(join(pending.remove()));
+
+				long start = chunkStarts[i];
+				long length = chunkStarts[i + 1] - start;
+				if (length > Integer.MAX_VALUE)
+					throw new IOException("A line of " + file.getName() + " is too long");
+
+				CompletableFuture<Chunk> parsed = CompletableFuture.supplyAsync(() -> {
+					try {
+						return parse(read(channel, start, (int) length));
+					} catch (IOException e) {
+						throw new UncheckedIOException(e);
+					}
+				}, executor);
+				pending.add(parsed.thenCombineAsync(chunkFormat, Chunk::deserialize, executor));
+				chunkFormat = parsed.thenCombine(chunkFormat, Chunk::getEndFormat);
+			}
+
+			while (!pending.isEmpty())
+				merge(join(pending.remove()));
+			format = join(chunkFormat);
+		} finally {
+			executor.shutdownNow();
+		}
+	}
+
+	/**
+	 * @return the amount of variables that could not be loaded.
+	 */
+	int getUnsuccessfulVariableCount() {
+		return unsuccessfulVariableCount;
+	}
+
+	/**
+	 * @return the names of the variables that could not be loaded, separated by commas.
+	 */
+	String getInvalidVariables() {
+		return invalid.toString();
+	}
+
+	/**
+	 * @return whether the file was saved by a Skript version before 2.1, and needs to be saved in the new format.
+	 */
+	boolean isUpdate2_1() {
+		return format.update2_1;
+	}
+
+	/**
+	 * Waits for the given future, rethrowing the exception it failed with.
+	 */
+	private static <T> T join(CompletableFuture<T> future) throws IOException {
+		try {
+			return future.join();
+		} catch (CompletionException e) {
+			Throwable cause = e.getCause();
+			if (cause instanceof UncheckedIOException)
+				throw ((UncheckedIOException) cause).getCause();
+			if (cause instanceof RuntimeException)
+				throw (RuntimeException) cause;
+			if (cause instanceof Error)
+				throw (Error) cause;
+			throw e;
+		}
+	}
+
+	/**
+	 * Splits the file into chunks that start at the beginning of a line.
+	 *
+	 * @return the positions at which the chunks start, followed by the size of the file.
+	 */
+	private static long[] getChunkStarts(FileChannel channel) throws IOException {
+		long size = channel.size();
+		List<Long> starts = new ArrayList<>();
+		starts.add(0L);
+
+		ByteBuffer buffer = ByteBuffer.allocate(8192);
+		long start = 0;
+		while (start + CHUNK_SIZE < size) {
+			// The byte before the minimum end may already be the line break
+			long lineBreak = findLineBreak(channel, start + CHUNK_SIZE - 1, buffer);
+			if (lineBreak == -1 || lineBreak + 1 >= size)
+				break;
+			start = lineBreak + 1;
+			starts.add(start);
+		}
+		starts.add(size);
+
+		long[] result = new long[starts.size()];
+		for (int i = 0; i < result.length; i++)
+			result[i] = starts.get(i);
+		return result;
+	}
+
+	/**
+	 * @return the position of the first line break at or after the given position, or {@code -1} if there is none.
+	 */
+	private static long findLineBreak(FileChannel channel, long position, ByteBuffer buffer) throws IOException {
+		while (true) {
+			buffer.clear();
+			int read = channel.read(buffer, position);
+			if (read == -1)
+				return -1;
+			for (int i = 0; i < read; i++) {
+				if (buffer.get(i) == '\n')
+					return position + i;
+			}
+			position += read;
+		}
+	}
+
+	private static byte[] read(FileChannel channel, long start, int length) throws IOException {
+		byte[] data = new byte[length];
+		ByteBuffer buffer = ByteBuffer.wrap(data);
+		while (buffer.hasRemaining()) {
+			if (channel.read(buffer, start + buffer.position()) == -1)
+				throw new EOFException();
+		}
+		return data;
+	}
+
+	/**
+	 * Splits the given chunk into lines and parses them.
+	 */
+	private static Chunk parse(byte[] data) {
+		Chunk chunk = new Chunk();
+		int lineStart = 0;
+		for (int i = 0; i <= data.length; i++) {
+			if (i < data.length && data[i] != '\n')
+				continue;
+			// The last line of the file may not end with a line break
+			if (i == data.length && lineStart == data.length)
+				break;
+
+			chunk.lineCount++;
+			String line = new String(data, lineStart, i - lineStart, FlatFileStorage.FILE_CHARSET).trim();
+			lineStart = i + 1;
+
+			if (line.isEmpty() || line.startsWith("#")) {
+				// Line doesn't contain a variable
+				if (line.startsWith(VERSION_PREFIX)) {
+					try {
+						Format format = Format.of(new Version(line.substring(VERSION_PREFIX.length()).trim()));
+						chunk.formatChanges.add(chunk.rows.size());
+						chunk.formats.add(format);
+					} catch (IllegalArgumentException ignored) {
+					}
+				}
+				continue;
+			}
+
+			chunk.rows.add(new Row(chunk.lineCount, line, FlatFileStorage.splitCSV(line)));
+		}
+		return chunk;
+	}
+
+	/**
+	 * Deserializes the remaining values of the given chunk and hands its variables to {@link Variables}.
+	 */
+	@SuppressWarnings("deprecation")
+	private void merge(Chunk chunk) {
+		List<String> names = new ArrayList<>(chunk.rows.size());
+		List<Object> values = new ArrayList<>(chunk.rows.size());
+
+		for (Row row : chunk.rows) {
+			if (row.log != null)
+				SkriptLogger.logAll(row.log);
+
+			String[] split = row.split;
+			if (split == null) {
+				// Invalid CSV line
+				Skript.error("invalid amount of commas in line " + (mergedLines + row.line) + " ('" + row.text + "')");
+				if (invalid.length() != 0)
+					invalid.append(", ");
+				invalid.append(row.invalidName == null ? "<unknown>" : row.invalidName);
+				unsuccessfulVariableCount++;
+				continue;
+			}
+
+			if (split[1].equals("null"))
+				continue;
+
+			Format format = row.format;
+			assert format != null;
+			Object value = row.value;
+			if (row.deferred) {
+				if (format.update2_1) {
+					// Use old deserialization if variables come from old Skript version
+					value = Classes.deserialize(split[1], split[2]);
+				} else {
+					value = Classes.deserialize(split[1], FlatFileStorage.decode(split[2]));
+				}
+			}
+
+			if (value == null) {
+				// Couldn't deserialize variable
+				if (invalid.length() != 0)
+					invalid.append(", ");
+
+				invalid.append(split[0]);
+				unsuccessfulVariableCount++;
+				continue;
+			}
+
+			// Legacy
+			if (value instanceof String && format.update2_0_beta3)
+				value = Utils.replaceChatStyles((String) value);
+
+			names.add(split[0]);
+			values.add(value);
+		}
+
+		consumer.accept(names, values);
+		mergedLines += chunk.lineCount;
+	}
+
+}
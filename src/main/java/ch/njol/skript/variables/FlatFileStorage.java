@@ -26,24 +26,18 @@ import ch.njol.skript.registrations.Classes;
 import ch.njol.skript.util.ExceptionUtils;
 import ch.njol.skript.util.FileUtils;
 import ch.njol.skript.util.Task;
-import ch.njol.skript.util.Utils;
-import ch.njol.skript.util.Version;
 import ch.njol.util.NotifyingReference;
 import org.eclipse.jdt.annotation.Nullable;
 
-import java.io.BufferedReader;
 import java.io.File;
 import java.io.FileOutputStream;
 import java.io.IOException;
-import java.io.InputStreamReader;
 import java.io.OutputStreamWriter;
 import java.io.PrintWriter;
 import java.nio.charset.Charset;
 import java.nio.charset.StandardCharsets;
-import java.nio.file.Files;
 import java.util.ArrayList;
 import java.util.Map.Entry;
-import java.util.TreeMap;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
@@ -80,8 +74,7 @@ public class FlatFileStorage extends VariablesStorage {
 	 * to the {@link #file}.
 	 * <p>
 	 * A Lock on this object must be acquired after connectionLock
-	 * if that lock is used
-	 * (and thus also after {@link Variables#getReadLock()}).
+	 * if that lock is used.
 	 */
 	private final NotifyingReference<PrintWriter> changesWriter = new NotifyingReference<>();
 
@@ -133,12 +126,11 @@ public class FlatFileStorage extends VariablesStorage {
 	}
 
 	/**
-	 * Loads the variables in the CSV file.
+	 * Loads the variables in the CSV file using a {@link CSVVariableLoader}.
 	 * <p>
 	 * Doesn't lock the connection, as required by
 	 * {@link Variables#variableLoaded(String, Object, VariablesStorage)}.
 	 */
-	@SuppressWarnings("deprecation")
 	@Override
 	protected boolean load_i(SectionNode sectionNode) {
 		SkriptLogger.setNode(null);
@@ -150,96 +142,25 @@ public class FlatFileStorage extends VariablesStorage {
 
 		// Keep track of loading errors
 		IOException ioException = null;
-		int unsuccessfulVariableCount = 0;
-		StringBuilder invalid = new StringBuilder();
-
-		// The Skript version this CSV was created with
-		Version csvSkriptVersion;
-
-		// Some variables used to allow legacy CSV files to be loaded
-		Version v2_0_beta3 = new Version(2, 0, "beta 3");
-		boolean update2_0_beta3 = false;
-		Version v2_1 = new Version(2, 1);
-		boolean update2_1 = false;
-
-		try (BufferedReader reader = new BufferedReader(
-				new InputStreamReader(Files.newInputStream(file.toPath()), FILE_CHARSET))) {
-			String line;
-			int lineNum = 0;
-			while ((line = reader.readLine()) != null) {
-				lineNum++;
-
-				line = line.trim();
-
-				if (line.isEmpty() || line.startsWith("#")) {
-					// Line doesn't contain variable
-					if (line.startsWith("# version:")) {
-						// Update the version accordingly
-
-						try {
-							csvSkriptVersion = new Version(line.substring("# version:".length()).trim());
-							update2_0_beta3 = csvSkriptVersion.isSmallerThan(v2_0_beta3);
-							update2_1 = csvSkriptVersion.isSmallerThan(v2_1);
-						} catch (IllegalArgumentException ignored) {
-						}
-					}
-
-					continue;
-				}
-
-				String[] split = splitCSV(line);
-				if (split == null || split.length != 3) {
-					// Invalid CSV line
-
-					Skript.error("invalid amount of commas in line " + lineNum + " ('" + line + "')");
-					if (invalid.length() != 0)
-						invalid.append(", ");
-
-					invalid.append(split == null ? "<unknown>" : split[0]);
-					unsuccessfulVariableCount++;
-					continue;
-				}
-
-				if (split[1].equals("null")) {
-					Variables.variableLoaded(split[0], null, this);
-				} else {
-					Object deserializedValue;
-					if (update2_1) {
-						// Use old deserialization if variables come from old Skript version
-						deserializedValue = Classes.deserialize(split[1], split[2]);
-					} else {
-						deserializedValue = Classes.deserialize(split[1], decode(split[2]));
-					}
-
-					if (deserializedValue == null) {
-						// Couldn't deserialize variable
-						if (invalid.length() != 0)
-							invalid.append(", ");
-
-						invalid.append(split[0]);
-						unsuccessfulVariableCount++;
-						continue;
-					}
-
-					// Legacy
-					if (deserializedValue instanceof String && update2_0_beta3) {
-						deserializedValue = Utils.replaceChatStyles((String) deserializedValue);
-					}
 
-					Variables.variableLoaded(split[0], deserializedValue, this);
-				}
-			}
+		CSVVariableLoader loader = new CSVVariableLoader(this);
+		try {
+			loader.load(file);
 		} catch (IOException e) {
 			loadError = true;
 			ioException = e;
 		}
 
+		int unsuccessfulVariableCount = loader.getUnsuccessfulVariableCount();
+		// Whether the file has to be updated to the format of Skript 2.1
+		boolean update2_1 = loader.isUpdate2_1();
+
 		if (ioException != null || unsuccessfulVariableCount > 0 || update2_1) {
 			// Something's wrong (or just an old version)
 			if (unsuccessfulVariableCount > 0) {
 				Skript.error(unsuccessfulVariableCount + " variable" + (unsuccessfulVariableCount == 1 ? "" : "s") +
 						" could not be loaded!");
-				Skript.error("Affected variables: " + invalid.toString());
+				Skript.error("Affected variables: " + loader.getInvalidVariables());
 			}
 
 			if (ioException != null) {
@@ -395,69 +316,57 @@ public class FlatFileStorage extends VariablesStorage {
 				backupTask.cancel();
 		}
 
-		try {
-			// Acquire read lock
-			Variables.getReadLock().lock();
-
-			synchronized (connectionLock) {
-				try {
-					if (file == null) {
-						// This storage requires a file, so file should be nonnull
-						assert false : this;
-						return;
-					}
+		// The variables are not locked while they are written:
+		//  changes made meanwhile are saved once this storage has reconnected,
+		//  and are thus appended after the rewritten variables.
+		synchronized (connectionLock) {
+			try {
+				if (file == null) {
+					// This storage requires a file, so file should be nonnull
+					assert false : this;
+					return;
+				}
 
-					disconnect();
-
-					if (loadError) {
-						// There was an error while loading the CSV file, create a backup of it
-						try {
-							File backup = FileUtils.backup(file);
-							Skript.info("Created a backup of the old " + file.getName() + " as " + backup.getName());
-							loadError = false;
-						} catch (IOException e) {
-							Skript.error("Could not backup the old " + file.getName() + ": " + ExceptionUtils.toString(e));
-							Skript.error("No variables are saved!");
-							return;
-						}
-					}
+				disconnect();
 
-					// Write the variables to a temporary file, giving less problems if saving fails
-					//  (if saving fails during writing to the actual file,
-					//  the data in the actual file may be partially lost)
-					File tempFile = new File(file.getParentFile(), file.getName() + ".temp");
-
-					try (PrintWriter pw = new PrintWriter(tempFile, "UTF-8")) {
-						pw.println("# === Skript's variable storage ===");
-						pw.println("# Please do not modify this file manually!");
-						pw.println("#");
-						pw.println("# version: " + Skript.getVersion());
-						pw.println();
-						save(pw, "", Variables.getVariables());
-						pw.println();
-						pw.flush();
-						pw.close();
-						FileUtils.move(tempFile, file, true);
+				if (loadError) {
+					// There was an error while loading the CSV file, create a backup of it
+					try {
+						File backup = FileUtils.backup(file);
+						Skript.info("Created a backup of the old " + file.getName() + " as " + backup.getName());
+						loadError = false;
 					} catch (IOException e) {
-						Skript.error("Unable to make a final save of the database '" + databaseName +
-								"' (no variables are lost): " + ExceptionUtils.toString(e));
-						// FIXME happens at random - check locks/threads
-					}
-				} finally {
-					// Reconnect if needed
-					if (!finalSave) {
-						connect();
+						Skript.error("Could not backup the old " + file.getName() + ": " + ExceptionUtils.toString(e));
+						Skript.error("No variables are saved!");
+						return;
 					}
 				}
-			}
-		} finally {
-			Variables.getReadLock().unlock();
-			boolean gotWriteLock = Variables.variablesLock.writeLock().tryLock();
-			if (gotWriteLock) { // Only process queue now if it doesn't require us to wait
-				try {
-					Variables.processChangeQueue();
-				} finally {
-					Variables.variablesLock.writeLock().unlock();
+
+				// Write the variables to a temporary file, giving less problems if saving fails
+				//  (if saving fails during writing to the actual file,
+				//  the data in the actual file may be partially lost)
+				File tempFile = new File(file.getParentFile(), file.getName() + ".temp");
+
+				try (PrintWriter pw = new PrintWriter(tempFile, "UTF-8")) {
+					pw.println("# === Skript's variable storage ===");
+					pw.println("# Please do not modify this file manually!");
+					pw.println("#");
+					pw.println("# version: " + Skript.getVersion());
+					pw.println();
+					save(pw, "", Variables.getVariables());
+					pw.println();
+					pw.flush();
+					pw.close();
+					FileUtils.move(tempFile, file, true);
+				} catch (IOException e) {
+					Skript.error("Unable to make a final save of the database '" + databaseName +
+							"' (no variables are lost): " + ExceptionUtils.toString(e));
+					// FIXME happens at random - check locks/threads
+				}
+			} finally {
+				// Reconnect if needed
+				if (!finalSave) {
+					connect();
 				}
 			}
 		}
@@ -472,44 +381,53 @@ public class FlatFileStorage extends VariablesStorage {
 	 * @param parent The parent's name with {@link Variable#SEPARATOR} at the end.
 	 * @param map the variables map.
 	 */
-	@SuppressWarnings("unchecked")
-	private void save(PrintWriter pw, String parent, TreeMap<String, Object> map) {
+	private void save(PrintWriter pw, String parent, VariablesMap.TreeNode map) {
+		// Save the value of the variable this is the list of, e.g. {list} for {list::*}
+		Object value = map.getValue();
+		if (value != null)
+			save(pw, parent.substring(0, parent.length() - Variable.SEPARATOR.length()), value);
+
 		// Iterate over all children
 		for (Entry<String, Object> childEntry : map.entrySet()) {
 			Object childNode = childEntry.getValue();
 			String childKey = childEntry.getKey();
 
-			if (childNode == null)
-				continue; // Leaf node
-
-			if (childNode instanceof TreeMap) {
-				// TreeMap found, recurse
-				save(pw, parent + childKey + Variable.SEPARATOR, (TreeMap<String, Object>) childNode);
+			if (childNode instanceof VariablesMap.TreeNode) {
+				// TreeNode found, recurse
+				save(pw, parent + childKey + Variable.SEPARATOR, (VariablesMap.TreeNode) childNode);
 			} else {
-				// Remove variable separator if needed
-				String name = childKey == null ? parent.substring(0, parent.length() - Variable.SEPARATOR.length()) : parent + childKey;
-
-				try {
-					// Loop over storages to make sure this variable is ours to store
-					for (VariablesStorage storage : Variables.STORAGES) {
-						if (storage.accept(name)) {
-							if (storage == this) {
-								// Serialize the value
-								SerializedVariable.Value serializedValue = Classes.serialize(childNode);
-
-								// Write the CSV line
-								if (serializedValue != null)
-									writeCSV(pw, name, serializedValue.type, encode(serializedValue.data));
-							}
-
-							break;
-						}
+				save(pw, parent + childKey, childNode);
+			}
+		}
+	}
+
+	/**
+	 * Saves a single variable, if it belongs to this storage.
+	 *
+	 * @param pw the print writer to write the CSV line too.
+	 * @param name the name of the variable.
+	 * @param value the value of the variable.
+	 */
+	private void save(PrintWriter pw, String name, Object value) {
+		try {
+			// Loop over storages to make sure this variable is ours to store
+			for (VariablesStorage storage : Variables.STORAGES) {
+				if (storage.accept(name)) {
+					if (storage == this) {
+						// Serialize the value
+						SerializedVariable.Value serializedValue = Classes.serialize(value);
+
+						// Write the CSV line
+						if (serializedValue != null)
+							writeCSV(pw, name, serializedValue.type, encode(serializedValue.data));
 					}
-				} catch (Exception ex) {
-					//noinspection ThrowableNotThrown
-					Skript.exception(ex, "Error saving variable named " + name);
+
+					break;
 				}
 			}
+		} catch (Exception ex) {
+			//noinspection ThrowableNotThrown
+			Skript.exception(ex, "Error saving variable named " + name);
 		}
 	}
 
@@ -0,0 +1,71 @@
+/**
+ *   This file is part of Skript.
+ *
+ *  Skript is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  Skript is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with Skript.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * Copyright Peter Güttinger, SkriptLang team and contributors
+ */
+package ch.njol.skript.variables;
+
+import ch.njol.skript.lang.Variable;
+import ch.njol.skript.lang.parser.ParserInstance;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Assigns slot indices to the local variables with constant names of a trigger,
+ * so that their values can be stored in an array instead of a hash map.
+ * <p>
+ * Slots are assigned while parsing, see {@link ParserInstance#getLocalVariableSlots()}.
+ * The local variables of an execution only use the slots that existed when they were created,
+ * slots assigned later are treated as if they didn't exist for them.
+ * Only variables whose names don't contain the {@link Variable#SEPARATOR separator} get a slot.
+ */
+public final class LocalVariableSlots {
+
+	private final Map<String, Integer> slots = new ConcurrentHashMap<>();
+	private final AtomicInteger size = new AtomicInteger();
+
+	/**
+	 * Gets the slot of the given variable, assigning a new one if it doesn't have one yet.
+	 *
+	 * @param name the normalised variable name, which must not contain the separator.
+	 * @return the slot of the variable.
+	 */
+	int assignSlot(String name) {
+		assert !name.contains(Variable.SEPARATOR) : name;
+		return slots.computeIfAbsent(name, n -> size.getAndIncrement());
+	}
+
+	/**
+	 * Gets the slot of the given variable.
+	 *
+	 * @param name the normalised variable name.
+	 * @return the slot of the variable, or {@code -1} if it doesn't have one.
+	 */
+	int getSlot(String name) {
+		Integer slot = slots.get(name);
+		return slot == null ? -1 : slot;
+	}
+
+	/**
+	 * @return the amount of slots that have been assigned so far.
+	 */
+	int size() {
+		return size.get();
+	}
+
+}
@@ -22,6 +22,10 @@ import java.io.File;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Map.Entry;
 import java.util.UUID;
 import java.util.concurrent.Callable;
@@ -59,6 +63,12 @@ public abstract class SQLStorage extends VariablesStorage {
 
 	private final static String OLD_TABLE_NAME = "variables";
 
+	/**
+	 * The queries to write and delete a variable, with {@code %s} in place of the table name.
+	 */
+	final static String WRITE_QUERY = "REPLACE INTO %s (name, type, value, update_guid) VALUES (?, ?, ?, ?)",
+			DELETE_QUERY = "DELETE FROM %s WHERE name = ?";
+
 	@Nullable
 	private String formattedCreateQuery;
 	private final String createTableQuery;
@@ -72,10 +82,26 @@ public abstract class SQLStorage extends VariablesStorage {
 	private final static String guid = UUID.randomUUID().toString();
 
 	/**
-	 * The delay between transactions in milliseconds.
+	 * The default delay between transactions in milliseconds.
 	 */
 	private final static long TRANSACTION_DELAY = 500;
 
+	/**
+	 * The delay between transactions in milliseconds, configurable with the 'commit interval' entry.
+	 */
+	private long transactionDelay = TRANSACTION_DELAY;
+
+	/**
+	 * The maximum amount of changes executed in one JDBC batch, configurable with the 'batch size' entry
+	 * up to {@link #MAX_BATCH_SIZE}, as no more changes are saved at once.
+	 */
+	private int batchSize = MAX_BATCH_SIZE;
+
+	/**
+	 * The amount of rows that are read from the database before they are deserialized and loaded together.
+	 */
+	private final static int LOAD_CHUNK_SIZE = 1000;
+
 	/**
 	 * Creates a SQLStorage with a create table query.
 	 * 
@@ -136,6 +162,23 @@ public abstract class SQLStorage extends VariablesStorage {
 			monitor = monitor_changes;
 			this.monitor_interval = monitor_interval.getMilliSeconds();
 
+			if (n.getValue("commit interval") != null) {
+				final Timespan commitInterval = getValue(n, "commit interval", Timespan.class);
+				if (commitInterval == null)
+					return false;
+				transactionDelay = commitInterval.getMilliSeconds();
+			}
+			if (n.getValue("batch size") != null) {
+				final Long batchSize = getValue(n, "batch size", Long.class);
+				if (batchSize == null)
+					return false;
+				if (batchSize < 1 || batchSize > MAX_BATCH_SIZE) {
+					Skript.error("The batch size of the database '" + databaseName + "' must be between 1 and " + MAX_BATCH_SIZE);
+					return false;
+				}
+				this.batchSize = batchSize.intValue();
+			}
+
 			final Database db;
 			try {
 				Database database = initialize(n);
@@ -201,20 +244,15 @@ public abstract class SQLStorage extends VariablesStorage {
 				if (hasOldTable) {
 					if (!hadNewTable) {
 						Skript.info("[2.1] Updating the database '" + databaseName + "' to the new format...");
-						try {
-							Variables.getReadLock().lock();
-							for (final Entry<String, Object> v : Variables.getVariablesHashMap().entrySet()) {
-								if (accept(v.getKey())) {// only one database was possible, so only checking this database is correct
-									@SuppressWarnings("null")
-									final SerializedVariable var = Variables.serialize(v.getKey(), v.getValue());
-									final SerializedVariable.Value d = var.value;
-									save(var.name, d == null ? null : d.type, d == null ? null : d.data);
-								}
+						for (final Entry<String, Object> v : Variables.getVariablesHashMap().entrySet()) {
+							if (accept(v.getKey())) {// only one database was possible, so only checking this database is correct
+								@SuppressWarnings("null")
+								final SerializedVariable var = Variables.serialize(v.getKey(), v.getValue());
+								final SerializedVariable.Value d = var.value;
+								save(var.name, d == null ? null : d.type, d == null ? null : d.data);
 							}
-							Skript.info("Updated and transferred " + Variables.getVariablesHashMap().size() + " variables to the new table.");
-						} finally {
-							Variables.getReadLock().unlock();
 						}
+						Skript.info("Updated and transferred " + Variables.getVariablesHashMap().size() + " variables to the new table.");
 					}
 					db.query("DELETE FROM " + OLD_TABLE_NAME + " WHERE value IS NULL");
 					db.query("DELETE FROM old USING " + OLD_TABLE_NAME + " AS old, " + getTableName() + " AS new WHERE old.name = new.name");
@@ -292,7 +330,7 @@ public abstract class SQLStorage extends VariablesStorage {
 						lastCommit = System.currentTimeMillis();
 					}
 					try {
-						Thread.sleep(Math.max(0, lastCommit + TRANSACTION_DELAY - System.currentTimeMillis()));
+						Thread.sleep(Math.max(0, lastCommit + transactionDelay - System.currentTimeMillis()));
 					} catch (final InterruptedException e) {}
 				}
 			}
@@ -381,13 +419,13 @@ public abstract class SQLStorage extends VariablesStorage {
 					if (writeQuery != null)
 						writeQuery.close();
 				} catch (final SQLException e) {}
-				writeQuery = db.prepare("REPLACE INTO " + getTableName() + " (name, type, value, update_guid) VALUES (?, ?, ?, ?)");
+				writeQuery = db.prepare(String.format(WRITE_QUERY, getTableName()));
 
 				try {
 					if (deleteQuery != null)
 						deleteQuery.close();
 				} catch (final SQLException e) {}
-				deleteQuery = db.prepare("DELETE FROM " + getTableName() + " WHERE name = ?");
+				deleteQuery = db.prepare(String.format(DELETE_QUERY, getTableName()));
 
 				try {
 					if (monitorQuery != null)
@@ -450,11 +488,7 @@ public abstract class SQLStorage extends VariablesStorage {
 	@Override
 	protected boolean save(final String name, final @Nullable String type, final @Nullable byte[] value) {
 		synchronized (db) {
-			// REMIND get the actual maximum size from the database
-			if (name.length() > MAX_VARIABLE_NAME_LENGTH)
-				Skript.error("The name of the variable {" + name + "} is too long to be saved in a database (length: " + name.length() + ", maximum allowed: " + MAX_VARIABLE_NAME_LENGTH + ")! It will be truncated and won't bet available under the same name again when loaded.");
-			if (value != null && value.length > MAX_VALUE_SIZE)
-				Skript.error("The variable {" + name + "} cannot be saved in the database as its value's size (" + value.length + ") exceeds the maximum allowed size of " + MAX_VALUE_SIZE + "! An attempt to save the variable will be made nonetheless.");
+			checkSize(name, value);
 			try {
 				if (type == null) {
 					assert value == null;
@@ -480,6 +514,85 @@ public abstract class SQLStorage extends VariablesStorage {
 		return true;
 	}
 
+	/**
+	 * Saves the batch using JDBC batches of at most {@link #batchSize} statements.
+	 * Only the last change of each variable in the batch is written.
+	 */
+	@Override
+	protected void save(final List<SerializedVariable> batch) {
+		if (batch.size() == 1) {
+			super.save(batch);
+			return;
+		}
+
+		// Only the last change of each variable needs to be written
+		final Map<String, SerializedVariable> changes = new LinkedHashMap<>();
+		for (final SerializedVariable variable : batch)
+			changes.put(variable.name, variable);
+
+		synchronized (db) {
+			final PreparedStatement writeQuery = this.writeQuery;
+			final PreparedStatement deleteQuery = this.deleteQuery;
+			assert writeQuery != null && deleteQuery != null;
+			try {
+				executeBatches(changes.values(), writeQuery, deleteQuery, batchSize);
+			} catch (final SQLException e) {
+				sqlException(e);
+			}
+		}
+	}
+
+	/**
+	 * Executes the given changes as JDBC batches.
+	 *
+	 * @param changes the changes, at most one for each variable.
+	 * @param writeQuery the prepared {@link #WRITE_QUERY}.
+	 * @param deleteQuery the prepared {@link #DELETE_QUERY}.
+	 * @param batchSize the maximum amount of statements in one batch.
+	 */
+	static void executeBatches(final Iterable<SerializedVariable> changes, final PreparedStatement writeQuery,
+			final PreparedStatement deleteQuery, final int batchSize) throws SQLException {
+		int writes = 0, deletes = 0;
+		for (final SerializedVariable variable : changes) {
+			final SerializedVariable.Value value = variable.value;
+			checkSize(variable.name, value == null ? null : value.data);
+			if (value == null) {
+				deleteQuery.setString(1, variable.name);
+				deleteQuery.addBatch();
+				if (++deletes == batchSize) {
+					deleteQuery.executeBatch();
+					deletes = 0;
+				}
+			} else {
+				int i = 1;
+				writeQuery.setString(i++, variable.name);
+				writeQuery.setString(i++, value.type);
+				writeQuery.setBytes(i++, value.data); // SQLite desn't support setBlob
+				writeQuery.setString(i++, guid);
+				writeQuery.addBatch();
+				if (++writes == batchSize) {
+					writeQuery.executeBatch();
+					writes = 0;
+				}
+			}
+		}
+		if (deletes != 0)
+			deleteQuery.executeBatch();
+		if (writes != 0)
+			writeQuery.executeBatch();
+	}
+
+	/**
+	 * Prints an error if the given variable is too large to be stored properly.
+	 */
+	private static void checkSize(final String name, final @Nullable byte[] value) {
+		// REMIND get the actual maximum size from the database
+		if (name.length() > MAX_VARIABLE_NAME_LENGTH)
+			Skript.error("The name of the variable {" + name + "} is too long to be saved in a database (length: " + name.length() + ", maximum allowed: " + MAX_VARIABLE_NAME_LENGTH + ")! It will be truncated and won't bet available under the same name again when loaded.");
+		if (value != null && value.length > MAX_VALUE_SIZE)
+			Skript.error("The variable {" + name + "} cannot be saved in the database as its value's size (" + value.length + ") exceeds the maximum allowed size of " + MAX_VALUE_SIZE + "! An attempt to save the variable will be made nonetheless.");
+	}
+
 	@Override
 	public void close() {
 		synchronized (db) {
@@ -562,79 +675,112 @@ public abstract class SQLStorage extends VariablesStorage {
 //	final static LinkedList<VariableInfo> syncDeserializing = new LinkedList<VariableInfo>();
 
 	/**
+	 * A row read from the database, waiting to be deserialized and loaded.
+	 */
+	private final static class LoadedRow {
+
+		final String name;
+		@Nullable
+		final ClassInfo<?> type;
+		@Nullable
+		final byte[] data;
+		@Nullable
+		Object value;
+
+		LoadedRow(final String name, final @Nullable ClassInfo<?> type, final @Nullable byte[] data) {
+			this.name = name;
+			this.type = type;
+			this.data = data;
+		}
+
+		/**
+		 * @return whether this row's value must be deserialized on the main thread.
+		 */
+		boolean mustSyncDeserialization() {
+			final ClassInfo<?> type = this.type;
+			assert type != null;
+			final Serializer<?> serializer = type.getSerializer();
+			return serializer == null || serializer.mustSyncDeserialization();
+		}
+
+		void deserialize() {
+			final ClassInfo<?> type = this.type;
+			final byte[] data = this.data;
+			assert type != null && data != null;
+			value = Classes.deserialize(type, data);
+		}
+
+	}
+
+	/**
+	 * Reads the rows of the result set in chunks of {@link #LOAD_CHUNK_SIZE}.
+	 * Values that may be deserialized off the main thread are deserialized in parallel,
+	 * and only the remaining values and the loading of the variables are done on the main thread.
+	 * <p>
 	 * Doesn't lock the database - {@link #save(String, String, byte[])} does that // what?
 	 */
 	private void loadVariables(final ResultSet r) throws SQLException {
-//		assert !Thread.holdsLock(db);
-//		synchronized (syncDeserializing) {
+		final List<LoadedRow> chunk = new ArrayList<>(LOAD_CHUNK_SIZE);
+		while (r.next()) {
+			int i = 1;
+			final String name = r.getString(i++);
+			if (name == null) {
+				Skript.error("Variable with NULL name found in the database '" + databaseName + "', ignoring it");
+				continue;
+			}
+			final String type = r.getString(i++);
+			final byte[] value = r.getBytes(i++); // Blob not supported by SQLite
+			lastRowID = r.getLong(i++);
+			if (value == null) {
+				chunk.add(new LoadedRow(name, null, null));
+			} else {
+				final ClassInfo<?> c = Classes.getClassInfoNoError(type);
+				if (c == null || c.getSerializer() == null) {
+					Skript.error("Cannot load the variable {" + name + "} from the database '" + databaseName + "', because the type '" + type + "' cannot be recognised or cannot be stored in variables");
+					continue;
+				}
+				chunk.add(new LoadedRow(name, c, value));
+			}
 
-		final SQLException e = Task.callSync(new Callable<SQLException>() {
+			if (chunk.size() == LOAD_CHUNK_SIZE) {
+				loadChunk(chunk);
+				chunk.clear();
+			}
+		}
+		if (!chunk.isEmpty())
+			loadChunk(chunk);
+	}
+
+	/**
+	 * Deserializes and loads the given rows.
+	 */
+	private void loadChunk(final List<LoadedRow> chunk) {
+		chunk.parallelStream()
+			.filter(row -> row.data != null && !row.mustSyncDeserialization())
+			.forEach(LoadedRow::deserialize);
+
+		Task.callSync(new Callable<Void>() {
 			@Override
 			@Nullable
-			public SQLException call() throws Exception {
-				try {
-					while (r.next()) {
-						int i = 1;
-						final String name = r.getString(i++);
-						if (name == null) {
-							Skript.error("Variable with NULL name found in the database '" + databaseName + "', ignoring it");
-							continue;
-						}
-						final String type = r.getString(i++);
-						final byte[] value = r.getBytes(i++); // Blob not supported by SQLite
-						lastRowID = r.getLong(i++);
-						if (value == null) {
-							Variables.variableLoaded(name, null, SQLStorage.this);
-						} else {
-							final ClassInfo<?> c = Classes.getClassInfoNoError(type);
-							@SuppressWarnings("unused")
-							Serializer<?> s;
-							if (c == null || (s = c.getSerializer()) == null) {
-								Skript.error("Cannot load the variable {" + name + "} from the database '" + databaseName + "', because the type '" + type + "' cannot be recognised or cannot be stored in variables");
-								continue;
-							}
-//					if (s.mustSyncDeserialization()) {
-//						syncDeserializing.add(new VariableInfo(name, value, c));
-//					} else {
-							final Object d = Classes.deserialize(c, value);
-							if (d == null) {
-								Skript.error("Cannot load the variable {" + name + "} from the database '" + databaseName + "', because it cannot be loaded as " + c.getName().withIndefiniteArticle());
-								continue;
-							}
-							Variables.variableLoaded(name, d, SQLStorage.this);
-//					}
-						}
+			public Void call() {
+				for (final LoadedRow row : chunk) {
+					if (row.data == null) {
+						Variables.variableLoaded(row.name, null, SQLStorage.this);
+						continue;
 					}
-				} catch (final SQLException e) {
-					return e;
+					if (row.mustSyncDeserialization())
+						row.deserialize();
+					final ClassInfo<?> c = row.type;
+					assert c != null;
+					if (row.value == null) {
+						Skript.error("Cannot load the variable {" + row.name + "} from the database '" + databaseName + "', because it cannot be loaded as " + c.getName().withIndefiniteArticle());
+						continue;
+					}
+					Variables.variableLoaded(row.name, row.value, SQLStorage.this);
 				}
 				return null;
 			}
 		});
-		if (e != null)
-			throw e;
-
-//			if (!syncDeserializing.isEmpty()) {
-//				Task.callSync(new Callable<Void>() {
-//					@Override
-//					@Nullable
-//					public Void call() throws Exception {
-//						synchronized (syncDeserializing) {
-//							for (final VariableInfo o : syncDeserializing) {
-//								final Object d = Classes.deserialize(o.ci, o.value);
-//								if (d == null) {
-//									Skript.error("Cannot load the variable {" + o.name + "} from the database " + databaseName + ", because it cannot be loaded as a " + o.ci.getName());
-//									continue;
-//								}
-//								Variables.variableLoaded(o.name, d, DatabaseStorage.this);
-//							}
-//							syncDeserializing.clear();
-//							return null;
-//						}
-//					}
-//				});
-//			}
-//		}
 	}
 
 //	private final static class OldVariableInfo {
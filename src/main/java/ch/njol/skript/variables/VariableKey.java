@@ -0,0 +1,156 @@
+/**
+ *   This file is part of Skript.
+ *
+ *  Skript is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  Skript is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with Skript.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * Copyright Peter Güttinger, SkriptLang team and contributors
+ */
+package ch.njol.skript.variables;
+
+import ch.njol.skript.lang.Variable;
+import org.eclipse.jdt.annotation.Nullable;
+
+import java.util.Locale;
+
+/**
+ * The name of a variable, normalised according to {@link Variables#caseInsensitiveVariables},
+ * and split into its parts on first use.
+ * <p>
+ * Keys of variables with constant names can be created once when the script is parsed,
+ * so that accessing the variable requires neither lowercasing nor splitting its name.
+ */
+public final class VariableKey {
+
+	private final String name;
+
+	/**
+	 * The parts of the name, separated by {@link Variable#SEPARATOR},
+	 * or {@code null} if they haven't been needed yet.
+	 * Keys are shared between threads, so this is volatile for the array to be published safely.
+	 * Splitting the name twice is harmless.
+	 */
+	@Nullable
+	private volatile String[] parts;
+
+	/**
+	 * The slots this key's {@link #slot} was assigned by, if this is the key of a local variable.
+	 */
+	@Nullable
+	private final LocalVariableSlots slots;
+	private final int slot;
+
+	private VariableKey(String name) {
+		this(name, null, -1);
+	}
+
+	private VariableKey(String name, @Nullable LocalVariableSlots slots, int slot) {
+		this.name = name;
+		this.slots = slots;
+		this.slot = slot;
+	}
+
+	/**
+	 * Creates the key of the given variable name.
+	 *
+	 * @param name the variable name, possibly a list variable.
+	 * @return the key.
+	 */
+	public static VariableKey of(String name) {
+		return new VariableKey(Variables.caseInsensitiveVariables ? name.toLowerCase(Locale.ENGLISH) : name);
+	}
+
+	/**
+	 * Creates the key of the given local variable name, which has a constant name,
+	 * and assigns it a slot from the given slots if possible.
+	 *
+	 * @param name the variable name, possibly a list variable.
+	 * @param slots the local variable slots of the trigger the variable is used in.
+	 * @return the key.
+	 */
+	public static VariableKey local(String name, LocalVariableSlots slots) {
+		if (Variables.caseInsensitiveVariables)
+			name = name.toLowerCase(Locale.ENGLISH);
+		return new VariableKey(name, slots, name.contains(Variable.SEPARATOR) ? -1 : slots.assignSlot(name));
+	}
+
+	/**
+	 * Creates the key of the given variable name, which has already been normalised.
+	 *
+	 * @param name the normalised variable name.
+	 * @return the key.
+	 */
+	static VariableKey ofNormalised(String name) {
+		return new VariableKey(name);
+	}
+
+	/**
+	 * @return the normalised name of the variable.
+	 */
+	public String getName() {
+		return name;
+	}
+
+	/**
+	 * @return whether this is the key of a list variable, i.e. ends with {@code ::*}.
+	 */
+	public boolean isList() {
+		return name.endsWith("*");
+	}
+
+	/**
+	 * @return the local variable slots that {@link #getSlot()} was assigned by,
+	 * or {@code null} if this key doesn't belong to any.
+	 */
+	@Nullable
+	LocalVariableSlots getSlots() {
+		return slots;
+	}
+
+	/**
+	 * @return the slot of this local variable in {@link #getSlots()}, or {@code -1} if it doesn't have one.
+	 */
+	int getSlot() {
+		return slot;
+	}
+
+	/**
+	 * Gets the parts of the name, as split by {@link Variables#splitVariableName(String)}.
+	 * <p>
+	 * <b>Do not modify the returned array!</b>
+	 *
+	 * @return the parts of the name.
+	 */
+	public String[] getParts() {
+		String[] parts = this.parts;
+		if (parts == null)
+			this.parts = parts = Variables.splitVariableName(name);
+		return parts;
+	}
+
+	@Override
+	public boolean equals(@Nullable Object obj) {
+		return obj == this || obj instanceof VariableKey && ((VariableKey) obj).name.equals(name);
+	}
+
+	@Override
+	public int hashCode() {
+		return name.hashCode();
+	}
+
+	@Override
+	public String toString() {
+		return name;
+	}
+
+}
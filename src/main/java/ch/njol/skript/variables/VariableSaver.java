@@ -0,0 +1,246 @@
+/**
+ *   This file is part of Skript.
+ *
+ *  Skript is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  Skript is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with Skript.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * Copyright Peter Güttinger, SkriptLang team and contributors
+ */
+package ch.njol.skript.variables;
+
+import ch.njol.skript.Skript;
+import ch.njol.skript.classes.ClassInfo;
+import ch.njol.skript.classes.Serializer;
+import ch.njol.skript.registrations.Classes;
+import ch.njol.skript.variables.SerializedVariable.Value;
+import org.eclipse.jdt.annotation.Nullable;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Serializes changed global variables and hands them to the {@link VariablesStorage}s.
+ * <p>
+ * Changes are queued per variable name, and only the latest change of a variable
+ * that has not been saved yet is kept. Values whose {@link Serializer} requires the main thread
+ * are serialized when they are queued, all others are {@link Classes#clone(Object) cloned}
+ * and serialized by one of the save threads.
+ * <p>
+ * Each variable name is always handled by the same save thread,
+ * so that changes of a variable reach the storages in the order they were made.
+ */
+final class VariableSaver {
+
+	/**
+	 * A queued change of a variable.
+	 */
+	private static final class Change {
+
+		/**
+		 * The value to serialize on a save thread, if {@link #serialized} is {@code false}.
+		 */
+		@Nullable
+		final Object value;
+
+		/**
+		 * The already serialized value, if {@link #serialized} is {@code true}.
+		 */
+		@Nullable
+		final Value serializedValue;
+
+		final boolean serialized;
+
+		/**
+		 * The time this change was queued at, in nanoseconds.
+		 */
+		final long queuedAt = System.nanoTime();
+
+		Change(@Nullable Object value, @Nullable Value serializedValue, boolean serialized) {
+			this.value = value;
+			this.serializedValue = serializedValue;
+			this.serialized = serialized;
+		}
+
+	}
+
+	/**
+	 * A save thread, with the changes of the variable names it handles.
+	 */
+	private final class Worker implements Runnable {
+
+		/**
+		 * The latest unsaved change of each variable.
+		 */
+		final ConcurrentHashMap<String, Change> changes = new ConcurrentHashMap<>();
+
+		/**
+		 * The variable names in {@link #changes}, in the order they were first changed.
+		 */
+		final LinkedBlockingQueue<String> order = new LinkedBlockingQueue<>();
+
+		@Override
+		public void run() {
+			while (!closed) {
+				try {
+					String name = order.take();
+					Change change = changes.remove(name);
+					if (change == null) {
+						assert false : name;
+						continue;
+					}
+
+					try {
+						save(name, change);
+					} finally {
+						unsavedChanges.decrementAndGet();
+						savedChanges.increment();
+						totalLatency.add(System.nanoTime() - change.queuedAt);
+					}
+				} catch (InterruptedException ignored) {
+					// Ignored as the `closed` field will indicate whether the thread actually needs to stop
+				}
+			}
+		}
+
+	}
+
+	private final Worker[] workers;
+
+	private final Thread[] threads;
+
+	/**
+	 * The amount of queued changes that have not been handed to a storage yet.
+	 */
+	private final AtomicInteger unsavedChanges = new AtomicInteger();
+
+	/**
+	 * The amount of changes that have been handed to a storage.
+	 */
+	private final LongAdder savedChanges = new LongAdder();
+
+	/**
+	 * The total time between queueing and handing changes to a storage, in nanoseconds.
+	 */
+	private final LongAdder totalLatency = new LongAdder();
+
+	/**
+	 * Whether the save threads should be stopped.
+	 */
+	private volatile boolean closed = false;
+
+	VariableSaver(int threadCount) {
+		assert threadCount > 0;
+		workers = new Worker[threadCount];
+		threads = new Thread[threadCount];
+		for (int i = 0; i < threadCount; i++) {
+			workers[i] = new Worker();
+			threads[i] = Skript.newThread(workers[i], "Skript variable save thread #" + (i + 1));
+		}
+	}
+
+	/**
+	 * Starts the save threads.
+	 */
+	void start() {
+		for (Thread thread : threads)
+			thread.start();
+	}
+
+	/**
+	 * Queues the change of a global variable to be saved.
+	 * <p>
+	 * The caller must hold the {@link VariablesMap#getLock(String) lock} of the variable,
+	 * so that changes of the same variable are queued in order.
+	 *
+	 * @param name the variable name.
+	 * @param value the new value of the variable, {@code null} if it was deleted.
+	 */
+	void queue(String name, @Nullable Object value) {
+		Change change;
+		if (value == null) {
+			change = new Change(null, null, true);
+		} else {
+			ClassInfo<?> classInfo = Classes.getSuperClassInfo(value.getClass());
+			Serializer<?> serializer = classInfo.getSerializer();
+			if (serializer == null || serializer.mustSyncDeserialization()) {
+				change = new Change(null, Variables.serialize(name, value).value, true);
+			} else {
+				change = new Change(Classes.clone(value), null, false);
+			}
+		}
+
+		Worker worker = workers[(name.hashCode() & Integer.MAX_VALUE) % workers.length];
+		if (worker.changes.put(name, change) == null) {
+			unsavedChanges.incrementAndGet();
+			worker.order.add(name);
+		}
+	}
+
+	/**
+	 * Serializes the change if needed, and hands it to the storage that accepts the variable.
+	 */
+	private static void save(String name, Change change) {
+		Value value;
+		if (change.serialized) {
+			value = change.serializedValue;
+		} else {
+			try {
+				value = Classes.serialize(change.value);
+			} catch (Exception e) {
+				//noinspection ThrowableNotThrown
+				Skript.exception(e, "Error saving variable named " + name);
+				return;
+			}
+		}
+
+		for (VariablesStorage variablesStorage : Variables.STORAGES) {
+			if (variablesStorage.accept(name)) {
+				variablesStorage.save(new SerializedVariable(name, value));
+				break;
+			}
+		}
+	}
+
+	/**
+	 * @return the amount of queued changes that have not been handed to a storage yet.
+	 */
+	int getQueueSize() {
+		return unsavedChanges.get();
+	}
+
+	/**
+	 * @return the average time between queueing a change and handing it to a storage, in milliseconds.
+	 */
+	double getAverageLatency() {
+		long saved = savedChanges.sum();
+		return saved == 0 ? 0 : totalLatency.sum() / (saved * 1_000_000.0);
+	}
+
+	/**
+	 * Waits for all queued changes to be handed to the storages, then stops the save threads.
+	 */
+	void close() {
+		while (unsavedChanges.get() > 0) {
+			try {
+				Thread.sleep(10);
+			} catch (InterruptedException ignored) {}
+		}
+
+		closed = true;
+		for (Thread thread : threads)
+			thread.interrupt();
+	}
+
+}
@@ -48,23 +48,16 @@ import com.google.common.collect.Multimap;
 import java.lang.reflect.Constructor;
 import java.lang.reflect.InvocationTargetException;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Optional;
-import java.util.Queue;
-import java.util.TreeMap;
-import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.ConcurrentLinkedQueue;
-import java.util.concurrent.LinkedBlockingQueue;
-import java.util.concurrent.locks.Lock;
-import java.util.concurrent.locks.ReadWriteLock;
-import java.util.concurrent.locks.ReentrantReadWriteLock;
-import java.util.regex.Pattern;
 
 /**
  * Handles all things related to variables.
@@ -102,6 +95,7 @@ public class Variables {
 		registerStorage(FlatFileStorage.class, "csv", "file", "flatfile");
 		registerStorage(SQLiteStorage.class, "sqlite");
 		registerStorage(MySQLStorage.class, "mysql");
+		registerStorage(BinaryLogStorage.class, "binlog");
 		yggdrasil.registerSingleClass(Kleenean.class, "Kleenean");
 		// Register ConfigurationSerializable, Bukkit's serialization system
 		yggdrasil.registerClassResolver(new ConfigurationSerializer<ConfigurationSerializable>() {
@@ -302,50 +296,159 @@ public class Variables {
 			// Interrupt the loading logger thread to make it exit earlier
 			loadingLoggerThread.interrupt();
 
-			saveThread.start();
+			saver.start();
 		}
 		return true;
 	}
 
-	/**
-	 * A pattern to split variable names using {@link Variable#SEPARATOR}.
-	 */
-	private static final Pattern VARIABLE_NAME_SPLIT_PATTERN = Pattern.compile(Pattern.quote(Variable.SEPARATOR));
-
 	/**
 	 * Splits the given variable name into its parts,
 	 * separated by {@link Variable#SEPARATOR}.
+	 * <p>
+	 * Like {@link String#split(String)}, trailing empty parts are removed.
 	 *
 	 * @param name the variable name.
 	 * @return the parts.
 	 */
 	public static String[] splitVariableName(String name) {
-		return VARIABLE_NAME_SPLIT_PATTERN.split(name);
+		int separatorLength = Variable.SEPARATOR.length();
+
+		int index = name.indexOf(Variable.SEPARATOR);
+		if (index == -1)
+			return new String[] {name};
+
+		// Count the parts first to allocate the array only once
+		int count = 1;
+		for (int i = index; i != -1; i = name.indexOf(Variable.SEPARATOR, i + separatorLength))
+			count++;
+
+		String[] parts = new String[count];
+		int start = 0;
+		for (int i = 0; i < count - 1; i++) {
+			index = name.indexOf(Variable.SEPARATOR, start);
+			parts[i] = name.substring(start, index);
+			start = index + separatorLength;
+		}
+		parts[count - 1] = name.substring(start);
+
+		// Remove trailing empty parts
+		int length = count;
+		while (length > 0 && parts[length - 1].isEmpty())
+			length--;
+		return length == count ? parts : Arrays.copyOf(parts, length);
 	}
 
 	/**
-	 * A lock for reading and writing variables.
+	 * The {@link VariablesMap} storing global variables.
+	 * It may be read from any thread without locking.
 	 */
-	static final ReadWriteLock variablesLock = new ReentrantReadWriteLock(true);
+	static final VariablesMap variables = VariablesMap.createGlobal();
 
 	/**
-	 * The {@link VariablesMap} storing global variables,
-	 * must be locked with {@link #variablesLock}.
+	 * A map storing the local variables of events that aren't
+	 * {@link #pushLocals(Event, LocalVariableSlots) being executed} on the current thread,
+	 * e.g. those restored after a delay, indexed by their {@link Event}.
 	 */
-	static final VariablesMap variables = new VariablesMap();
+	private static final Map<Event, VariablesMap> localVariables = new ConcurrentHashMap<>();
 
 	/**
-	 * A map storing all local variables,
-	 * indexed by their {@link Event}.
+	 * The local variables of an event whose trigger is being executed on a thread.
 	 */
-	private static final Map<Event, VariablesMap> localVariables = new ConcurrentHashMap<>();
+	private static final class Frame {
+
+		private final Event event;
+		@Nullable
+		private final LocalVariableSlots slots;
+		@Nullable
+		private final Frame previous;
+
+		/**
+		 * The local variables, created when the first one is set.
+		 */
+		@Nullable
+		private VariablesMap locals;
+
+		private Frame(Event event, @Nullable LocalVariableSlots slots, @Nullable Frame previous) {
+			this.event = event;
+			this.slots = slots;
+			this.previous = previous;
+		}
+
+	}
 
 	/**
-	 * Gets the {@link TreeMap} of all global variables.
+	 * The innermost {@link Frame} being executed on each thread,
+	 * which links to the frames of the executions it is nested in (e.g. function calls).
+	 */
+	private static final ThreadLocal<Frame> frames = new ThreadLocal<>();
+
+	/**
+	 * Starts a new frame of local variables for the given event on the current thread.
+	 * Until it is {@link #popLocals(Event) popped}, the local variables of the event are
+	 * resolved without looking the event up in a global map.
 	 * <p>
-	 * Remember to lock with {@link #getReadLock()} and to not make any changes!
+	 * Local variables that were set for the event before are moved into the frame.
+	 * If the innermost frame on this thread already belongs to the given event,
+	 * no new frame is started and that frame is used instead.
+	 *
+	 * @param event the event that is about to be executed.
+	 * @param slots the local variable slots of the trigger being executed.
+	 * @return whether a new frame was started, in which case {@link #popLocals(Event)} must be called after the execution.
 	 */
-	static TreeMap<String, Object> getVariables() {
+	public static boolean pushLocals(Event event, @Nullable LocalVariableSlots slots) {
+		Frame previous = frames.get();
+		if (previous != null && previous.event == event)
+			return false;
+
+		Frame frame = new Frame(event, slots, previous);
+		if (!localVariables.isEmpty())
+			frame.locals = localVariables.remove(event);
+		frames.set(frame);
+		return true;
+	}
+
+	/**
+	 * Ends the innermost frame of local variables on the current thread, which must belong to the given event,
+	 * and discards its local variables.
+	 * Use {@link #removeLocals(Event)} before this to keep them, e.g. to continue executing after a delay.
+	 *
+	 * @param event the event whose execution ended.
+	 * @see #pushLocals(Event, LocalVariableSlots)
+	 */
+	public static void popLocals(Event event) {
+		Frame frame = frames.get();
+		assert frame != null && frame.event == event : event;
+		if (frame != null)
+			frames.set(frame.previous);
+	}
+
+	/**
+	 * @return the frame of the given event if it is the innermost frame on the current thread, {@code null} otherwise.
+	 */
+	@Nullable
+	private static Frame getFrame(@Nullable Event event) {
+		Frame frame = frames.get();
+		return frame != null && frame.event == event ? frame : null;
+	}
+
+	/**
+	 * @return the local variables of the given event, or {@code null} if it has none.
+	 */
+	@Nullable
+	private static VariablesMap getLocals(Event event) {
+		Frame frame = getFrame(event);
+		if (frame != null)
+			return frame.locals;
+		return localVariables.get(event);
+	}
+
+	/**
+	 * Gets the tree of all global variables.
+	 * <p>
+	 * Iterating it while variables are changed is safe, but it is only weakly consistent.
+	 * Do not make any changes!
+	 */
+	static VariablesMap.TreeNode getVariables() {
 		return variables.treeMap;
 	}
 
@@ -353,23 +456,12 @@ public class Variables {
 	 * Gets the {@link Map} of all global variables.
 	 * <p>
 	 * This map cannot be modified.
-	 * Remember to lock with {@link #getReadLock()}!
+	 * Iterating it while variables are changed is safe, but it is only weakly consistent.
 	 */
 	static Map<String, Object> getVariablesHashMap() {
 		return Collections.unmodifiableMap(variables.hashMap);
 	}
 
-	/**
-	 * Gets the lock for reading variables.
-	 *
-	 * @return the lock.
-	 *
-	 * @see #variablesLock
-	 */
-	static Lock getReadLock() {
-		return variablesLock.readLock();
-	}
-
 	/**
 	 * Removes local variables associated with given event and returns them,
 	 * if they exist.
@@ -380,6 +472,12 @@ public class Variables {
 	 */
 	@Nullable
 	public static VariablesMap removeLocals(Event event) {
+		Frame frame = getFrame(event);
+		if (frame != null) {
+			VariablesMap locals = frame.locals;
+			frame.locals = null;
+			return locals;
+		}
 		return localVariables.remove(event);
 	}
 
@@ -395,13 +493,62 @@ public class Variables {
 	 * @param map the new local variables.
 	 */
 	public static void setLocalVariables(Event event, @Nullable Object map) {
-		if (map != null) {
+		Frame frame = getFrame(event);
+		if (frame != null) {
+			frame.locals = (VariablesMap) map;
+		} else if (map != null) {
 			localVariables.put(event, (VariablesMap) map);
 		} else {
 			removeLocals(event);
 		}
 	}
 
+	/**
+	 * Gets the state that the given key, usually a syntax element, keeps for the execution of the given event.
+	 *
+	 * @param event the event being executed.
+	 * @param key the key.
+	 * @return the state, or {@code null} if the key has none for this execution.
+	 * @see #setExecutionState(Event, Object, Object)
+	 */
+	@Nullable
+	public static Object getExecutionState(Event event, Object key) {
+		VariablesMap locals = getLocals(event);
+		return locals == null ? null : locals.getExecutionState(key);
+	}
+
+	/**
+	 * Sets the state that the given key, usually a syntax element, keeps for the execution of the given event,
+	 * e.g. the iterator of a loop.
+	 * <p>
+	 * Execution state is kept with the local variables of the event, so it belongs to a single execution,
+	 * is kept across delays and is discarded with the local variables when the execution ends.
+	 * As an execution only runs on one thread at a time, it doesn't need to be thread-safe.
+	 *
+	 * @param event the event being executed.
+	 * @param key the key.
+	 * @param state the state, or {@code null} to remove it.
+	 */
+	public static void setExecutionState(Event event, Object key, @Nullable Object state) {
+		VariablesMap locals;
+		Frame frame = getFrame(event);
+		if (frame != null) {
+			locals = frame.locals;
+			if (locals == null) {
+				if (state == null)
+					return;
+				frame.locals = locals = new VariablesMap(frame.slots);
+			}
+		} else if (state == null) {
+			locals = localVariables.get(event);
+			if (locals == null)
+				return;
+		} else {
+			locals = localVariables.computeIfAbsent(event, e -> new VariablesMap());
+		}
+		locals.setExecutionState(key, state);
+	}
+
 	/**
 	 * Creates a copy of the {@link VariablesMap} for local variables
 	 * in an event.
@@ -411,7 +558,7 @@ public class Variables {
 	 */
 	@Nullable
 	public static Object copyLocalVariables(Event event) {
-		VariablesMap from = localVariables.get(event);
+		VariablesMap from = getLocals(event);
 		if (from == null)
 			return null;
 
@@ -436,44 +583,56 @@ public class Variables {
 	// TODO don't expose the internal value, bad API
 	@Nullable
 	public static Object getVariable(String name, @Nullable Event event, boolean local) {
-		String n;
-		if (caseInsensitiveVariables) {
-			n = name.toLowerCase(Locale.ENGLISH);
-		} else {
-			n = name;
-		}
+		return getVariable(VariableKey.of(name), event, local);
+	}
 
+	/**
+	 * Returns the internal value of the requested variable.
+	 * <p>
+	 * <b>Do not modify the returned value!</b>
+	 * <p>
+	 * This does not take into consideration default variables. You must use get methods from {@link ch.njol.skript.lang.Variable}
+	 *
+	 * @param key the variable's key.
+	 * @param event if {@code local} is {@code true}, this is the event
+	 *                 the local variable resides in.
+	 * @param local if this variable is a local or global variable.
+	 * @return an {@link Object} for a normal variable
+	 * or a {@code Map<String, Object>} for a list variable,
+	 * or {@code null} if the variable is not set.
+	 */
+	@Nullable
+	public static Object getVariable(VariableKey key, @Nullable Event event, boolean local) {
 		if (local) {
-			VariablesMap map = localVariables.get(event);
+			assert event != null : key;
+			VariablesMap map = getLocals(event);
 			if (map == null)
 				return null;
 
-			return map.getVariable(n);
+			return map.getVariable(key);
 		} else {
-			// Prevent race conditions from returning variables with incorrect values
-			if (!changeQueue.isEmpty()) {
-				// Gets the last VariableChange made
-				VariableChange variableChange = changeQueue.stream()
-						.filter(change -> change.name.equals(n))
-						.reduce((first, second) -> second)
-								// Gets last value, as iteration is from head to tail,
-								//  and adding occurs at the tail (and we want the most recently added)
-						.orElse(null);
-
-				if (variableChange != null) {
-					return variableChange.value;
-				}
-			}
-
-			try {
-				variablesLock.readLock().lock();
-				return variables.getVariable(n);
-			} finally {
-				variablesLock.readLock().unlock();
-			}
+			return variables.getVariable(key);
 		}
 	}
 
+	/**
+	 * Iterates the elements of a list variable as they were when the iteration started,
+	 * like a loop over the list does: elements added while iterating are not visited,
+	 * and elements that are deleted or changed before they are reached are skipped or visited with their new value.
+	 * <p>
+	 * This doesn't copy the list unless it is changed while iterating it.
+	 *
+	 * @param list the value of a list variable, as returned by {@link #getVariable(VariableKey, Event, boolean)}.
+	 * @return an iterator over the elements of the list, whose values may be the map of a sublist.
+	 */
+	@SuppressWarnings("unchecked")
+	public static Iterator<Entry<String, Object>> iterateList(Map<String, ?> list) {
+		if (list instanceof VariablesMap.TreeNode)
+			return ((VariablesMap.TreeNode) list).snapshotIterator();
+		// Copy the entries of other maps to not be affected by changes
+		return new ArrayList<>(((Map<String, Object>) list).entrySet()).iterator();
+	}
+
 	/**
 	 * Deletes a variable.
 	 *
@@ -499,13 +658,25 @@ public class Variables {
 	 * @param local if this variable is a local or global variable.
 	 */
 	public static void setVariable(String name, @Nullable Object value, @Nullable Event event, boolean local) {
-		if (caseInsensitiveVariables) {
-			name = name.toLowerCase(Locale.ENGLISH);
-		}
+		setVariable(VariableKey.of(name), value, event, local);
+	}
 
+	/**
+	 * Sets a variable.
+	 *
+	 * @param key the variable's key.
+	 *                Can be a "list variable::*", but {@code value}
+	 *                must be {@code null} in this case.
+	 * @param value The variable's value. Use {@code null}
+	 *                 to delete the variable.
+	 * @param event if {@code local} is {@code true}, this is the event
+	 *                 the local variable resides in.
+	 * @param local if this variable is a local or global variable.
+	 */
+	public static void setVariable(VariableKey key, @Nullable Object value, @Nullable Event event, boolean local) {
 		// Check if conversion is needed due to ClassInfo#getSerializeAs
 		if (value != null) {
-			assert !name.endsWith("::*");
+			assert !key.isList() : key;
 
 			ClassInfo<?> ci = Classes.getSuperClassInfo(value.getClass());
 			Class<?> sas = ci.getSerializeAs();
@@ -517,101 +688,49 @@ public class Variables {
 		}
 
 		if (local) {
-			assert event != null : name;
+			assert event != null : key;
 
 			// Get the variables map and set the variable in it
-			VariablesMap map = localVariables.computeIfAbsent(event, e -> new VariablesMap());
-			map.setVariable(name, value);
+			VariablesMap map;
+			Frame frame = getFrame(event);
+			if (frame != null) {
+				map = frame.locals;
+				if (map == null)
+					frame.locals = map = new VariablesMap(frame.slots);
+			} else {
+				map = localVariables.computeIfAbsent(event, e -> new VariablesMap());
+			}
+			map.setVariable(key, value);
 		} else {
-			setVariable(name, value);
+			setVariable(key, value);
 		}
 	}
 
 	/**
 	 * Sets the given global variable name to the given value.
+	 * <p>
+	 * The change is queued for saving while still holding the variable's lock,
+	 * so that changes to the same variable reach the storages in the order they were made.
 	 *
 	 * @param name the variable name.
 	 * @param value the value, or {@code null} to delete the variable.
 	 */
 	static void setVariable(String name, @Nullable Object value) {
-		boolean gotLock = variablesLock.writeLock().tryLock();
-		if (gotLock) {
-			try {
-				// Set the variable
-				variables.setVariable(name, value);
-				// ..., save the variable change
-				saveVariableChange(name, value);
-				// ..., and process all previously queued changes
-				processChangeQueue();
-			} finally {
-				variablesLock.writeLock().unlock();
-			}
-		} else {
-			// Couldn't acquire variable write lock, queue the change (blocking here is a bad idea)
-			queueVariableChange(name, value);
-		}
+		setVariable(VariableKey.ofNormalised(name), value);
 	}
 
 	/**
-	 * Changes to variables that have not yet been performed.
-	 */
-	static final Queue<VariableChange> changeQueue = new ConcurrentLinkedQueue<>();
-
-	/**
-	 * A variable change name-value pair.
-	 */
-	private static class VariableChange {
-
-		/**
-		 * The name of the changed variable.
-		 */
-		public final String name;
-
-		/**
-		 * The (possibly {@code null}) value of the variable change.
-		 */
-		@Nullable
-		public final Object value;
-
-		/**
-		 * Creates a new {@link VariableChange} with the given name and value.
-		 *
-		 * @param name the variable name.
-		 * @param value the new variable value.
-		 */
-		public VariableChange(String name, @Nullable Object value) {
-			this.name = name;
-			this.value = value;
-		}
-
-	}
-
-	/**
-	 * Queues a variable change. Only to be called when direct write is not
-	 * possible, but thread cannot be allowed to block.
+	 * Sets the given global variable to the given value.
 	 *
-	 * @param name the variable name.
-	 * @param value the new value.
+	 * @param key the variable key.
+	 * @param value the value, or {@code null} to delete the variable.
+	 * @see #setVariable(String, Object)
 	 */
-	private static void queueVariableChange(String name, @Nullable Object value) {
-		changeQueue.add(new VariableChange(name, value));
-	}
-
-	/**
-	 * Processes all entries in variable change queue.
-	 * <p>
-	 * Note that caller must acquire write lock before calling this,
-	 * then release it.
-	 */
-	static void processChangeQueue() {
-		while (true) { // Run as long as we still have changes
-			VariableChange change = changeQueue.poll();
-			if (change == null)
-				break;
-
-			// Set and save variable
-			variables.setVariable(change.name, change.value);
-			saveVariableChange(change.name, change.value);
+	private static void setVariable(VariableKey key, @Nullable Object value) {
+		String name = key.getName();
+		synchronized (VariablesMap.getLock(name)) {
+			variables.setVariable(key, value);
+			saveVariableChange(name, value);
 		}
 	}
 
@@ -663,48 +782,12 @@ public class Variables {
 		synchronized (TEMP_VARIABLES) {
 			Map<String, NonNullPair<Object, VariablesStorage>> tvs = TEMP_VARIABLES.get();
 			if (tvs != null) {
-				NonNullPair<Object, VariablesStorage> existingVariable = tvs.get(name);
-
-				// Check for conflicts with other storages
-				conflict: if (existingVariable != null) {
-					VariablesStorage existingVariableStorage = existingVariable.getSecond();
-
-					if (existingVariableStorage == source) {
-						// No conflict if from the same storage
-						break conflict;
-					}
-
-					// Variable already loaded from another database, conflict
-					loadConflicts++;
-
-					// Warn if needed
-					if (loadConflicts <= MAX_CONFLICT_WARNINGS) {
-						Skript.warning("The variable {" + name + "} was loaded twice from different databases (" +
-							existingVariableStorage.databaseName + " and " + source.databaseName +
-							"), only the one from " + source.databaseName + " will be kept.");
-					} else if (loadConflicts == MAX_CONFLICT_WARNINGS + 1) {
-						Skript.warning("[!] More than " + MAX_CONFLICT_WARNINGS +
-							" variables were loaded more than once from different databases, " +
-							"no more warnings will be printed.");
-					}
-
-					// Remove the value from the existing variable's storage
-					existingVariableStorage.save(name, null, null);
-				}
-
-				// Add to the loaded variables
-				tvs.put(name, new NonNullPair<>(value, source));
-
+				loadTemporarily(tvs, name, value, source);
 				return false;
 			}
 		}
 
-		variablesLock.writeLock().lock();
-		try {
-			variables.setVariable(name, value);
-		} finally {
-			variablesLock.writeLock().unlock();
-		}
+		variables.setVariable(name, value);
 
 		// Move the variable to the right storage
 		try {
@@ -734,6 +817,75 @@ public class Variables {
 		return false;
 	}
 
+	/**
+	 * Adds a variable loaded while the storages are loading to the {@link #TEMP_VARIABLES temporary variables},
+	 * removing it from the storage it was loaded from before if that is a different one.
+	 * The caller must hold the lock of {@link #TEMP_VARIABLES}.
+	 */
+	private static void loadTemporarily(Map<String, NonNullPair<Object, VariablesStorage>> tvs,
+			String name, Object value, VariablesStorage source) {
+		NonNullPair<Object, VariablesStorage> existingVariable = tvs.get(name);
+
+		// Check for conflicts with other storages
+		conflict: if (existingVariable != null) {
+			VariablesStorage existingVariableStorage = existingVariable.getSecond();
+
+			if (existingVariableStorage == source) {
+				// No conflict if from the same storage
+				break conflict;
+			}
+
+			// Variable already loaded from another database, conflict
+			loadConflicts++;
+
+			// Warn if needed
+			if (loadConflicts <= MAX_CONFLICT_WARNINGS) {
+				Skript.warning("The variable {" + name + "} was loaded twice from different databases (" +
+					existingVariableStorage.databaseName + " and " + source.databaseName +
+					"), only the one from " + source.databaseName + " will be kept.");
+			} else if (loadConflicts == MAX_CONFLICT_WARNINGS + 1) {
+				Skript.warning("[!] More than " + MAX_CONFLICT_WARNINGS +
+					" variables were loaded more than once from different databases, " +
+					"no more warnings will be printed.");
+			}
+
+			// Remove the value from the existing variable's storage
+			existingVariableStorage.save(name, null, null);
+		}
+
+		// Add to the loaded variables
+		tvs.put(name, new NonNullPair<>(value, source));
+	}
+
+	/**
+	 * Does the same as {@link #variableLoaded(String, Object, VariablesStorage)} for many variables at once,
+	 * taking the lock of the loaded variables only once.
+	 * Must be called on Bukkit's main thread.
+	 *
+	 * @param names the variable names.
+	 * @param values the values of the variables, at the same indices as their names.
+	 * @param source the storage the variables came from.
+	 */
+	static void variablesLoaded(List<String> names, List<Object> values, VariablesStorage source) {
+		assert Bukkit.isPrimaryThread();
+		assert names.size() == values.size();
+
+		synchronized (TEMP_VARIABLES) {
+			Map<String, NonNullPair<Object, VariablesStorage>> tvs = TEMP_VARIABLES.get();
+			if (tvs != null) {
+				for (int i = 0; i < names.size(); i++) {
+					Object value = values.get(i);
+					if (value != null)
+						loadTemporarily(tvs, names.get(i), value, source);
+				}
+				return;
+			}
+		}
+
+		for (int i = 0; i < names.size(); i++)
+			variableLoaded(names.get(i), values.get(i), source);
+	}
+
 	/**
 	 * Stores loaded variables into the variables map
 	 * and the appropriate databases.
@@ -753,24 +905,19 @@ public class Variables {
 			TEMP_VARIABLES.set(null);
 			assert tvs != null;
 
-			variablesLock.writeLock().lock();
-			try {
-				// Calculate the amount of variables that don't have a storage
-				int unstoredVariables = 0;
-				for (Entry<String, NonNullPair<Object, VariablesStorage>> tv : tvs.entrySet()) {
-					if (!variableLoaded(tv.getKey(), tv.getValue().getFirst(), tv.getValue().getSecond()))
-						unstoredVariables++;
-				}
+			// Calculate the amount of variables that don't have a storage
+			int unstoredVariables = 0;
+			for (Entry<String, NonNullPair<Object, VariablesStorage>> tv : tvs.entrySet()) {
+				if (!variableLoaded(tv.getKey(), tv.getValue().getFirst(), tv.getValue().getSecond()))
+					unstoredVariables++;
+			}
 
-				for (VariablesStorage variablesStorage : STORAGES)
-					variablesStorage.allLoaded();
+			for (VariablesStorage variablesStorage : STORAGES)
+				variablesStorage.allLoaded();
 
-				Skript.debug("Variables set. Queue size = " + saveQueue.size());
+			Skript.debug("Variables set. Queue size = " + saver.getQueueSize());
 
-				return unstoredVariables;
-			} finally {
-				variablesLock.writeLock().unlock();
-			}
+			return unstoredVariables;
 		}
 	}
 
@@ -813,71 +960,48 @@ public class Variables {
 	}
 
 	/**
-	 * Serializes and adds the variable change to the {@link #saveQueue}.
+	 * Queues the variable change to be serialized and saved by the {@link #saver}.
 	 *
 	 * @param name the variable name.
 	 * @param value the value of the variable.
 	 */
 	private static void saveVariableChange(String name, @Nullable Object value) {
-		saveQueue.add(serialize(name, value));
+		saver.queue(name, value);
 	}
 
 	/**
-	 * The queue of serialized variables that have not yet been written
-	 * to the storage.
+	 * Serializes changed variables and hands them to the storages.
 	 */
-	static final BlockingQueue<SerializedVariable> saveQueue = new LinkedBlockingQueue<>();
+	private static final VariableSaver saver =
+			new VariableSaver(Math.max(1, Math.min(4, Runtime.getRuntime().availableProcessors() / 2)));
 
 	/**
-	 * Whether the {@link #saveThread} should be stopped.
+	 * Gets the amount of variable changes that have not yet been handed to a storage.
+	 *
+	 * @return the amount of unsaved variable changes.
 	 */
-	private static volatile boolean closed = false;
+	public static int getSaveQueueSize() {
+		return saver.getQueueSize();
+	}
 
 	/**
-	 * The thread that saves variables, i.e. stores in the appropriate storage.
+	 * Gets the average time between a variable change and it being handed to a storage.
+	 *
+	 * @return the average save latency, in milliseconds.
 	 */
-	private static final Thread saveThread = Skript.newThread(() -> {
-		while (!closed) {
-			try {
-				// Save one variable change
-				SerializedVariable variable = saveQueue.take();
-
-				for (VariablesStorage variablesStorage : STORAGES) {
-					if (variablesStorage.accept(variable.name)) {
-						variablesStorage.save(variable);
-
-						break;
-					}
-				}
-			} catch (InterruptedException ignored) {}
-		}
-	}, "Skript variable save thread");
+	public static double getAverageSaveLatency() {
+		return saver.getAverageLatency();
+	}
 
 	/**
 	 * Closes the variable systems:
 	 * <ul>
-	 *     <li>Process all changes left in the {@link #changeQueue}.</li>
-	 *     <li>Stops the {@link #saveThread}.</li>
+	 *     <li>Waits for all queued changes to be handed to the storages.</li>
+	 *     <li>Stops the save threads.</li>
 	 * </ul>
 	 */
 	public static void close() {
-		try { // Ensure that all changes are to save soon
-			variablesLock.writeLock().lock();
-			processChangeQueue();
-		} finally {
-			variablesLock.writeLock().unlock();
-		}
-
-		// First, make sure all variables are saved
-		while (saveQueue.size() > 0) {
-			try {
-				Thread.sleep(10);
-			} catch (InterruptedException ignored) {}
-		}
-
-		// Then we can safely interrupt and stop the thread
-		closed = true;
-		saveThread.interrupt();
+		saver.close();
 	}
 
 	/**
@@ -886,12 +1010,7 @@ public class Variables {
 	 * @return the amount of variables.
 	 */
 	public static int numVariables() {
-		try {
-			variablesLock.readLock().lock();
-			return variables.hashMap.size();
-		} finally {
-			variablesLock.readLock().unlock();
-		}
+		return variables.hashMap.size();
 	}
 
 }
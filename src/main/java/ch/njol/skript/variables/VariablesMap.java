@@ -22,14 +22,29 @@ import ch.njol.skript.lang.Variable;
 import ch.njol.util.StringUtils;
 import org.eclipse.jdt.annotation.Nullable;
 
+import java.util.AbstractMap.SimpleImmutableEntry;
+import java.util.Arrays;
 import java.util.Comparator;
-import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
 import java.util.Map;
 import java.util.Map.Entry;
-import java.util.TreeMap;
+import java.util.NoSuchElementException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReferenceFieldUpdater;
 
 /**
  * A map for storing variables in a sorted and efficient manner.
+ * <p>
+ * Reads never lock: plain variables are looked up in a {@link ConcurrentHashMap},
+ * and list variables are {@link TreeNode}s, which are {@link ConcurrentSkipListMap}s
+ * that may be iterated while other threads modify them, and whose {@link TreeNode#snapshotIterator() snapshot iterators}
+ * keep the elements a list had when a loop started.
+ * Writes to the {@link #createGlobal() global variables} lock only the {@link #getLock(String) stripe}
+ * of the variable's top-level name, so that writes to unrelated variables never wait for each other.
+ * Writes to local variables lock their own map, as they never affect other executions.
  */
 final class VariablesMap {
 
@@ -138,14 +153,369 @@ final class VariablesMap {
 		return 0;
 	};
 
+	/**
+	 * The amount of lock stripes, must be a power of two.
+	 */
+	private static final int LOCK_STRIPES = 64;
+
+	/**
+	 * The locks that writes to variables synchronize on.
+	 * A variable is guarded by the stripe of the first part of its name,
+	 * as that part determines the subtree a change may affect.
+	 *
+	 * @see #getLock(String)
+	 */
+	private static final Object[] LOCKS = new Object[LOCK_STRIPES];
+
+	static {
+		for (int i = 0; i < LOCK_STRIPES; i++)
+			LOCKS[i] = new Object();
+	}
+
+	/**
+	 * Gets the lock that guards writes to the given global variable.
+	 * <p>
+	 * Callers that need to perform more work atomically with a change,
+	 * such as queueing it for saving, may synchronize on this lock
+	 * around {@link #setVariable(String, Object)}.
+	 *
+	 * @param name the variable name.
+	 * @return the lock for the given variable.
+	 */
+	static Object getLock(String name) {
+		int hash = 0;
+		for (int i = 0; i < name.length(); i++) {
+			char c = name.charAt(i);
+			if (c == ':' && name.startsWith(Variable.SEPARATOR, i))
+				break;
+			hash = 31 * hash + c;
+		}
+		hash ^= hash >>> 16;
+		return LOCKS[hash & (LOCK_STRIPES - 1)];
+	}
+
+	/**
+	 * A node in the tree of list variables.
+	 * <p>
+	 * A {@link ConcurrentSkipListMap} does not permit {@code null} keys,
+	 * so the value of the variable this node is the list of
+	 * (e.g. {@code {list}} for {@code {list::*}}) is kept in a separate field.
+	 * It is still available through {@link #get(Object) get(null)},
+	 * {@link #put(String, Object) put(null, value)} and {@link #remove(Object) remove(null)},
+	 * but is not part of the entries of this map.
+	 * <p>
+	 * The {@link #snapshotIterator() snapshot iterators} that loops use only copy the keys of this node
+	 * if an element is {@link #put(String, Object) put} or {@link #remove(Object) removed} while one is open.
+	 * Other modifying methods of the map don't take these copies and must not be used.
+	 */
+	static final class TreeNode extends ConcurrentSkipListMap<String, Object> {
+
+		private static final AtomicReferenceFieldUpdater<TreeNode, Snapshot> SNAPSHOT =
+			AtomicReferenceFieldUpdater.newUpdater(TreeNode.class, Snapshot.class, "snapshot");
+
+		@Nullable
+		private volatile Object value;
+
+		/**
+		 * The snapshot shared by the iterators opened since the keys of this node last changed,
+		 * or {@code null} if there are none.
+		 */
+		@Nullable
+		private volatile Snapshot snapshot;
+
+		/**
+		 * Whether this node has been removed from its list, after which its open iterators end.
+		 */
+		private volatile boolean detached;
+
+		TreeNode() {
+			super(VARIABLE_NAME_COMPARATOR);
+		}
+
+		/**
+		 * @return the value of the variable this node is the list of, or {@code null} if that variable is not set.
+		 */
+		@Nullable
+		Object getValue() {
+			return value;
+		}
+
+		@Override
+		@Nullable
+		public Object get(@Nullable Object key) {
+			if (key == null)
+				return value;
+			return super.get(key);
+		}
+
+		@Override
+		public boolean containsKey(@Nullable Object key) {
+			if (key == null)
+				return value != null;
+			return super.containsKey(key);
+		}
+
+		@Override
+		@Nullable
+		public Object put(@Nullable String key, Object value) {
+			if (key == null) {
+				Object old = this.value;
+				this.value = value;
+				return old;
+			}
+			takeSnapshot();
+			return super.put(key, value);
+		}
+
+		@Override
+		@Nullable
+		public Object remove(@Nullable Object key) {
+			if (key == null) {
+				Object old = value;
+				value = null;
+				return old;
+			}
+			takeSnapshot();
+			return super.remove(key);
+		}
+
+		/**
+		 * Marks this node and its subtrees as removed from their list,
+		 * so that the iterators that are open on them end.
+		 */
+		void detach() {
+			detached = true;
+			takeSnapshot();
+			for (Object child : values()) {
+				if (child instanceof TreeNode)
+					((TreeNode) child).detach();
+			}
+		}
+
+		/**
+		 * Copies the keys of this node for the iterators that are open on it, if there are any.
+		 * Must be called before the keys or the values of this node are changed.
+		 */
+		private void takeSnapshot() {
+			Snapshot snapshot = this.snapshot;
+			if (snapshot == null)
+				return;
+			snapshot.keys = keySet().toArray(new String[0]);
+			// Iterators opened after this change see the change instead
+			SNAPSHOT.compareAndSet(this, snapshot, null);
+		}
+
+		/**
+		 * Creates an iterator over the entries of this node as they were when the iterator was created:
+		 * elements added later are not visited, while the elements that are removed or changed before they are reached
+		 * are skipped or visited with their new values, respectively.
+		 * <p>
+		 * Until this node is changed, the iterator walks the entries of the map without copying them.
+		 * The first {@link #put(String, Object) put} or {@link #remove(Object) remove} while iterators are open
+		 * copies the keys once for all of them, after which they look up the values of the remaining keys.
+		 * An iterator that isn't iterated to its end may cause a single unnecessary copy on the next change.
+		 *
+		 * @return the iterator.
+		 */
+		Iterator<Entry<String, Object>> snapshotIterator() {
+			Snapshot snapshot = pin();
+			Iterator<Entry<String, Object>> entries = entrySet().iterator();
+			return new Iterator<Entry<String, Object>>() {
+				@Nullable
+				private Entry<String, Object> next;
+				@Nullable
+				private String lastKey;
+				private String @Nullable [] keys;
+				private int index;
+				private boolean done;
+
+				@Override
+				public boolean hasNext() {
+					if (next != null)
+						return true;
+					if (done)
+						return false;
+
+					String[] keys = this.keys;
+					if (keys == null) {
+						if (entries.hasNext()) {
+							Entry<String, Object> entry = entries.next();
+							// The entry may already include a change made after the iterator was created
+							if (snapshot.keys == null) {
+								next = entry;
+								return true;
+							}
+						}
+						keys = snapshot.keys;
+						if (keys == null)
+							return end();
+						this.keys = keys;
+						if (lastKey != null) {
+							int found = Arrays.binarySearch(keys, lastKey, VARIABLE_NAME_COMPARATOR);
+							index = found >= 0 ? found + 1 : -found - 1;
+						}
+					}
+
+					while (index < keys.length && !detached) {
+						String key = keys[index++];
+						Object value = get(key);
+						if (value != null) {
+							next = new SimpleImmutableEntry<>(key, value);
+							return true;
+						}
+					}
+					return end();
+				}
+
+				private boolean end() {
+					done = true;
+					if (snapshot.release())
+						SNAPSHOT.compareAndSet(TreeNode.this, snapshot, null);
+					return false;
+				}
+
+				@Override
+				public Entry<String, Object> next() {
+					if (!hasNext())
+						throw new NoSuchElementException();
+					Entry<String, Object> n = next;
+					assert n != null;
+					next = null;
+					lastKey = n.getKey();
+					return n;
+				}
+			};
+		}
+
+		/**
+		 * @return the snapshot for an iterator that is being created, shared with the other iterators opened since the last change.
+		 */
+		private Snapshot pin() {
+			while (true) {
+				Snapshot snapshot = this.snapshot;
+				if (snapshot != null && snapshot.retain())
+					return snapshot;
+				Snapshot pinned = new Snapshot();
+				if (SNAPSHOT.compareAndSet(this, snapshot, pinned))
+					return pinned;
+			}
+		}
+
+	}
+
+	/**
+	 * The keys of a {@link TreeNode} before it was first changed after a group of iterators were opened on it.
+	 */
+	private static final class Snapshot {
+
+		/**
+		 * The amount of iterators that have not reached their end, once zero the snapshot can't be used anymore.
+		 */
+		private final AtomicInteger iterators = new AtomicInteger(1);
+
+		/**
+		 * The keys of the node, or {@code null} if it hasn't been changed yet.
+		 */
+		private volatile String @Nullable [] keys;
+
+		/**
+		 * @return whether another iterator could be added to this snapshot.
+		 */
+		boolean retain() {
+			int count;
+			do {
+				count = iterators.get();
+				if (count == 0)
+					return false;
+			} while (!iterators.compareAndSet(count, count + 1));
+			return true;
+		}
+
+		/**
+		 * @return whether this was the last iterator of this snapshot.
+		 */
+		boolean release() {
+			return iterators.decrementAndGet() == 0;
+		}
+
+	}
+
 	/**
 	 * The map that stores all non-list variables.
 	 */
-	final HashMap<String, Object> hashMap = new HashMap<>();
+	final ConcurrentHashMap<String, Object> hashMap = new ConcurrentHashMap<>();
 	/**
 	 * The tree of variables, branched by the list structure of the variables.
 	 */
-	final TreeMap<String, Object> treeMap = new TreeMap<>();
+	final TreeNode treeMap = new TreeNode();
+
+	/**
+	 * The slots that local variables with constant names are stored in instead of the {@link #hashMap},
+	 * or {@code null} if this map doesn't use slots.
+	 * They are still added to the {@link #treeMap}, as they may be the value of a list variable's node.
+	 */
+	@Nullable
+	private final LocalVariableSlots slotTable;
+	@Nullable
+	private final Object[] slots;
+
+	/**
+	 * State that syntax elements keep for the execution these local variables belong to,
+	 * e.g. the iterators of loops, indexed by the element. Created when the first state is set.
+	 *
+	 * @see Variables#getExecutionState(org.bukkit.event.Event, Object)
+	 */
+	@Nullable
+	private IdentityHashMap<Object, Object> executionStates;
+
+	/**
+	 * Whether this map holds the global variables, which share the striped {@link #getLock(String) locks}.
+	 */
+	private final boolean global;
+
+	/**
+	 * Creates a map for the global variables, whose writes lock the {@link #getLock(String) stripe} of the variable.
+	 *
+	 * @return the new map.
+	 */
+	static VariablesMap createGlobal() {
+		return new VariablesMap(null, 0, true);
+	}
+
+	/**
+	 * Creates a map for local variables without slots.
+	 */
+	VariablesMap() {
+		this(null);
+	}
+
+	/**
+	 * Creates a map for local variables that stores the variables
+	 * which had been assigned a slot in the given slots at this time in an array.
+	 *
+	 * @param slotTable the local variable slots of the trigger being executed.
+	 */
+	VariablesMap(@Nullable LocalVariableSlots slotTable) {
+		this(slotTable, slotTable == null ? 0 : slotTable.size(), false);
+	}
+
+	private VariablesMap(@Nullable LocalVariableSlots slotTable, int size, boolean global) {
+		this.slotTable = size == 0 ? null : slotTable;
+		this.slots = size == 0 ? null : new Object[size];
+		this.global = global;
+	}
+
+	/**
+	 * @return the slot of the given non-list variable in this map, or {@code -1} if it isn't stored in a slot.
+	 */
+	private int getSlot(VariableKey key) {
+		Object[] slots = this.slots;
+		if (slots == null)
+			return -1;
+		assert slotTable != null;
+		int slot = key.getSlots() == slotTable ? key.getSlot() : slotTable.getSlot(key.getName());
+		return slot < slots.length ? slot : -1;
+	}
 
 	/**
 	 * Returns the internal value of the requested variable.
@@ -157,16 +527,35 @@ final class VariablesMap {
 	 * {@code Map<String, Object>} for a list variable,
 	 * or {@code null} if the variable is not set.
 	 */
-	@SuppressWarnings("unchecked")
 	@Nullable
 	Object getVariable(String name) {
-		if (!name.endsWith("*")) {
-			// Not a list variable, quick access from the hash map
-			return hashMap.get(name);
+		return getVariable(VariableKey.ofNormalised(name));
+	}
+
+	/**
+	 * Returns the internal value of the requested variable.
+	 * <p>
+	 * <b>Do not modify the returned value!</b>
+	 *
+	 * @param key the key of the variable, possibly a list variable.
+	 * @return an {@link Object} for a normal variable or a
+	 * {@code Map<String, Object>} for a list variable,
+	 * or {@code null} if the variable is not set.
+	 */
+	@Nullable
+	Object getVariable(VariableKey key) {
+		if (!key.isList()) {
+			// Not a list variable, quick access from the slots or the hash map
+			int slot = getSlot(key);
+			if (slot != -1) {
+				assert slots != null;
+				return slots[slot];
+			}
+			return hashMap.get(key.getName());
 		} else {
 			// List variable, search the tree branches
-			String[] split = Variables.splitVariableName(name);
-			Map<String, Object> parent = treeMap;
+			String[] split = key.getParts();
+			TreeNode parent = treeMap;
 
 			// Iterate over the parts of the variable name
 			for (int i = 0; i < split.length; i++) {
@@ -183,9 +572,9 @@ final class VariablesMap {
 					return null;
 
 				// Continue the iteration if the child node is a tree itself
-				if (childNode instanceof Map) {
+				if (childNode instanceof TreeNode) {
 					// Continue iterating with the subtree
-					parent = (Map<String, Object>) childNode;
+					parent = (TreeNode) childNode;
 					assert i != split.length - 1;
 				} else {
 					// ..., otherwise the list variable doesn't exist here
@@ -205,19 +594,48 @@ final class VariablesMap {
 	 * @param name the variable name.
 	 * @param value the variable value, {@code null} to delete the variable.
 	 */
-	@SuppressWarnings("unchecked")
 	void setVariable(String name, @Nullable Object value) {
-		// First update the hash map easily
-		if (!name.endsWith("*")) {
-			if (value == null)
+		setVariable(VariableKey.ofNormalised(name), value);
+	}
+
+	/**
+	 * Sets the given variable to the given value.
+	 * <p>
+	 * This method accepts list variables,
+	 * but these may only be set to {@code null}.
+	 *
+	 * @param key the variable key.
+	 * @param value the variable value, {@code null} to delete the variable.
+	 */
+	void setVariable(VariableKey key, @Nullable Object value) {
+		synchronized (global ? getLock(key.getName()) : this) {
+			setVariable_i(key, value);
+		}
+	}
+
+	/**
+	 * Does the actual work of {@link #setVariable(VariableKey, Object)},
+	 * the caller must hold the lock of the variable.
+	 */
+	private void setVariable_i(VariableKey key, @Nullable Object value) {
+		String name = key.getName();
+
+		// First update the slots or the hash map easily
+		if (!key.isList()) {
+			int slot = getSlot(key);
+			if (slot != -1) {
+				assert slots != null;
+				slots[slot] = value;
+			} else if (value == null) {
 				hashMap.remove(name);
-			else
+			} else {
 				hashMap.put(name, value);
+			}
 		}
 
 		// Then update the tree map by going down the branches
-		String[] split = Variables.splitVariableName(name);
-		TreeMap<String, Object> parent = treeMap;
+		String[] split = key.getParts();
+		TreeNode parent = treeMap;
 
 		// Iterate over the parts of the variable name
 		for (int i = 0; i < split.length; i++) {
@@ -234,17 +652,17 @@ final class VariablesMap {
 					break;
 				} else if (value != null) {
 					// Create child node, add it to parent and continue iteration
-					childNode = new TreeMap<>(VARIABLE_NAME_COMPARATOR);
+					TreeNode childNodeMap = new TreeNode();
 
-					parent.put(childNodeName, childNode);
-					parent = (TreeMap<String, Object>) childNode;
+					parent.put(childNodeName, childNodeMap);
+					parent = childNodeMap;
 				} else {
 					// Want to set variable to null, bu variable is already null
 					break;
 				}
-			} else if (childNode instanceof TreeMap) {
+			} else if (childNode instanceof TreeNode) {
 				// Child node found
-				TreeMap<String, Object> childNodeMap = ((TreeMap<String, Object>) childNode);
+				TreeNode childNodeMap = (TreeNode) childNode;
 
 				if (i == split.length - 1) {
 					// End of variable name reached, adjust child node accordingly
@@ -260,11 +678,13 @@ final class VariablesMap {
 
 					// Delete all indices of the list variable from hashMap
 					deleteFromHashMap(StringUtils.join(split, Variable.SEPARATOR, 0, i + 1), childNodeMap);
+					// End the loops over the list or its sublists
+					childNodeMap.detach();
 
 					// If the list variable itself has a value ,
 					//  e.g. list `{mylist::3}` while variable `{mylist}` also has a value,
 					//  then adjust the parent for that
-					Object currentChildValue = childNodeMap.get(null);
+					Object currentChildValue = childNodeMap.getValue();
 					if (currentChildValue == null)
 						parent.remove(childNodeName);
 					else
@@ -287,7 +707,7 @@ final class VariablesMap {
 					break;
 				} else if (value != null) {
 					// Need to continue iteration, create new child node and put old value in it
-					TreeMap<String, Object> newChildNodeMap = new TreeMap<>(VARIABLE_NAME_COMPARATOR);
+					TreeNode newChildNodeMap = new TreeNode();
 					newChildNodeMap.put(null, childNode);
 
 					// Add new child node to parent
@@ -307,11 +727,8 @@ final class VariablesMap {
 	 *                  e.g. {@code list} for {@code list::*}.
 	 * @param current the map of the list variable.
 	 */
-	@SuppressWarnings("unchecked")
-	void deleteFromHashMap(String parent, TreeMap<String, Object> current) {
+	void deleteFromHashMap(String parent, TreeNode current) {
 		for (Entry<String, Object> e : current.entrySet()) {
-			if (e.getKey() == null)
-				continue;
 			String childName = parent + Variable.SEPARATOR + e.getKey();
 
 			// Remove from hashMap
@@ -319,54 +736,88 @@ final class VariablesMap {
 
 			// Recurse if needed
 			Object val = e.getValue();
-			if (val instanceof TreeMap) {
-				deleteFromHashMap(childName, (TreeMap<String, Object>) val);
+			if (val instanceof TreeNode) {
+				deleteFromHashMap(childName, (TreeNode) val);
 			}
 		}
 	}
 
+	/**
+	 * @return the execution state kept by the given key, or {@code null} if it has none.
+	 */
+	@Nullable
+	Object getExecutionState(Object key) {
+		IdentityHashMap<Object, Object> executionStates = this.executionStates;
+		return executionStates == null ? null : executionStates.get(key);
+	}
+
+	/**
+	 * Sets the execution state kept by the given key.
+	 *
+	 * @param key the key.
+	 * @param state the state, or {@code null} to remove it.
+	 */
+	void setExecutionState(Object key, @Nullable Object state) {
+		IdentityHashMap<Object, Object> executionStates = this.executionStates;
+		if (state == null) {
+			if (executionStates != null)
+				executionStates.remove(key);
+			return;
+		}
+		if (executionStates == null)
+			this.executionStates = executionStates = new IdentityHashMap<>(4);
+		executionStates.put(key, state);
+	}
+
 	/**
 	 * Creates a copy of this map.
+	 * The execution states are copied into a map of the copy, so setting or removing a state of one map
+	 * doesn't affect the other, but the states themselves, e.g. the iterator of a loop, are the same objects.
 	 *
 	 * @return the copy.
 	 */
 	public VariablesMap copy() {
-		VariablesMap copy = new VariablesMap();
+		Object[] slots = this.slots;
+		VariablesMap copy = new VariablesMap(slotTable, slots == null ? 0 : slots.length, global);
 
+		if (slots != null) {
+			assert copy.slots != null;
+			System.arraycopy(slots, 0, copy.slots, 0, slots.length);
+		}
 		copy.hashMap.putAll(hashMap);
-
-		TreeMap<String, Object> treeMapCopy = copyTreeMap(treeMap);
-		copy.treeMap.putAll(treeMapCopy);
+		copyTreeNode(treeMap, copy.treeMap);
+		if (executionStates != null)
+			copy.executionStates = new IdentityHashMap<>(executionStates);
 
 		return copy;
 	}
 
 	/**
-	 * Makes a deep copy of the given {@link TreeMap}.
+	 * Makes a deep copy of the given {@link TreeNode} into the given target.
 	 * <p>
 	 * The 'deep copy' means that each subtree of the given tree is copied
 	 * as well.
 	 *
-	 * @param original the original tree map.
-	 * @return the copy.
+	 * @param original the original tree node.
+	 * @param copy the node to copy into.
 	 */
-	@SuppressWarnings("unchecked")
-	private static TreeMap<String, Object> copyTreeMap(TreeMap<String, Object> original) {
-		TreeMap<String, Object> copy = new TreeMap<>(VARIABLE_NAME_COMPARATOR);
+	private static void copyTreeNode(TreeNode original, TreeNode copy) {
+		Object value = original.getValue();
+		if (value != null)
+			copy.put(null, value);
 
 		for (Entry<String, Object> child : original.entrySet()) {
-			String key = child.getKey();
-			Object value = child.getValue();
+			Object childValue = child.getValue();
 
-			// Copy by recursion if the child is a TreeMap
-			if (value instanceof TreeMap) {
-				value = copyTreeMap((TreeMap<String, Object>) value);
+			// Copy by recursion if the child is a TreeNode
+			if (childValue instanceof TreeNode) {
+				TreeNode childCopy = new TreeNode();
+				copyTreeNode((TreeNode) childValue, childCopy);
+				childValue = childCopy;
 			}
 
-			copy.put(key, value);
+			copy.put(child.getKey(), childValue);
 		}
-
-		return copy;
 	}
 
 }
@@ -20,6 +20,8 @@ package ch.njol.skript.variables;
 
 import java.io.File;
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.concurrent.LinkedBlockingQueue;
 import java.util.regex.Pattern;
 import java.util.regex.PatternSyntaxException;
@@ -59,6 +61,11 @@ public abstract class VariablesStorage implements Closeable {
 	 */
 	private static final int FIRST_WARNING = 300;
 
+	/**
+	 * The maximum amount of changes passed to {@link #save(List)} at once.
+	 */
+	protected static final int MAX_BATCH_SIZE = 500;
+
 	final LinkedBlockingQueue<SerializedVariable> changesQueue = new LinkedBlockingQueue<>(QUEUE_SIZE);
 
 	/**
@@ -104,19 +111,19 @@ public abstract class VariablesStorage implements Closeable {
 		databaseName = name;
 
 		writeThread = Skript.newThread(() -> {
+			List<SerializedVariable> batch = new ArrayList<>();
 			while (!closed) {
 				try {
-					// Take a variable from the queue and process it
-					SerializedVariable variable = changesQueue.take();
-					Value value = variable.value;
-
-					// Actually save the variable
-					if (value != null)
-						save(variable.name, value.type, value.data);
-					else
-						save(variable.name, null, null);
+					// Take all variables from the queue, waiting for at least one
+					batch.add(changesQueue.take());
+					changesQueue.drainTo(batch, MAX_BATCH_SIZE - 1);
+
+					// Actually save the variables
+					save(batch);
 				} catch (InterruptedException ignored) {
 					// Ignored as the `closed` field will indicate whether the thread actually needs to stop
+				} finally {
+					batch.clear();
 				}
 			}
 		}, "Skript variable save thread for database '" + name + "'");
@@ -275,8 +282,7 @@ public abstract class VariablesStorage implements Closeable {
 	protected abstract File getFile(String fileName);
 
 	/**
-	 * Must be locked after {@link Variables#getReadLock()}
-	 * (if that lock is used at all).
+	 * The lock guarding the connection to the database.
 	 */
 	protected final Object connectionLock = new Object();
 
@@ -440,6 +446,26 @@ public abstract class VariablesStorage implements Closeable {
 		changesQueue.clear();
 	}
 
+	/**
+	 * Saves a batch of variable changes, in the order they were made.
+	 * <p>
+	 * Called from the {@link #writeThread} with all changes that were queued
+	 * since the last batch, at most {@link #MAX_BATCH_SIZE}.
+	 * The default implementation calls {@link #save(String, String, byte[])} for each change;
+	 * storages that can write multiple changes at once more efficiently should override this.
+	 *
+	 * @param batch the variable changes.
+	 */
+	protected void save(List<SerializedVariable> batch) {
+		for (SerializedVariable variable : batch) {
+			Value value = variable.value;
+			if (value != null)
+				save(variable.name, value.type, value.data);
+			else
+				save(variable.name, null, null);
+		}
+	}
+
 	/**
 	 * Saves a variable.
 	 * <p>
@@ -0,0 +1,83 @@
+/**
+ *   This file is part of Skript.
+ *
+ *  Skript is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  Skript is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with Skript.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * Copyright Peter Güttinger, SkriptLang team and contributors
+ */
+package ch.njol.util;
+
+import org.eclipse.jdt.annotation.Nullable;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.BiFunction;
+
+/**
+ * A thread-safe cache of values computed from a pair of classes, which is read without locking or allocating.
+ * <p>
+ * The values for a first class are stored in a {@link ClassValue}, mapping the second class to the value.
+ * {@code null} results are cached as well, so that lookups which failed once are not computed again.
+ * Values are never removed, so the function must always give the same result for the same classes.
+ *
+ * @param <V> the type of the cached values.
+ */
+public final class ClassPairCache<V> {
+
+	/**
+	 * Marks a cached {@code null} result.
+	 */
+	private static final Object NONE = new Object();
+
+	private final ClassValue<Map<Class<?>, Object>> cache = new ClassValue<Map<Class<?>, Object>>() {
+		@Override
+		protected Map<Class<?>, Object> computeValue(Class<?> type) {
+			return new ConcurrentHashMap<>();
+		}
+	};
+
+	private final BiFunction<Class<?>, Class<?>, V> function;
+
+	/**
+	 * @param function computes the value of a pair of classes, may return {@code null}.
+	 * It is called without holding any locks and may be called more than once for the same classes when they are looked up concurrently.
+	 */
+	public ClassPairCache(BiFunction<Class<?>, Class<?>, V> function) {
+		this.function = function;
+	}
+
+	/**
+	 * Gets the value of the given classes, computing it if it isn't cached yet.
+	 *
+	 * @param first the first class.
+	 * @param second the second class.
+	 * @return the value of the classes.
+	 */
+	@Nullable
+	@SuppressWarnings("unchecked")
+	public V get(Class<?> first, Class<?> second) {
+		Map<Class<?>, Object> values = cache.get(first);
+		Object value = values.get(second);
+		if (value == null) {
+			// Not computed inside the map, as the function may look up other values of this cache
+			V computed = function.apply(first, second);
+			value = computed == null ? NONE : computed;
+			Object previous = values.putIfAbsent(second, value);
+			if (previous != null)
+				value = previous;
+		}
+		return value == NONE ? null : (V) value;
+	}
+
+}
@@ -0,0 +1,118 @@
+/**
+ *   This file is part of Skript.
+ *
+ *  Skript is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  Skript is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with Skript.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * Copyright Peter Güttinger, SkriptLang team and contributors
+ */
+package ch.njol.skript;
+
+import ch.njol.skript.SyntaxRegistryIndex.IndexedClass;
+import ch.njol.skript.lang.ExpressionInfo;
+import ch.njol.skript.lang.ExpressionType;
+import ch.njol.skript.lang.SyntaxElementInfo;
+import org.eclipse.jdt.annotation.Nullable;
+import org.junit.Test;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.List;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+public class SyntaxRegistryIndexTest {
+
+	private static final String HEADER = SyntaxRegistryIndex.HEADER + "\t" + SyntaxRegistryIndex.FORMAT + "\t2.7.0\n";
+
+	@Test
+	public void testRead() throws IOException {
+		String[] patterns = {"send %objects%", "a\ttab, a\nnew line and a \\ backslash"};
+		String[] expressionValues = SyntaxRegistryIndex.expressionValues(Long.class, ExpressionType.SIMPLE, new String[] {"%number% time[s]"});
+		String index = HEADER
+			+ "eager\tch.njol.skript.effects.EffKnockback\n"
+			+ "lazy\tch.njol.skript.effects.EffMessage\n"
+			+ SyntaxRegistryIndex.entry(SyntaxRegistryIndex.EFFECT, "ch.njol.skript.effects.EffMessage", patterns) + "\n"
+			+ "\n"
+			+ "lazy\tch.njol.skript.expressions.ExprTimes\n"
+			+ SyntaxRegistryIndex.entry(SyntaxRegistryIndex.EXPRESSION, "ch.njol.skript.expressions.ExprTimes", expressionValues) + "\n";
+
+		List<IndexedClass> classes = read(index, "2.7.0-nightly");
+		assertNotNull(classes);
+		assertEquals(3, classes.size());
+
+		assertEquals("ch.njol.skript.effects.EffKnockback", classes.get(0).name);
+		assertNull(classes.get(0).entries);
+
+		assertEquals("ch.njol.skript.effects.EffMessage", classes.get(1).name);
+		assertNotNull(classes.get(1).entries);
+		assertEquals(1, classes.get(1).entries.size());
+		assertArrayEquals(new String[] {"effect", "ch.njol.skript.effects.EffMessage", patterns[0], patterns[1]}, classes.get(1).entries.get(0));
+
+		assertNotNull(classes.get(2).entries);
+		assertArrayEquals(new String[] {"expression", "ch.njol.skript.expressions.ExprTimes", Long.class.getName(), "SIMPLE", "%number% time[s]"},
+			classes.get(2).entries.get(0));
+
+		// Indices of other versions and other files are ignored
+		assertNull(read(index, "2.7.1"));
+		assertNull(read(index, "2.7.0.1"));
+		assertNull(read("not an index\n", "2.7.0"));
+		assertNull(read("", "2.7.0"));
+	}
+
+	@Test(expected = IOException.class)
+	public void testEntryOutsideLazyClass() throws IOException {
+		read(HEADER + "eager\tch.njol.skript.effects.EffKnockback\neffect\tch.njol.skript.effects.EffKnockback\tknockback %livingentities%\n", "2.7.0");
+	}
+
+	/**
+	 * Creates the infos of all registered elements from the entries that would be written for them if their classes were lazy,
+	 * checking that they are the same as the infos the classes registered.
+	 */
+	@Test
+	public void testLazyInfos() throws ClassNotFoundException {
+		for (SyntaxElementInfo<?> info : Skript.getConditions())
+			assertLazyInfo(info, SyntaxRegistryIndex.CONDITION, info.patterns);
+		for (SyntaxElementInfo<?> info : Skript.getEffects())
+			assertLazyInfo(info, SyntaxRegistryIndex.EFFECT, info.patterns);
+		for (SyntaxElementInfo<?> info : Skript.getSections())
+			assertLazyInfo(info, SyntaxRegistryIndex.SECTION, info.patterns);
+		for (ExpressionInfo<?, ?> info : Skript.getExpressionInfos()) {
+			ExpressionInfo<?, ?> lazy = (ExpressionInfo<?, ?>) assertLazyInfo(info, SyntaxRegistryIndex.EXPRESSION,
+				SyntaxRegistryIndex.expressionValues(info.returnType, info.expressionType, info.patterns));
+			assertSame(info.returnType, lazy.returnType);
+			assertSame(info.expressionType, lazy.expressionType);
+		}
+	}
+
+	private static SyntaxElementInfo<?> assertLazyInfo(SyntaxElementInfo<?> info, String kind, String[] values) throws ClassNotFoundException {
+		String[] entry = SyntaxRegistryIndex.split(SyntaxRegistryIndex.entry(kind, info.originClassPath, values));
+		SyntaxElementInfo<?> lazy = SyntaxRegistryIndex.createInfo(info.c, entry, info.c.getClassLoader());
+		assertSame(info.getClass(), lazy.getClass());
+		assertSame(info.c, lazy.c);
+		assertEquals(info.originClassPath, lazy.originClassPath);
+		assertArrayEquals(info.c.getName(), info.patterns, lazy.patterns);
+		return lazy;
+	}
+
+	@Nullable
+	private static List<IndexedClass> read(String index, String version) throws IOException {
+		return SyntaxRegistryIndex.read(new BufferedReader(new StringReader(index)), version);
+	}
+
+}
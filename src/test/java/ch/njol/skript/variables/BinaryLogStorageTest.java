@@ -0,0 +1,112 @@
+/**
+ *   This file is part of Skript.
+ *
+ *  Skript is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  Skript is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with Skript.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * Copyright Peter Güttinger, SkriptLang team and contributors
+ */
+package ch.njol.skript.variables;
+
+import ch.njol.skript.variables.SerializedVariable.Value;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class BinaryLogStorageTest {
+
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+	@Test
+	public void testTornTrailingRecord() throws IOException {
+		File logFile = folder.newFile("variables.bin.log");
+		byte[] first = BinaryLogStorage.encodeRecord("a", "long", new byte[] {1});
+		byte[] second = BinaryLogStorage.encodeRecord("b", "string", new byte[] {2, 3});
+		byte[] torn = BinaryLogStorage.encodeRecord("c", "long", new byte[] {4, 5, 6, 7});
+		long validSize;
+		try (FileChannel channel = BinaryLogStorage.openLog(logFile)) {
+			write(channel, first);
+			write(channel, second);
+			validSize = channel.size();
+			write(channel, Arrays.copyOf(torn, torn.length / 2));
+		}
+
+		Map<String, Value> records = new LinkedHashMap<>();
+		assertEquals(validSize, BinaryLogStorage.readRecords(logFile, records, true));
+		assertEquals(Arrays.asList("a", "b"), Arrays.asList(records.keySet().toArray()));
+		assertArrayEquals(new byte[] {2, 3}, records.get("b").data);
+		// The torn record must be removed, so that records appended later aren't hidden behind it
+		assertEquals(validSize, logFile.length());
+
+		try (FileChannel channel = BinaryLogStorage.openLog(logFile)) {
+			write(channel, BinaryLogStorage.encodeRecord("a", null, null));
+			write(channel, torn);
+		}
+		records.clear();
+		BinaryLogStorage.readRecords(logFile, records, true);
+		assertEquals(Arrays.asList("b", "c"), Arrays.asList(records.keySet().toArray()));
+		assertArrayEquals(new byte[] {4, 5, 6, 7}, records.get("c").data);
+	}
+
+	@Test
+	public void testImportCSV() throws IOException {
+		File csvFile = folder.newFile("variables.csv");
+		try (PrintWriter writer = new PrintWriter(new OutputStreamWriter(new FileOutputStream(csvFile), FlatFileStorage.FILE_CHARSET))) {
+			writer.println("# === Skript's variable storage ===");
+			writer.println("# version: 2.7.0");
+			writer.println();
+			writer.println("number, long, " + FlatFileStorage.encode(new byte[] {0, 1, 2}));
+			writer.println("\"quoted, name\", string, " + FlatFileStorage.encode(new byte[] {3}));
+			writer.println("deleted, long, 00");
+			writer.println("deleted, null, ");
+			writer.println("invalid line");
+			writer.println("number, long, " + FlatFileStorage.encode(new byte[] {4}));
+		}
+
+		File snapshotFile = new File(folder.getRoot(), "variables.bin");
+		assertTrue(new BinaryLogStorage("test").importCSV(csvFile, snapshotFile));
+
+		Map<String, Value> records = new LinkedHashMap<>();
+		BinaryLogStorage.readRecords(snapshotFile, records, false);
+		assertEquals(3, records.size());
+		assertEquals("long", records.get("number").type);
+		assertArrayEquals(new byte[] {4}, records.get("number").data);
+		assertEquals("string", records.get("quoted, name").type);
+		assertArrayEquals(new byte[] {3}, records.get("quoted, name").data);
+		// Lines with the type 'null' are skipped, just like when the CSV file is loaded
+		assertArrayEquals(new byte[] {0}, records.get("deleted").data);
+	}
+
+	private static void write(FileChannel channel, byte[] bytes) throws IOException {
+		ByteBuffer buffer = ByteBuffer.wrap(bytes);
+		while (buffer.hasRemaining())
+			channel.write(buffer);
+	}
+
+}
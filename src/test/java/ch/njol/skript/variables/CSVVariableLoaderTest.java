@@ -0,0 +1,335 @@
+/**
+ *   This file is part of Skript.
+ *
+ *  Skript is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  Skript is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with Skript.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * Copyright Peter Güttinger, SkriptLang team and contributors
+ */
+package ch.njol.skript.variables;
+
+import ch.njol.skript.Skript;
+import ch.njol.skript.log.LogEntry;
+import ch.njol.skript.log.RetainingLogHandler;
+import ch.njol.skript.log.SkriptLogger;
+import ch.njol.skript.registrations.Classes;
+import ch.njol.skript.util.Utils;
+import ch.njol.skript.util.Version;
+import ch.njol.skript.variables.SerializedVariable.Value;
+import org.eclipse.jdt.annotation.Nullable;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Loads variable files with the {@link CSVVariableLoader},
+ * checking that the results are the same as when the file is read line by line, like it was before the loader.
+ */
+public class CSVVariableLoaderTest {
+
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+	@Test
+	public void testLineAcrossChunks() throws IOException {
+		StringBuilder file = new StringBuilder();
+		int i = 0;
+		while (file.length() < CSVVariableLoader.CHUNK_SIZE - 100)
+			appendVariable(file, "filler::" + i, (long) i++, "\n");
+
+		int start = file.length();
+		String value = repeat('x', 200);
+		appendVariable(file, "across", value, "\n");
+		assertTrue(start < CSVVariableLoader.CHUNK_SIZE && file.length() > CSVVariableLoader.CHUNK_SIZE);
+		appendVariable(file, "after", 1L, "\n");
+
+		Result result = assertSameAsSequential(file);
+		assertEquals(value, result.get("across"));
+		assertEquals(1L, result.get("after"));
+	}
+
+	@Test
+	public void testLineBreakAtChunkEnd() throws IOException {
+		StringBuilder file = new StringBuilder();
+		int i = 0;
+		while (file.length() < CSVVariableLoader.CHUNK_SIZE - 200)
+			appendVariable(file, "filler::" + i, (long) i++, "\n");
+		// The next chunk starts right after the minimum chunk size
+		file.append("# ").append(repeat('x', CSVVariableLoader.CHUNK_SIZE - file.length() - 3)).append('\n');
+		assertEquals(CSVVariableLoader.CHUNK_SIZE, file.length());
+
+		appendVariable(file, "first", 1L, "\n");
+		int invalidLine = count(file, '\n') + 1;
+		file.append("invalid, line\n");
+		appendVariable(file, "last", 2L, "");
+
+		Result result = assertSameAsSequential(file);
+		assertEquals(1L, result.get("first"));
+		assertEquals(2L, result.get("last"));
+		assertEquals(Arrays.asList("invalid amount of commas in line " + invalidLine + " ('invalid, line')"), result.errors);
+		assertEquals(1, result.unsuccessful);
+		assertEquals("invalid", result.invalid);
+	}
+
+	@Test
+	public void testVersionAcrossChunks() throws IOException {
+		StringBuilder file = new StringBuilder("# version: 2.0\n\n");
+		int i = 0;
+		// Values of Skript versions before 2.1 are saved as strings instead of hexadecimal bytes
+		while (file.length() < CSVVariableLoader.CHUNK_SIZE + 100)
+			file.append("legacy::").append(i).append(", long, ").append(i++).append('\n');
+		file.append("legacy::last, long, 1234\n");
+		file.append("# version: 2.7\n");
+		appendVariable(file, "current", 1234L, "\n");
+
+		Result result = assertSameAsSequential(file);
+		assertEquals(1234L, result.get("legacy::last"));
+		assertEquals(1234L, result.get("current"));
+		assertEquals(0, result.unsuccessful);
+	}
+
+	@Test
+	public void testLineBreaksAndQuotes() throws IOException {
+		StringBuilder file = new StringBuilder("# version: 2.7\r\n\r\n");
+		appendVariable(file, "list::a, b", "a, b", "\r\n");
+		appendVariable(file, "quote \"in\" name", 1L, "\r\n");
+		appendVariable(file, "#not a comment", 2.5, "\r\n");
+		file.append("  ");
+		appendVariable(file, "indented", 3L, "  \r\n");
+		appendVariable(file, "no line break", 4L, "");
+
+		Result result = assertSameAsSequential(file);
+		assertEquals(Arrays.asList("list::a, b", "quote \"in\" name", "#not a comment", "indented", "no line break"), result.names);
+		assertEquals(Arrays.asList("a, b", 1L, 2.5, 3L, 4L), result.values);
+		assertTrue(result.errors.isEmpty());
+	}
+
+	/**
+	 * Loads a file of many chunks with a mix of valid, invalid, deleted and repeated variables and comments.
+	 */
+	@Test
+	public void testSameAsSequential() throws IOException {
+		Random random = new Random(42);
+		StringBuilder file = new StringBuilder("# version: 2.7\n\n");
+		while (file.length() < 2 * CSVVariableLoader.CHUNK_SIZE + 1000) {
+			String name = "random::" + random.nextInt(50_000);
+			switch (random.nextInt(10)) {
+				case 0:
+					file.append(name).append(", null, \n");
+					break;
+				case 1:
+					file.append("# comment ").append(random.nextInt()).append('\n');
+					break;
+				case 2:
+					file.append(name).append(", ").append(random.nextInt()).append('\n');
+					break;
+				case 3:
+					file.append(name).append(", unknown type, 00\n");
+					break;
+				case 4:
+					appendVariable(file, name, "text " + random.nextInt(), "\n");
+					break;
+				case 5:
+					appendVariable(file, name, random.nextDouble(), "\r\n");
+					break;
+				default:
+					appendVariable(file, name, random.nextLong(), "\n");
+			}
+		}
+
+		Result result = assertSameAsSequential(file);
+		assertFalse(result.names.isEmpty());
+		assertFalse(result.errors.isEmpty());
+	}
+
+	/**
+	 * Writes the given file and loads it both with the {@link CSVVariableLoader} and line by line,
+	 * checking that the results are the same.
+	 */
+	private Result assertSameAsSequential(CharSequence content) throws IOException {
+		File file = folder.newFile();
+		Files.write(file.toPath(), content.toString().getBytes(FlatFileStorage.FILE_CHARSET));
+
+		Result expected = collect(result -> loadSequentially(file, result));
+		Result actual = collect(result -> {
+			CSVVariableLoader loader = new CSVVariableLoader((names, values) -> {
+				result.names.addAll(names);
+				result.values.addAll(values);
+			});
+			loader.load(file);
+			result.unsuccessful = loader.getUnsuccessfulVariableCount();
+			result.invalid = loader.getInvalidVariables();
+			result.update2_1 = loader.isUpdate2_1();
+		});
+
+		assertEquals(expected.names, actual.names);
+		assertEquals(expected.values, actual.values);
+		assertEquals(expected.errors, actual.errors);
+		assertEquals(expected.unsuccessful, actual.unsuccessful);
+		assertEquals(expected.invalid, actual.invalid);
+		assertEquals(expected.update2_1, actual.update2_1);
+		return actual;
+	}
+
+	/**
+	 * Loads the given file line by line the way it was loaded before the {@link CSVVariableLoader},
+	 * except that variables of the type {@code null} are skipped as loading them doesn't do anything.
+	 */
+	@SuppressWarnings("deprecation")
+	private static void loadSequentially(File file, Result result) throws IOException {
+		Version v2_0_beta3 = new Version(2, 0, "beta 3");
+		Version v2_1 = new Version(2, 1);
+		boolean update2_0_beta3 = false;
+		StringBuilder invalid = new StringBuilder();
+		try (BufferedReader reader = Files.newBufferedReader(file.toPath(), FlatFileStorage.FILE_CHARSET)) {
+			String line;
+			int lineNum = 0;
+			while ((line = reader.readLine()) != null) {
+				lineNum++;
+				line = line.trim();
+
+				if (line.isEmpty() || line.startsWith("#")) {
+					if (line.startsWith("# version:")) {
+						try {
+							Version version = new Version(line.substring("# version:".length()).trim());
+							update2_0_beta3 = version.isSmallerThan(v2_0_beta3);
+							result.update2_1 = version.isSmallerThan(v2_1);
+						} catch (IllegalArgumentException ignored) {
+						}
+					}
+					continue;
+				}
+
+				String[] split = FlatFileStorage.splitCSV(line);
+				if (split == null || split.length != 3) {
+					Skript.error("invalid amount of commas in line " + lineNum + " ('" + line + "')");
+					appendInvalid(invalid, split == null || split.length == 0 ? "<unknown>" : split[0]);
+					result.unsuccessful++;
+					continue;
+				}
+				if (split[1].equals("null"))
+					continue;
+
+				Object value;
+				if (result.update2_1) {
+					value = Classes.deserialize(split[1], split[2]);
+				} else {
+					value = Classes.deserialize(split[1], FlatFileStorage.decode(split[2]));
+				}
+				if (value == null) {
+					appendInvalid(invalid, split[0]);
+					result.unsuccessful++;
+					continue;
+				}
+				if (value instanceof String && update2_0_beta3)
+					value = Utils.replaceChatStyles((String) value);
+
+				result.names.add(split[0]);
+				result.values.add(value);
+			}
+		}
+		result.invalid = invalid.toString();
+	}
+
+	private static void appendInvalid(StringBuilder invalid, String name) {
+		if (invalid.length() != 0)
+			invalid.append(", ");
+		invalid.append(name);
+	}
+
+	/**
+	 * Runs the given loader, collecting the errors it logs.
+	 */
+	private static Result collect(Loader loader) throws IOException {
+		Result result = new Result();
+		RetainingLogHandler log = SkriptLogger.startRetainingLog();
+		try {
+			loader.load(result);
+		} finally {
+			for (LogEntry error : log.getErrors())
+				result.errors.add(error.getMessage());
+			log.clear();
+			log.printLog();
+		}
+		return result;
+	}
+
+	private interface Loader {
+
+		void load(Result result) throws IOException;
+
+	}
+
+	private static final class Result {
+
+		final List<String> names = new ArrayList<>();
+		final List<Object> values = new ArrayList<>();
+		final List<String> errors = new ArrayList<>();
+		int unsuccessful;
+		String invalid = "";
+		boolean update2_1;
+
+		/**
+		 * @return the last value loaded for the given variable.
+		 */
+		@Nullable
+		Object get(String name) {
+			int index = names.lastIndexOf(name);
+			return index == -1 ? null : values.get(index);
+		}
+
+	}
+
+	/**
+	 * Appends a line of the given variable in the format written by the {@link FlatFileStorage}.
+	 */
+	private static void appendVariable(StringBuilder file, String name, Object value, String lineBreak) {
+		Value serialized = Classes.serialize(value);
+		assertNotNull(serialized);
+		boolean quote = name.contains(",") || name.contains("\"") || name.contains("#") || name.contains(" ");
+		file.append(quote ? '"' + name.replace("\"", "\"\"") + '"' : name)
+			.append(", ").append(serialized.type)
+			.append(", ").append(FlatFileStorage.encode(serialized.data))
+			.append(lineBreak);
+	}
+
+	private static String repeat(char c, int times) {
+		char[] chars = new char[times];
+		Arrays.fill(chars, c);
+		return new String(chars);
+	}
+
+	private static int count(CharSequence sequence, char c) {
+		int count = 0;
+		for (int i = 0; i < sequence.length(); i++) {
+			if (sequence.charAt(i) == c)
+				count++;
+		}
+		return count;
+	}
+
+}
@@ -0,0 +1,103 @@
+/**
+ *   This file is part of Skript.
+ *
+ *  Skript is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  Skript is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with Skript.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * Copyright Peter Güttinger, SkriptLang team and contributors
+ */
+package ch.njol.skript.variables;
+
+import ch.njol.skript.variables.SerializedVariable.Value;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Writes batches of changes to a SQLite database, using the SQLite driver that comes with the server.
+ */
+public class SQLStorageTest {
+
+	private static final String TABLE = "variables21";
+
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+	@Test
+	public void testBatches() throws SQLException {
+		File file = new File(folder.getRoot(), "variables.db");
+		try (Connection connection = DriverManager.getConnection("jdbc:sqlite:" + file.getAbsolutePath())) {
+			try (Statement statement = connection.createStatement()) {
+				statement.execute("CREATE TABLE " + TABLE + " (" +
+					"name VARCHAR(" + SQLStorage.MAX_VARIABLE_NAME_LENGTH + ") NOT NULL PRIMARY KEY, " +
+					"type VARCHAR(" + SQLStorage.MAX_CLASS_CODENAME_LENGTH + "), " +
+					"value BLOB(" + SQLStorage.MAX_VALUE_SIZE + "), " +
+					"update_guid CHAR(36) NOT NULL)");
+			}
+
+			try (
+				PreparedStatement writeQuery = connection.prepareStatement(String.format(SQLStorage.WRITE_QUERY, TABLE));
+				PreparedStatement deleteQuery = connection.prepareStatement(String.format(SQLStorage.DELETE_QUERY, TABLE))
+			) {
+				// More changes than fit in one batch, and a last batch that isn't full
+				List<SerializedVariable> changes = new ArrayList<>();
+				for (int i = 0; i < 10; i++)
+					changes.add(new SerializedVariable("var::" + i, new Value("long", new byte[] {(byte) i})));
+				SQLStorage.executeBatches(changes, writeQuery, deleteQuery, 3);
+				assertEquals(10, read(connection).size());
+
+				changes.clear();
+				for (int i = 0; i < 7; i++)
+					changes.add(new SerializedVariable("var::" + i, null));
+				changes.add(new SerializedVariable("var::8", new Value("string", new byte[] {42})));
+				changes.add(new SerializedVariable("var::missing", null));
+				SQLStorage.executeBatches(changes, writeQuery, deleteQuery, 3);
+			}
+
+			Map<String, Value> variables = read(connection);
+			assertEquals(3, variables.size());
+			assertArrayEquals(new byte[] {7}, variables.get("var::7").data);
+			assertEquals("string", variables.get("var::8").type);
+			assertArrayEquals(new byte[] {42}, variables.get("var::8").data);
+			assertArrayEquals(new byte[] {9}, variables.get("var::9").data);
+		}
+	}
+
+	private static Map<String, Value> read(Connection connection) throws SQLException {
+		Map<String, Value> variables = new LinkedHashMap<>();
+		try (
+			Statement statement = connection.createStatement();
+			ResultSet result = statement.executeQuery("SELECT name, type, value FROM " + TABLE + " ORDER BY rowid")
+		) {
+			while (result.next())
+				variables.put(result.getString(1), new Value(result.getString(2), result.getBytes(3)));
+		}
+		return variables;
+	}
+
+}
@@ -0,0 +1,118 @@
+/**
+ *   This file is part of Skript.
+ *
+ *  Skript is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  Skript is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with Skript.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * Copyright Peter Güttinger, SkriptLang team and contributors
+ */
+package ch.njol.skript.variables;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map.Entry;
+
+import org.junit.Test;
+
+public class VariablesMapTest {
+
+	private static VariablesMap.TreeNode list(VariablesMap map, String name, String... values) {
+		for (int i = 0; i < values.length; i++)
+			map.setVariable(name + "::" + (i + 1), values[i]);
+		VariablesMap.TreeNode list = (VariablesMap.TreeNode) map.getVariable(name + "::*");
+		assert list != null;
+		return list;
+	}
+
+	private static List<String> rest(Iterator<Entry<String, Object>> iterator) {
+		List<String> values = new ArrayList<>();
+		while (iterator.hasNext())
+			values.add((String) iterator.next().getValue());
+		return values;
+	}
+
+	@Test
+	public void testUnchanged() {
+		VariablesMap map = VariablesMap.createGlobal();
+		VariablesMap.TreeNode list = list(map, "list", "a", "b", "c");
+		assertEquals(Arrays.asList("a", "b", "c"), rest(list.snapshotIterator()));
+	}
+
+	@Test
+	public void testAdd() {
+		VariablesMap map = new VariablesMap();
+		VariablesMap.TreeNode list = list(map, "_list", "a", "b", "c");
+		Iterator<Entry<String, Object>> iterator = list.snapshotIterator();
+		List<String> values = new ArrayList<>();
+		while (iterator.hasNext()) {
+			Entry<String, Object> entry = iterator.next();
+			values.add((String) entry.getValue());
+			map.setVariable("_list::" + (list.size() + 1), entry.getValue());
+		}
+		assertEquals(Arrays.asList("a", "b", "c"), values);
+		assertEquals(6, list.size());
+	}
+
+	@Test
+	public void testRemoveAndChange() {
+		VariablesMap map = new VariablesMap();
+		VariablesMap.TreeNode list = list(map, "_list", "a", "b", "c", "d");
+		Iterator<Entry<String, Object>> iterator = list.snapshotIterator();
+		assertEquals("a", iterator.next().getValue());
+		map.setVariable("_list::2", "x");
+		map.setVariable("_list::3", null);
+		map.setVariable("_list::0", "before");
+		map.setVariable("_list::5", "after");
+		assertEquals(Arrays.asList("x", "d"), rest(iterator));
+	}
+
+	@Test
+	public void testDeleteList() {
+		VariablesMap map = new VariablesMap();
+		VariablesMap.TreeNode list = list(map, "_list", "a", "b", "c");
+		map.setVariable("_list::2::sub", "s");
+		VariablesMap.TreeNode sublist = (VariablesMap.TreeNode) map.getVariable("_list::2::*");
+		assert sublist != null;
+		Iterator<Entry<String, Object>> iterator = list.snapshotIterator();
+		Iterator<Entry<String, Object>> subIterator = sublist.snapshotIterator();
+		assertEquals("a", iterator.next().getValue());
+		map.setVariable("_list::*", null);
+		assertFalse(iterator.hasNext());
+		assertFalse(subIterator.hasNext());
+		assertNull(map.getVariable("_list::*"));
+	}
+
+	@Test
+	public void testIteratorsOpenedAfterChange() {
+		VariablesMap map = new VariablesMap();
+		VariablesMap.TreeNode list = list(map, "_list", "a", "b");
+		Iterator<Entry<String, Object>> first = list.snapshotIterator();
+		Iterator<Entry<String, Object>> second = list.snapshotIterator();
+		map.setVariable("_list::3", "c");
+		Iterator<Entry<String, Object>> third = list.snapshotIterator();
+		map.setVariable("_list::4", "d");
+		assertEquals(Arrays.asList("a", "b"), rest(first));
+		assertEquals(Arrays.asList("a", "b"), rest(second));
+		assertEquals(Arrays.asList("a", "b", "c"), rest(third));
+		// All iterators have ended, so the next change doesn't need a snapshot
+		map.setVariable("_list::5", "e");
+		assertEquals(Arrays.asList("a", "b", "c", "d", "e"), rest(list.snapshotIterator()));
+	}
+
+}
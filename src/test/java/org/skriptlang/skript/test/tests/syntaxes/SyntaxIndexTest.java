@@ -0,0 +1,119 @@
+/**
+ *   This file is part of Skript.
+ *
+ *  Skript is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  Skript is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with Skript.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * Copyright Peter Güttinger, SkriptLang team and contributors
+ */
+package org.skriptlang.skript.test.tests.syntaxes;
+
+import ch.njol.skript.Skript;
+import ch.njol.skript.lang.SkriptParser;
+import ch.njol.skript.log.RetainingLogHandler;
+import ch.njol.skript.log.SkriptLogger;
+import ch.njol.skript.test.runner.TestMode;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Parses the statements of the bundled test scripts with and without the syntax index,
+ * making sure that both give the same results, and reports how long each took.
+ */
+public class SyntaxIndexTest {
+
+	private static final int ROUNDS = 5;
+
+	@Test
+	@SuppressWarnings({"unchecked", "rawtypes"})
+	public void testIndexedParsing() throws IOException {
+		List<String> lines = getStatements();
+
+		Function<String, Object> iterated = line -> SkriptParser.parse(line, (Iterator) Skript.getStatements().iterator(), null);
+		Function<String, Object> indexed = line -> SkriptParser.parse(line, (Collection) Skript.getStatements(), null);
+
+		List<String> expected = parseAll(lines, iterated);
+		assertEquals(expected, parseAll(lines, indexed));
+
+		long iteratedTime = time(lines, iterated);
+		long indexedTime = time(lines, indexed);
+		Skript.info("Parsed " + lines.size() + " statements " + ROUNDS + " times in " + iteratedTime / 1_000_000 + " ms without and "
+			+ indexedTime / 1_000_000 + " ms with the syntax index");
+	}
+
+	private static List<String> getStatements() throws IOException {
+		// In JUnit mode, the test directory is the 'junit' directory next to the other tests
+		Path testsDir = TestMode.TEST_DIR.getParent();
+		List<Path> scripts;
+		try (Stream<Path> files = Files.walk(testsDir)) {
+			scripts = files.filter(file -> file.toString().endsWith(".sk")).sorted().collect(Collectors.toList());
+		}
+
+		List<String> lines = new ArrayList<>();
+		for (Path script : scripts) {
+			for (String line : Files.readAllLines(script, StandardCharsets.UTF_8)) {
+				// Only indented lines that aren't sections or comments are statements
+				if (line.isEmpty() || !Character.isWhitespace(line.charAt(0)))
+					continue;
+				line = line.trim();
+				if (line.isEmpty() || line.startsWith("#") || line.endsWith(":"))
+					continue;
+				lines.add(line);
+			}
+		}
+		return lines;
+	}
+
+	private static List<String> parseAll(List<String> lines, Function<String, Object> parser) {
+		List<String> results = new ArrayList<>(lines.size());
+		for (String line : lines)
+			results.add(line + " -> " + parse(line, parser));
+		return results;
+	}
+
+	private static String parse(String line, Function<String, Object> parser) {
+		RetainingLogHandler log = SkriptLogger.startRetainingLog();
+		try {
+			Object result = parser.apply(line);
+			return result == null ? "null" : result.getClass().getName();
+		} catch (RuntimeException | AssertionError e) {
+			// Most lines are parsed outside the events they are meant for
+			return e.getClass().getName();
+		} finally {
+			log.stop();
+		}
+	}
+
+	private static long time(List<String> lines, Function<String, Object> parser) {
+		long start = System.nanoTime();
+		for (int i = 0; i < ROUNDS; i++) {
+			for (String line : lines)
+				parse(line, parser);
+		}
+		return System.nanoTime() - start;
+	}
+
+}
@@ -0,0 +1,89 @@
+/**
+ *   This file is part of Skript.
+ *
+ *  Skript is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  Skript is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with Skript.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * Copyright Peter Güttinger, SkriptLang team and contributors
+ */
+package org.skriptlang.skript.test.tests.utils;
+
+import ch.njol.util.ClassPairCache;
+import org.junit.Test;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Test the {@link ClassPairCache} used for converter and comparator lookups.
+ */
+public class ClassPairCacheTest {
+
+	private static final int LOOKUPS = 100_000;
+
+	@Test
+	public void testCaching() {
+		AtomicInteger computations = new AtomicInteger();
+		ClassPairCache<String> cache = new ClassPairCache<>((first, second) -> {
+			computations.incrementAndGet();
+			return first == second ? null : first.getSimpleName() + " -> " + second.getSimpleName();
+		});
+
+		String value = cache.get(Integer.class, String.class);
+		assertEquals("Integer -> String", value);
+		assertSame(value, cache.get(Integer.class, String.class));
+		assertEquals("String -> Integer", cache.get(String.class, Integer.class));
+		assertEquals(2, computations.get());
+
+		// Missing values are cached too
+		assertNull(cache.get(String.class, String.class));
+		assertNull(cache.get(String.class, String.class));
+		assertEquals(3, computations.get());
+	}
+
+	@Test
+	public void testNoAllocation() {
+		ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+		if (!(bean instanceof com.sun.management.ThreadMXBean))
+			return;
+		com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) bean;
+		if (!threads.isThreadAllocatedMemorySupported() || !threads.isThreadAllocatedMemoryEnabled())
+			return;
+
+		ClassPairCache<Object> cache = new ClassPairCache<>((first, second) -> first == second ? null : new Object());
+		long thread = Thread.currentThread().getId();
+		int found = 0;
+		for (int round = 0; round < 2; round++) {
+			// The first round computes the values and warms up the lookups
+			long before = threads.getThreadAllocatedBytes(thread);
+			for (int i = 0; i < LOOKUPS; i++) {
+				if (cache.get(Integer.class, String.class) != null)
+					found++;
+				if (cache.get(String.class, String.class) != null)
+					found++;
+			}
+			long allocated = threads.getThreadAllocatedBytes(thread) - before;
+			// Allow for what measuring the allocated memory may allocate itself
+			if (round == 1)
+				assertTrue("Cached lookups allocated " + allocated + " bytes", allocated < 1024);
+		}
+		assertEquals(2 * LOOKUPS, found);
+	}
+
+}